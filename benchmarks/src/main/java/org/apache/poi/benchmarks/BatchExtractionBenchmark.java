@@ -0,0 +1,99 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmarks;
+
+import org.apache.poi.extractor.BatchTextExtractor;
+import org.apache.poi.extractor.ExtractionCallback;
+import org.apache.poi.extractor.ExtractionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Extraction of a batch of Word documents on several threads. The score is
+ * batches per second; each batch holds {@value #FILES} files.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BatchExtractionBenchmark {
+    static final int FILES = 32;
+
+    @Param({"SMALL", "MEDIUM"})
+    public Corpus.Size size;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private List<File> _files;
+
+    private BatchTextExtractor _extractor;
+
+    @Setup
+    public void setUp() throws Exception {
+        File file = Corpus.wordFile(size);
+        _files = new ArrayList<File>();
+        for (int f = 0; f < FILES; f++) {
+            _files.add(file);
+        }
+        _extractor = new BatchTextExtractor(threads, Runtime.getRuntime()
+                .maxMemory() / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        _extractor.close();
+    }
+
+    @Benchmark
+    public long extract() throws InterruptedException {
+        final AtomicLong chars = new AtomicLong();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        _extractor.process(_files, new ExtractionCallback() {
+            public void extracted(ExtractionResult result) {
+                if (result.isSuccessful()) {
+                    chars.addAndGet(result.getText().length());
+                } else {
+                    failure.compareAndSet(null, result.getFailure());
+                }
+            }
+        });
+        if (failure.get() != null)
+            throw new IllegalStateException("Extraction failed", failure.get());
+        return chars.get();
+    }
+}
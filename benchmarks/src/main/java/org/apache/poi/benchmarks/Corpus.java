@@ -0,0 +1,256 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmarks;
+
+import org.apache.poi.hdgf.HDGFLZW;
+import org.apache.poi.hslf.model.Slide;
+import org.apache.poi.hslf.model.TextBox;
+import org.apache.poi.hslf.usermodel.SlideShow;
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.usermodel.Paragraph;
+import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Synthetic documents the benchmarks run on. They are generated on first use
+ * and kept in the corpus directory (<code>benchmark.corpus.dir</code>,
+ * <code>target/corpus</code> by default), so every fork of a benchmark reads
+ * the same bytes.
+ */
+public final class Corpus {
+    /**
+     * Size of a generated document, in chunks of
+     * {@value #PARAGRAPHS_PER_CHUNK} paragraphs followed by a table
+     */
+    public enum Size {
+        SMALL(1), MEDIUM(20), HUGE(500);
+
+        final int chunks;
+
+        Size(int chunks) {
+            this.chunks = chunks;
+        }
+    }
+
+    static final int PARAGRAPHS_PER_CHUNK = 100;
+
+    private static final String[] WORDS = {"contract", "party", "amount",
+            "payment", "term", "clause", "schedule", "balance", "statement",
+            "total", "net", "revenue", "liability", "asset", "period"};
+
+    private Corpus() {
+    }
+
+    private static File getDirectory() {
+        File directory = new File(System.getProperty("benchmark.corpus.dir",
+                "target/corpus"));
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IllegalStateException("Unable to create corpus directory "
+                    + directory.getAbsolutePath());
+        return directory;
+    }
+
+    private static File getSeed(String property) {
+        String path = System.getProperty(property);
+        if (path == null)
+            throw new IllegalStateException("Seed document is not set, run with -D"
+                    + property + "=<file>");
+        File seed = new File(path);
+        if (!seed.isFile())
+            throw new IllegalStateException("Seed document " + path
+                    + " does not exist");
+        return seed;
+    }
+
+    private static byte[] read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return the named corpus file, generating it first if needed
+     */
+    private static synchronized File file(String name, Generator generator)
+            throws IOException {
+        File file = new File(getDirectory(), name);
+        if (!file.isFile()) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            generator.generate(buffer);
+            File temp = new File(file.getPath() + ".tmp");
+            OutputStream out = new FileOutputStream(temp);
+            try {
+                buffer.writeTo(out);
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file))
+                throw new IOException("Unable to rename " + temp + " to "
+                        + file);
+        }
+        return file;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w != 0)
+                text.append(' ');
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return Word 97-2003 document grown from the
+     * <code>benchmark.seed.doc</code> seed
+     */
+    public static byte[] word(Size size) throws IOException {
+        return read(wordFile(size));
+    }
+
+    public static File wordFile(final Size size) throws IOException {
+        return file("word-" + size + ".doc", new Generator() {
+            public void generate(OutputStream out) throws IOException {
+                HWPFDocument document = new HWPFDocument(new FileInputStream(
+                        getSeed("benchmark.seed.doc")));
+                Random random = new Random(size.chunks);
+                StringBuilder text = new StringBuilder();
+                for (int c = 0; c < size.chunks; c++) {
+                    text.setLength(0);
+                    for (int p = 0; p < PARAGRAPHS_PER_CHUNK; p++) {
+                        text.append(sentence(random, 12)).append('\r');
+                    }
+                    // keep inserted text inside the last section
+                    Range range = document.getRange();
+                    Paragraph last = range.getParagraph(range
+                            .numParagraphs() - 1);
+                    last.insertBefore(text.toString());
+
+                    range = document.getRange();
+                    last = range.getParagraph(range.numParagraphs() - 1);
+                    last.insertTableBefore((short) 4, 5);
+                }
+                document.write(out);
+            }
+        });
+    }
+
+    /**
+     * @return encrypted Word document given by
+     * <code>benchmark.encrypted.doc</code>
+     */
+    public static byte[] encryptedWord() throws IOException {
+        return read(new File(System.getProperty("benchmark.encrypted.doc",
+                "../test/20030523jm.doc")));
+    }
+
+    public static String encryptedWordPassword() {
+        return System.getProperty("benchmark.encrypted.password", "111111");
+    }
+
+    /**
+     * @return PowerPoint 97-2003 presentation grown from the
+     * <code>benchmark.seed.ppt</code> seed by adding a slide with a text box
+     * per paragraph chunk
+     */
+    public static byte[] powerPoint(final Size size) throws IOException {
+        return read(file("powerpoint-" + size + ".ppt", new Generator() {
+            public void generate(OutputStream out) throws IOException {
+                SlideShow slideShow = new SlideShow(new FileInputStream(
+                        getSeed("benchmark.seed.ppt")));
+                Random random = new Random(size.chunks);
+                for (int c = 0; c < size.chunks * 10; c++) {
+                    Slide slide = slideShow.createSlide();
+                    TextBox box = new TextBox();
+                    box.setText(sentence(random, 60));
+                    box.setAnchor(new Rectangle(50, 50, 600, 400));
+                    slide.addShape(box);
+                }
+                slideShow.write(out);
+            }
+        }));
+    }
+
+    /**
+     * @return Outlook message with subject, sender and a plain text body of
+     * {@value #PARAGRAPHS_PER_CHUNK} lines per chunk, written from scratch
+     */
+    public static byte[] outlook(final Size size) throws IOException {
+        return read(file("outlook-" + size + ".msg", new Generator() {
+            public void generate(OutputStream out) throws IOException {
+                Random random = new Random(size.chunks);
+                StringBuilder body = new StringBuilder();
+                for (int l = 0; l < size.chunks * PARAGRAPHS_PER_CHUNK; l++) {
+                    body.append(sentence(random, 12)).append("\r\n");
+                }
+
+                POIFSFileSystem fs = new POIFSFileSystem();
+                addString(fs, "__substg1.0_0037001F", sentence(random, 5));
+                addString(fs, "__substg1.0_0C1A001F", "Sender Name");
+                addString(fs, "__substg1.0_1000001F", body.toString());
+                fs.createDocument(new ByteArrayInputStream(new byte[32]),
+                        "__properties_version1.0");
+                fs.writeFilesystem(out);
+            }
+        }));
+    }
+
+    private static void addString(POIFSFileSystem fs, String name,
+                                  String value) throws IOException {
+        fs.createDocument(new ByteArrayInputStream(value
+                .getBytes("UTF-16LE")), name);
+    }
+
+    /**
+     * @return Visio stream compressed with the HDGF LZW variant, from text with
+     * the repetitions of real documents
+     */
+    public static byte[] visioLzw(final Size size) throws IOException {
+        return read(file("visio-" + size + ".lzw", new Generator() {
+            public void generate(OutputStream out) throws IOException {
+                Random random = new Random(size.chunks);
+                StringBuilder text = new StringBuilder();
+                for (int l = 0; l < size.chunks * PARAGRAPHS_PER_CHUNK; l++) {
+                    text.append(sentence(random, 12)).append('\n');
+                }
+                new HDGFLZW().compress(new ByteArrayInputStream(text
+                        .toString().getBytes("UTF-8")), out);
+            }
+        }));
+    }
+
+    private interface Generator {
+        void generate(OutputStream out) throws IOException;
+    }
+}
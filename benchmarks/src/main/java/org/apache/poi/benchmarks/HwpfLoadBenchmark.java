@@ -0,0 +1,105 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmarks;
+
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.HWPFLoadOptions;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening of plain and encrypted Word documents, with each load profile.
+ * The encrypted document comes in one size only, so it has its own state
+ * without the size parameter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HwpfLoadBenchmark {
+    public enum Profile {
+        FULL(HWPFLoadOptions.FULL), TEXT_ONLY(HWPFLoadOptions.TEXT_ONLY), TABLES_ONLY(
+                HWPFLoadOptions.TABLES_ONLY);
+
+        final HWPFLoadOptions options;
+
+        Profile(HWPFLoadOptions options) {
+            this.options = options;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Plain {
+        @Param
+        public Corpus.Size size;
+
+        @Param
+        public Profile profile;
+
+        byte[] content;
+
+        @Setup
+        public void setUp() throws IOException {
+            content = Corpus.word(size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Encrypted {
+        @Param
+        public Profile profile;
+
+        byte[] content;
+
+        String password;
+
+        @Setup
+        public void setUp() throws IOException {
+            content = Corpus.encryptedWord();
+            password = Corpus.encryptedWordPassword();
+        }
+    }
+
+    @Benchmark
+    public HWPFDocument openPlain(Plain state) throws IOException {
+        return new HWPFDocument(new POIFSFileSystem(new ByteArrayInputStream(
+                state.content)).getRoot(), state.profile.options);
+    }
+
+    @Benchmark
+    public HWPFDocument openEncrypted(Encrypted state) throws Exception {
+        return new HWPFDocument(new POIFSFileSystem(new ByteArrayInputStream(
+                state.content)).getRoot(), state.password,
+                state.profile.options);
+    }
+}
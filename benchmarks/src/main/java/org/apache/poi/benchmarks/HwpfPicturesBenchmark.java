@@ -0,0 +1,78 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmarks;
+
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.usermodel.Picture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of the pictures of a Word document and probing of their
+ * dimensions and sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HwpfPicturesBenchmark {
+    @Param
+    public Corpus.Size size;
+
+    private byte[] _content;
+
+    @Setup
+    public void setUp() throws Exception {
+        _content = Corpus.word(size);
+    }
+
+    /**
+     * Loads the document on every call, as the picture run index is built
+     * once per document
+     */
+    @Benchmark
+    public List<Picture> allPictures() throws Exception {
+        return new HWPFDocument(new ByteArrayInputStream(_content))
+                .getPicturesTable().getAllPictures();
+    }
+
+    @Benchmark
+    public void probePictures(Blackhole blackhole) throws Exception {
+        for (Picture picture : allPictures()) {
+            blackhole.consume(picture.getWidth());
+            blackhole.consume(picture.getHeight());
+            blackhole.consume(picture.getSize());
+        }
+    }
+}
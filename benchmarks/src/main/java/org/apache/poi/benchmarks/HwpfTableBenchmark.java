@@ -0,0 +1,114 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmarks;
+
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.hwpf.usermodel.Table;
+import org.apache.poi.hwpf.usermodel.TableCell;
+import org.apache.poi.hwpf.usermodel.TableCellDescriptor;
+import org.apache.poi.hwpf.usermodel.TableExtractor;
+import org.apache.poi.hwpf.usermodel.TableGrid;
+import org.apache.poi.hwpf.usermodel.TableHandler;
+import org.apache.poi.hwpf.usermodel.TableIterator;
+import org.apache.poi.hwpf.usermodel.TableProperties;
+import org.apache.poi.hwpf.usermodel.TableRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table iteration of an already loaded Word document: the object model, the
+ * streaming extractor and the span grid.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HwpfTableBenchmark {
+    @Param
+    public Corpus.Size size;
+
+    private HWPFDocument _document;
+
+    @Setup
+    public void setUp() throws Exception {
+        _document = new HWPFDocument(new ByteArrayInputStream(Corpus
+                .word(size)));
+    }
+
+    @Benchmark
+    public void tableIterator(Blackhole blackhole) {
+        TableIterator iterator = new TableIterator(_document.getRange());
+        while (iterator.hasNext()) {
+            Table table = iterator.next();
+            for (int r = 0; r < table.numRows(); r++) {
+                TableRow row = table.getRow(r);
+                for (int c = 0; c < row.numCells(); c++) {
+                    TableCell cell = row.getCell(c);
+                    blackhole.consume(cell.text());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void tableExtractor(final Blackhole blackhole) {
+        Range range = _document.getRange();
+        new TableExtractor(range).extract(new TableHandler() {
+            public void startTable(int level) {
+            }
+
+            public void startRow(int level, TableProperties properties) {
+            }
+
+            public void cell(int level, int index, String text, int leftEdge,
+                             int width, TableCellDescriptor descriptor) {
+                blackhole.consume(text);
+            }
+
+            public void endRow(int level) {
+            }
+
+            public void endTable(int level) {
+            }
+        });
+    }
+
+    @Benchmark
+    public void tableGrid(Blackhole blackhole) {
+        TableIterator iterator = new TableIterator(_document.getRange());
+        while (iterator.hasNext()) {
+            blackhole.consume(new TableGrid(iterator.next()));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmarks;
+
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.converter.WordToHtmlStreamConverter;
+import org.apache.poi.hwpf.converter.WordToTextConverter;
+import org.apache.poi.hwpf.converter.WordToTextStreamConverter;
+import org.apache.poi.hwpf.extractor.WordExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text and HTML output of an already loaded Word document, with the
+ * properties cache at its default size and disabled.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HwpfTextBenchmark {
+    @Param
+    public Corpus.Size size;
+
+    /**
+     * Value of the <code>org.apache.poi.hwpf.propertiesCacheSize</code>
+     * system property; 1024 is the default, 0 disables the cache
+     */
+    @Param({"1024", "0"})
+    public String propertiesCacheSize;
+
+    private HWPFDocument _document;
+
+    @Setup
+    public void setUp() throws Exception {
+        // read when the document creates its caches
+        System.setProperty("org.apache.poi.hwpf.propertiesCacheSize",
+                propertiesCacheSize);
+        _document = new HWPFDocument(new ByteArrayInputStream(Corpus
+                .word(size)));
+    }
+
+    @Benchmark
+    public String wordExtractor() {
+        return new WordExtractor(_document).getText();
+    }
+
+    @Benchmark
+    public String textConverter() throws Exception {
+        return WordToTextConverter.getText(_document);
+    }
+
+    @Benchmark
+    public String textStreamConverter() throws Exception {
+        return WordToTextStreamConverter.getText(_document);
+    }
+
+    @Benchmark
+    public void htmlStreamConverter() throws Exception {
+        WordToHtmlStreamConverter converter = new WordToHtmlStreamConverter(
+                new DefaultHandler());
+        converter.processDocument(_document);
+        converter.finish();
+    }
+}
@@ -0,0 +1,108 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmarks;
+
+import org.apache.poi.hdgf.HDGFLZW;
+import org.apache.poi.hslf.HSLFSlideShow;
+import org.apache.poi.hslf.record.Record;
+import org.apache.poi.hsmf.MAPIMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the other OLE2 formats: PowerPoint record building, Outlook
+ * message parsing and Visio LZW decompression. Each benchmark sets up only
+ * the corpus it uses, so a missing PowerPoint seed fails only
+ * {@link #hslfRecords()}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class OtherFormatsBenchmark {
+    @State(Scope.Benchmark)
+    public static class PowerPoint {
+        @Param
+        public Corpus.Size size;
+
+        byte[] content;
+
+        @Setup
+        public void setUp() throws IOException {
+            content = Corpus.powerPoint(size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Outlook {
+        @Param
+        public Corpus.Size size;
+
+        byte[] content;
+
+        @Setup
+        public void setUp() throws IOException {
+            content = Corpus.outlook(size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Visio {
+        @Param
+        public Corpus.Size size;
+
+        byte[] content;
+
+        @Setup
+        public void setUp() throws IOException {
+            content = Corpus.visioLzw(size);
+        }
+    }
+
+    @Benchmark
+    public Record[] hslfRecords(PowerPoint state) throws IOException {
+        return new HSLFSlideShow(new ByteArrayInputStream(state.content))
+                .getRecords();
+    }
+
+    @Benchmark
+    public String hsmfMessage(Outlook state) throws Exception {
+        return new MAPIMessage(new ByteArrayInputStream(state.content))
+                .getTextBody();
+    }
+
+    @Benchmark
+    public byte[] hdgfLzw(Visio state) throws IOException {
+        return new HDGFLZW().decompress(new ByteArrayInputStream(
+                state.content));
+    }
+}
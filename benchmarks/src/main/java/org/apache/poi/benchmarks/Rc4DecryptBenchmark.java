@@ -0,0 +1,88 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmarks;
+
+import org.apache.poi.hwpf.RC4CryptoProvider;
+import org.apache.poi.hwpf.RC4KeySchedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RC4 decryption of Word streams of different sizes, the way the document
+ * decrypts them: rekeyed every 0x200 bytes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class Rc4DecryptBenchmark {
+    private static final int BLOCK_SIZE = 0x200;
+
+    public enum Provider {
+        BUILTIN, JCA
+    }
+
+    @Param({"65536", "4194304", "67108864"})
+    public int length;
+
+    @Param
+    public Provider provider;
+
+    private RC4CryptoProvider _provider;
+
+    private byte[] _digest;
+
+    private byte[] _buffer;
+
+    @Setup
+    public void setUp() throws Exception {
+        _provider = provider == Provider.JCA ? RC4CryptoProvider
+                .getJCAInstance() : RC4CryptoProvider.getBuiltinInstance();
+
+        Random random = new Random(length);
+        _digest = new byte[16];
+        random.nextBytes(_digest);
+        _buffer = new byte[length];
+        random.nextBytes(_buffer);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        RC4KeySchedule keys = _provider.newKeySchedule(_digest);
+        for (int offset = 0; offset < _buffer.length; offset += BLOCK_SIZE) {
+            keys.rekey(offset / BLOCK_SIZE);
+            keys.crypt(_buffer, offset, Math.min(BLOCK_SIZE, _buffer.length
+                    - offset));
+        }
+        return _buffer;
+    }
+}
@@ -0,0 +1,589 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.extractor;
+
+import org.apache.poi.extractor.ExtractionResult.Format;
+import org.apache.poi.hdgf.extractor.VisioTextExtractor;
+import org.apache.poi.hpbf.extractor.PublisherTextExtractor;
+import org.apache.poi.hslf.extractor.PowerPointExtractor;
+import org.apache.poi.hsmf.extractor.OutlookTextExacter;
+import org.apache.poi.hwpf.OldWordFileFormatException;
+import org.apache.poi.hwpf.extractor.Word6Extractor;
+import org.apache.poi.hwpf.extractor.WordExtractor;
+import org.apache.poi.poifs.filesystem.DirectoryEntry;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentEntry;
+import org.apache.poi.poifs.filesystem.Entry;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.util.Beta;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extracts text from many OLE2 files concurrently, on a fixed number of
+ * worker threads.
+ * <p>
+ * Each file is opened with {@link NPOIFSFileSystem}, which reads only its
+ * directory, to find out the format (Word 97-2003 with a fall-back to Word
+ * 6/95, PowerPoint, Outlook, Visio or Publisher) and the total size of its
+ * streams. That size multiplied by the heap cost factor is the estimated
+ * heap the extraction needs; a file is admitted only while the estimates of
+ * all files in progress fit into the heap budget, so several huge files are
+ * processed one after another instead of together. A file bigger than the
+ * whole budget is processed alone.
+ * <p>
+ * The estimate stays reserved until the result is handed to the callback,
+ * so a slow consumer holds back new files instead of letting extracted texts
+ * pile up.
+ * <p>
+ * A file whose extraction runs longer than the timeout is reported as
+ * failed with a {@link TimeoutException} and its worker is interrupted.
+ * Parsing does not check for interruption, so its heap stays accounted for
+ * until the worker actually finishes.
+ */
+@Beta
+public final class BatchTextExtractor implements Closeable {
+    public static final int DEFAULT_HEAP_COST_FACTOR = 4;
+
+    private static final POILogger logger = POILogFactory
+            .getLogger(BatchTextExtractor.class);
+
+    /**
+     * Marks the end of results delivered to an iterator
+     */
+    private static final ExtractionResult END = new ExtractionResult(null,
+            Format.UNKNOWN, 0, 0, 0, null, null);
+
+    private final ExecutorService _executor;
+
+    private final ScheduledExecutorService _watchdog;
+
+    /**
+     * Free worker threads; files are not opened ahead of them
+     */
+    private final Semaphore _workers;
+
+    private final int _threads;
+
+    private final long _heapBudget;
+
+    private final Object _heapLock = new Object();
+
+    private long _heapInUse;
+
+    private volatile int _heapCostFactor = DEFAULT_HEAP_COST_FACTOR;
+
+    private volatile long _timeoutNanos;
+
+    private final AtomicLong _files = new AtomicLong();
+
+    private final AtomicLong _failedFiles = new AtomicLong();
+
+    private final AtomicLong _bytes = new AtomicLong();
+
+    private final AtomicLong _startNanos = new AtomicLong();
+
+    private volatile long _lastNanos;
+
+    /**
+     * Creates an extractor with a worker per available processor and half of
+     * the maximum heap as budget.
+     */
+    public BatchTextExtractor() {
+        this(Runtime.getRuntime().availableProcessors(), Runtime
+                .getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * @param threads    number of worker threads
+     * @param heapBudget estimated heap, in bytes, files in progress may use
+     *                   together
+     */
+    public BatchTextExtractor(int threads, long heapBudget) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads ("
+                    + threads + ") must be positive");
+
+        _executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory(
+                "extractor"));
+        _watchdog = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory(
+                "extractor-watchdog"));
+        _workers = new Semaphore(threads);
+        _threads = threads;
+        _heapBudget = heapBudget;
+    }
+
+    static Format detectFormat(DirectoryNode root) {
+        if (root.hasEntry("WordDocument"))
+            return Format.HWPF;
+        if (root.hasEntry("PowerPoint Document"))
+            return Format.HSLF;
+        if (root.hasEntry("VisioDocument"))
+            return Format.HDGF;
+        if (root.hasEntry("Quill"))
+            return Format.HPBF;
+        if (root.hasEntry("__properties_version1.0"))
+            return Format.HSMF;
+        for (Iterator<Entry> iterator = root.getEntries(); iterator.hasNext(); ) {
+            if (iterator.next().getName().startsWith("__substg1.0_"))
+                return Format.HSMF;
+        }
+        return Format.UNKNOWN;
+    }
+
+    /**
+     * @return total size of all streams below the given directory
+     */
+    static long getStreamsSize(DirectoryEntry directory) {
+        long size = 0;
+        for (Iterator<Entry> iterator = directory.getEntries(); iterator
+                .hasNext(); ) {
+            Entry entry = iterator.next();
+            if (entry instanceof DocumentEntry) {
+                size += ((DocumentEntry) entry).getSize();
+            } else if (entry instanceof DirectoryEntry) {
+                size += getStreamsSize((DirectoryEntry) entry);
+            }
+        }
+        return size;
+    }
+
+    private static void closeQuietly(NPOIFSFileSystem fs) {
+        if (fs == null)
+            return;
+        try {
+            fs.close();
+        } catch (IOException exc) {
+            logger.log(POILogger.WARN, "Unable to close file: ", exc);
+        }
+    }
+
+    private void acquireHeap(long cost) throws InterruptedException {
+        synchronized (_heapLock) {
+            while (_heapInUse > 0 && _heapInUse + cost > _heapBudget) {
+                _heapLock.wait();
+            }
+            _heapInUse += cost;
+        }
+    }
+
+    private void releaseHeap(long cost) {
+        synchronized (_heapLock) {
+            _heapInUse -= cost;
+            _heapLock.notifyAll();
+        }
+    }
+
+    private static void putUninterruptibly(
+            BlockingQueue<ExtractionResult> queue, ExtractionResult result) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(result);
+                break;
+            } catch (InterruptedException exc) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Stops the worker threads; files still in progress are abandoned, files
+     * not started yet are reported as failed with a
+     * {@link CancellationException}.
+     */
+    public void close() {
+        for (Runnable queued : _executor.shutdownNow()) {
+            if (queued instanceof Task)
+                ((Task) queued).cancel();
+        }
+        _watchdog.shutdownNow();
+    }
+
+    /**
+     * @return statistics of all files processed so far
+     */
+    public ExtractionStatistics getStatistics() {
+        long start = _startNanos.get();
+        return new ExtractionStatistics(_files.get(), _failedFiles.get(),
+                _bytes.get(), start == 0 ? 0 : _lastNanos - start);
+    }
+
+    /**
+     * Starts extracting the given files in background and returns their
+     * results in the order they complete. At most one result per worker
+     * thread waits for the consumer; workers wait while it is full.
+     */
+    public Iterator<ExtractionResult> iterator(final Iterable<File> files) {
+        final BlockingQueue<ExtractionResult> results = new ArrayBlockingQueue<ExtractionResult>(
+                _threads);
+        Thread dispatcher = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    process(files, new ExtractionCallback() {
+                        public void extracted(ExtractionResult result) {
+                            putUninterruptibly(results, result);
+                        }
+                    });
+                } catch (InterruptedException exc) {
+                    logger.log(POILogger.WARN, "Extraction interrupted");
+                } finally {
+                    putUninterruptibly(results, END);
+                }
+            }
+        }, "extractor-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+
+        return new Iterator<ExtractionResult>() {
+            private ExtractionResult next;
+
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = results.take();
+                    } catch (InterruptedException exc) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                if (next == END) {
+                    // keep returning false on later calls; nothing else is
+                    // queued after the end
+                    results.offer(END);
+                    return false;
+                }
+                return true;
+            }
+
+            public ExtractionResult next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                ExtractionResult result = next;
+                next = null;
+                return result;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Extracts text from the given files and waits until all of them are
+     * delivered to the callback.
+     */
+    public void process(Iterable<File> files, ExtractionCallback callback)
+            throws InterruptedException {
+        Batch batch = new Batch(callback);
+        try {
+            for (File file : files) {
+                submit(file, batch);
+            }
+        } finally {
+            batch.await();
+        }
+    }
+
+    /**
+     * @param factor ratio of the estimated heap cost of a file to the total
+     *               size of its streams
+     */
+    public void setHeapCostFactor(int factor) {
+        _heapCostFactor = factor;
+    }
+
+    /**
+     * @param timeout time a file may take, 0 or less for no limit
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        _timeoutNanos = unit.toNanos(timeout);
+    }
+
+    private void submit(File file, Batch batch) throws InterruptedException {
+        final long start = System.nanoTime();
+        _startNanos.compareAndSet(0, start);
+        final long size = file.length();
+
+        _workers.acquire();
+        NPOIFSFileSystem fs = null;
+        Task task;
+        try {
+            fs = new NPOIFSFileSystem(file, true);
+            Format format = detectFormat(fs.getRoot());
+            if (format == Format.UNKNOWN)
+                throw new IllegalArgumentException(
+                        "Not a Word, PowerPoint, Outlook, Visio or Publisher document");
+
+            long cost = getStreamsSize(fs.getRoot()) * _heapCostFactor;
+            acquireHeap(cost);
+            task = new Task(batch, file, fs, format, size, cost,
+                    _timeoutNanos);
+        } catch (InterruptedException exc) {
+            closeQuietly(fs);
+            _workers.release();
+            throw exc;
+        } catch (Exception exc) {
+            closeQuietly(fs);
+            _workers.release();
+            batch.register();
+            deliver(batch, new ExtractionResult(file, Format.UNKNOWN, size, 0,
+                    System.nanoTime() - start, null, exc));
+            return;
+        }
+
+        batch.register();
+        try {
+            _executor.execute(task);
+        } catch (RejectedExecutionException exc) {
+            // closed meanwhile
+            closeQuietly(fs);
+            task.release();
+            batch.arrive();
+            throw exc;
+        }
+    }
+
+    private void deliver(Batch batch, ExtractionResult result) {
+        _files.incrementAndGet();
+        if (!result.isSuccessful())
+            _failedFiles.incrementAndGet();
+        _bytes.addAndGet(result.getSize());
+        _lastNanos = System.nanoTime();
+
+        try {
+            batch._callback.extracted(result);
+        } catch (RuntimeException exc) {
+            logger.log(POILogger.ERROR, "Callback failed for ",
+                    result.getFile(), ": ", exc);
+        } finally {
+            batch.arrive();
+        }
+    }
+
+    /**
+     * Files of one {@link #process(Iterable, ExtractionCallback)} call whose
+     * results are not delivered yet
+     */
+    private static final class Batch {
+        final ExtractionCallback _callback;
+
+        private final AtomicInteger _pending = new AtomicInteger();
+
+        Batch(ExtractionCallback callback) {
+            _callback = callback;
+        }
+
+        void register() {
+            _pending.incrementAndGet();
+        }
+
+        void arrive() {
+            if (_pending.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized void await() throws InterruptedException {
+            while (_pending.get() > 0) {
+                wait();
+            }
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final String _name;
+
+        private final AtomicInteger _count = new AtomicInteger();
+
+        DaemonThreadFactory(String name) {
+            _name = name;
+        }
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, _name + "-"
+                    + _count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private final class Task implements Runnable {
+        private final Batch _batch;
+        private final File _file;
+        private final NPOIFSFileSystem _fs;
+        private final long _size;
+        private final long _cost;
+        private final long _timeoutNanos;
+        private final AtomicBoolean _delivered = new AtomicBoolean();
+        private final AtomicBoolean _released = new AtomicBoolean();
+        private volatile long _start;
+        private Format _format;
+        private Thread _runner;
+        private volatile Future<?> _timeout;
+
+        Task(Batch batch, File file, NPOIFSFileSystem fs, Format format,
+             long size, long cost, long timeoutNanos) {
+            _batch = batch;
+            _file = file;
+            _fs = fs;
+            _format = format;
+            _size = size;
+            _cost = cost;
+            _timeoutNanos = timeoutNanos;
+        }
+
+        private String extract() throws IOException {
+            DirectoryNode root = _fs.getRoot();
+            switch (_format) {
+                case HWPF:
+                    try {
+                        return new WordExtractor(root).getText();
+                    } catch (OldWordFileFormatException exc) {
+                        _format = Format.HWPF_OLD;
+                        return new Word6Extractor(root).getText();
+                    }
+                case HSLF:
+                    return new PowerPointExtractor(root).getText();
+                case HSMF:
+                    return new OutlookTextExacter(root).getText();
+                case HDGF:
+                    return new VisioTextExtractor(root).getText();
+                case HPBF:
+                    return new PublisherTextExtractor(root).getText();
+                default:
+                    throw new IllegalStateException("Unexpected format "
+                            + _format);
+            }
+        }
+
+        /**
+         * Gives back the worker permit and heap reservation of the file, once
+         */
+        void release() {
+            if (!_released.compareAndSet(false, true))
+                return;
+            releaseHeap(_cost);
+            _workers.release();
+        }
+
+        public void run() {
+            _start = System.nanoTime();
+            String text = null;
+            Throwable failure = null;
+            synchronized (this) {
+                _runner = Thread.currentThread();
+            }
+            try {
+                if (_timeoutNanos > 0)
+                    scheduleTimeout();
+                text = extract();
+            } catch (Throwable exc) {
+                failure = exc;
+            } finally {
+                synchronized (this) {
+                    _runner = null;
+                }
+                // clear interruption by a late timeout
+                Thread.interrupted();
+
+                closeQuietly(_fs);
+                Future<?> timeout = _timeout;
+                if (timeout != null)
+                    timeout.cancel(false);
+            }
+
+            try {
+                if (_delivered.compareAndSet(false, true)) {
+                    deliver(_batch, new ExtractionResult(_file, _format,
+                            _size, _cost, System.nanoTime() - _start, text,
+                            failure));
+                }
+            } finally {
+                // the text is the consumer's now
+                release();
+            }
+        }
+
+        private void scheduleTimeout() {
+            try {
+                _timeout = _watchdog.schedule(new Runnable() {
+                    public void run() {
+                        timeout();
+                    }
+                }, _timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException exc) {
+                // closed meanwhile; the worker is interrupted anyway
+            }
+        }
+
+        /**
+         * Reports a file that was queued but never started
+         */
+        void cancel() {
+            closeQuietly(_fs);
+            release();
+            if (_delivered.compareAndSet(false, true)) {
+                deliver(_batch, new ExtractionResult(_file, _format, _size,
+                        _cost, 0, null, new CancellationException(
+                        "Extractor closed before the file was started")));
+            }
+        }
+
+        void timeout() {
+            if (!_delivered.compareAndSet(false, true))
+                return;
+
+            synchronized (this) {
+                if (_runner != null)
+                    _runner.interrupt();
+            }
+            deliver(_batch, new ExtractionResult(_file, _format, _size,
+                    _cost, System.nanoTime() - _start, null,
+                    new TimeoutException("Extraction took longer than "
+                            + TimeUnit.NANOSECONDS.toMillis(_timeoutNanos)
+                            + " ms")));
+        }
+    }
+}
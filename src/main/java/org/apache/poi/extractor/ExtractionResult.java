@@ -0,0 +1,133 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.extractor;
+
+import java.io.File;
+
+/**
+ * Text of one file processed by a {@link BatchTextExtractor}, or the reason
+ * why it could not be extracted.
+ */
+public final class ExtractionResult {
+    /**
+     * Formats of OLE2 documents the batch extractor knows how to read
+     */
+    public enum Format {
+        /**
+         * Word 97-2003 document
+         */
+        HWPF,
+        /**
+         * Word 6 or Word 95 document
+         */
+        HWPF_OLD,
+        /**
+         * PowerPoint 97-2003 presentation
+         */
+        HSLF,
+        /**
+         * Outlook message
+         */
+        HSMF,
+        /**
+         * Visio drawing
+         */
+        HDGF,
+        /**
+         * Publisher document
+         */
+        HPBF,
+        UNKNOWN
+    }
+
+    private final File _file;
+    private final Format _format;
+    private final long _size;
+    private final long _estimatedHeapCost;
+    private final long _elapsedNanos;
+    private final String _text;
+    private final Throwable _failure;
+
+    ExtractionResult(File file, Format format, long size,
+                     long estimatedHeapCost, long elapsedNanos, String text,
+                     Throwable failure) {
+        _file = file;
+        _format = format;
+        _size = size;
+        _estimatedHeapCost = estimatedHeapCost;
+        _elapsedNanos = elapsedNanos;
+        _text = text;
+        _failure = failure;
+    }
+
+    /**
+     * @return time spent on the file, from admission to the result
+     */
+    public long getElapsedNanos() {
+        return _elapsedNanos;
+    }
+
+    /**
+     * @return heap cost the file was admitted with, in bytes
+     */
+    public long getEstimatedHeapCost() {
+        return _estimatedHeapCost;
+    }
+
+    /**
+     * @return exception that stopped the extraction, a
+     * {@link java.util.concurrent.TimeoutException} if the file took longer
+     * than allowed, or <code>null</code> if the text was extracted
+     */
+    public Throwable getFailure() {
+        return _failure;
+    }
+
+    public File getFile() {
+        return _file;
+    }
+
+    public Format getFormat() {
+        return _format;
+    }
+
+    /**
+     * @return length of the file in bytes
+     */
+    public long getSize() {
+        return _size;
+    }
+
+    /**
+     * @return extracted text, or <code>null</code> if extraction failed
+     */
+    public String getText() {
+        return _text;
+    }
+
+    public boolean isSuccessful() {
+        return _failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + _format + "] " + _file
+                + (_failure == null ? ": " + _text.length() + " chars" : ": "
+                + _failure);
+    }
+}
@@ -0,0 +1,83 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.extractor;
+
+/**
+ * Throughput of a {@link BatchTextExtractor}, as a snapshot of its counters.
+ */
+public final class ExtractionStatistics {
+    private final long _files;
+    private final long _failedFiles;
+    private final long _bytes;
+    private final long _elapsedNanos;
+
+    ExtractionStatistics(long files, long failedFiles, long bytes,
+                         long elapsedNanos) {
+        _files = files;
+        _failedFiles = failedFiles;
+        _bytes = bytes;
+        _elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return total length of processed files, in bytes
+     */
+    public long getBytes() {
+        return _bytes;
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(_bytes);
+    }
+
+    /**
+     * @return wall-clock time spent processing, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return _elapsedNanos;
+    }
+
+    public long getFailedFiles() {
+        return _failedFiles;
+    }
+
+    /**
+     * @return number of processed files, including failed ones
+     */
+    public long getFiles() {
+        return _files;
+    }
+
+    public double getFilesPerSecond() {
+        return perSecond(_files);
+    }
+
+    private double perSecond(long value) {
+        if (_elapsedNanos <= 0)
+            return 0;
+        return value * 1000000000d / _elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d files (%d failed), %d bytes in %.3f s: "
+                        + "%.1f files/s, %.1f bytes/s", _files, _failedFiles,
+                _bytes, _elapsedNanos / 1e9, getFilesPerSecond(),
+                getBytesPerSecond());
+    }
+}
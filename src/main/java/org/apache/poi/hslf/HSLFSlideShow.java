@@ -30,6 +30,7 @@ import org.apache.poi.util.POILogFactory;
 import org.apache.poi.util.POILogger;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.util.*;
 
 /**
@@ -59,6 +60,11 @@ public final class HSLFSlideShow extends POIDocument {
     // Embedded objects stored in storage records in the document stream, lazily populated.
     private ObjectData[] _objects;
 
+    /**
+     * File system opened by this slide show itself, closed by {@link #close()}
+     */
+    private NPOIFSFileSystem _ownedFileSystem;
+
     /**
      * Constructs a Powerpoint document from fileName. Parses the document
      * and places all the important stuff into data structures.
@@ -104,6 +110,30 @@ public final class HSLFSlideShow extends POIDocument {
         this(filesystem.getRoot());
     }
 
+    /**
+     * Constructs a Powerpoint document from a file, which is opened
+     * read-only through a memory mapped NPOIFS Filesystem. The file
+     * stays open until {@link #close()} is called.
+     *
+     * @param file the file to read
+     * @throws IOException if there is a problem while parsing the document.
+     */
+    public HSLFSlideShow(File file) throws IOException {
+        this(new NPOIFSFileSystem(file, true).getRoot(), true);
+    }
+
+    /**
+     * Constructs a Powerpoint document from a file channel through an NPOIFS
+     * Filesystem. The channel stays owned by the caller, who must keep it
+     * open while the slide show is used and close it afterwards.
+     *
+     * @param channel the channel of the file to read
+     * @throws IOException if there is a problem while parsing the document.
+     */
+    public HSLFSlideShow(FileChannel channel) throws IOException {
+        this(new NPOIFSFileSystem(channel));
+    }
+
     /**
      * Constructs a Powerpoint document from a specific point in a
      * POIFS Filesystem. Parses the document and places all the
@@ -128,8 +158,37 @@ public final class HSLFSlideShow extends POIDocument {
      * @throws IOException if there is a problem while parsing the document.
      */
     public HSLFSlideShow(DirectoryNode dir) throws IOException {
+        this(dir, false);
+    }
+
+    /**
+     * @param ownsFileSystem whether the file system was opened for this slide
+     *                       show; it is closed by {@link #close()}, or right
+     *                       away if parsing fails
+     */
+    private HSLFSlideShow(DirectoryNode dir, boolean ownsFileSystem)
+            throws IOException {
         super(dir);
+        if (ownsFileSystem) {
+            _ownedFileSystem = dir.getNFileSystem();
+        }
+        boolean loaded = false;
+        try {
+            load();
+            loaded = true;
+        } finally {
+            if (!loaded && _ownedFileSystem != null) {
+                try {
+                    _ownedFileSystem.close();
+                } catch (IOException exc) {
+                    // ignore; the parsing failure is reported instead
+                }
+                _ownedFileSystem = null;
+            }
+        }
+    }
 
+    private void load() throws IOException {
         // First up, grab the "Current User" stream
         // We need this before we can detect Encrypted Documents
         readCurrentUserStream();
@@ -152,6 +211,18 @@ public final class HSLFSlideShow extends POIDocument {
         readOtherStreams();
     }
 
+    /**
+     * Closes the file opened by {@link #HSLFSlideShow(File)}. Pictures and
+     * embedded objects not read yet can not be read afterwards. Does nothing
+     * for slide shows read from a stream or a file system owned by the caller.
+     */
+    public void close() throws IOException {
+        if (_ownedFileSystem != null) {
+            _ownedFileSystem.close();
+            _ownedFileSystem = null;
+        }
+    }
+
     /**
      * Constructs a new, empty, Powerpoint document.
      */
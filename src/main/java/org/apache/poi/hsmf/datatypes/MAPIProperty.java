@@ -35,6 +35,10 @@ import static org.apache.poi.hsmf.datatypes.Types.*;
  * http://msdn.microsoft.com/en-us/library/ms526356%28v=exchg.10%29.aspx
  */
 public class MAPIProperty {
+    // declared before the properties below, which register themselves on
+    // creation
+    private static Map<Integer, MAPIProperty> attributes = new HashMap<Integer, MAPIProperty>();
+
     public static final MAPIProperty AB_DEFAULT_DIR =
             new MAPIProperty(0x3d06, BINARY, "AbDefaultDir", "PR_AB_DEFAULT_DIR");
     public static final MAPIProperty AB_DEFAULT_PAB =
@@ -1018,7 +1022,6 @@ public class MAPIProperty {
     //  info on how we might decode them properly in the future
     private static final int ID_FIRST_CUSTOM = 0x8000;
     private static final int ID_LAST_CUSTOM = 0xFFFE;
-    private static Map<Integer, MAPIProperty> attributes = new HashMap<Integer, MAPIProperty>();
 
     /* ---------------------------------------------------------------------  */
     public final int id;
@@ -25,6 +25,10 @@ import java.util.Map;
  * http://msdn.microsoft.com/en-us/library/microsoft.exchange.data.contenttypes.tnef.tnefpropertytype%28v=EXCHG.140%29.aspx
  */
 public final class Types {
+    // declared before the types below, which register themselves on creation
+    private static Map<Integer, MAPIType> builtInTypes = new HashMap<Integer, MAPIType>();
+    private static Map<Integer, MAPIType> customTypes = new HashMap<Integer, Types.MAPIType>();
+
     /**
      * Unspecified
      */
@@ -103,8 +107,6 @@ public final class Types {
      * MultiValued - Value part contains multiple values
      */
     public static final int MULTIVALUED_FLAG = 0x1000;
-    private static Map<Integer, MAPIType> builtInTypes = new HashMap<Integer, MAPIType>();
-    private static Map<Integer, MAPIType> customTypes = new HashMap<Integer, Types.MAPIType>();
 
     public static MAPIType getById(int typeId) {
         return builtInTypes.get(typeId);
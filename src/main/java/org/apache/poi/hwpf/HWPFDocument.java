@@ -25,11 +25,14 @@ import org.apache.poi.hwpf.model.io.HWPFOutputStream;
 import org.apache.poi.hwpf.usermodel.*;
 import org.apache.poi.poifs.common.POIFSConstants;
 import org.apache.poi.poifs.filesystem.*;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.LittleEndian;
 
 import java.io.*;
 import java.lang.Character.UnicodeBlock;
+import java.nio.channels.FileChannel;
+import java.util.EnumSet;
 import java.util.Iterator;
 
 
@@ -42,6 +45,7 @@ import java.util.Iterator;
 public final class HWPFDocument extends HWPFDocumentCore {
     static final String PROPERTY_PRESERVE_BIN_TABLES = "org.apache.poi.hwpf.preserveBinTables";
     private static final String PROPERTY_PRESERVE_TEXT_TABLE = "org.apache.poi.hwpf.preserveTextTable";
+    private static final String PROPERTY_LAZY_DATA_STREAM = "org.apache.poi.hwpf.lazyDataStream";
 
     private static final String STREAM_DATA = "Data";
     private static final String STREAM_TABLE_0 = "0Table";
@@ -53,10 +57,16 @@ public final class HWPFDocument extends HWPFDocumentCore {
     protected byte[] _tableStream;
 
     /**
-     * data stream buffer
+     * data stream buffer, <code>null</code> until first needed if the data
+     * stream is loaded lazily
      */
     protected byte[] _dataStream;
 
+    /**
+     * Decrypts the data stream of an encrypted document when it is read
+     */
+    private ParallelRC4Decryptor _decryptor;
+
     /**
      * Document wide Properties
      */
@@ -144,8 +154,20 @@ public final class HWPFDocument extends HWPFDocumentCore {
      */
     private FSPATable _fspaMain;
 
+    /**
+     * Parts which were left out while loading, parsed on first access
+     */
+    private final EnumSet<HWPFLoadOptions.Part> _pendingParts = EnumSet
+            .noneOf(HWPFLoadOptions.Part.class);
+
+    /**
+     * Reports the parts parsed on first access to the load listener
+     */
+    private LoadRecorder _loadRecorder;
+
     protected HWPFDocument() {
         super();
+        _loadRecorder = new LoadRecorder(null);
         this._text = new StringBuilder("\r");
     }
 
@@ -161,6 +183,20 @@ public final class HWPFDocument extends HWPFDocumentCore {
         this(verifyAndBuildPOIFS(istream));
     }
 
+    /**
+     * This constructor loads a Word document from an InputStream, parsing
+     * only the parts selected by the options.
+     *
+     * @param istream The InputStream that contains the Word document.
+     * @param options The parts to parse while loading.
+     * @throws IOException If there is an unexpected IOException from the passed
+     *                     in InputStream.
+     */
+    public HWPFDocument(InputStream istream, HWPFLoadOptions options)
+            throws IOException {
+        this(verifyAndBuildPOIFS(istream).getRoot(), options);
+    }
+
     /**
      * This constructor loads a Word document from a POIFSFileSystem
      *
@@ -172,6 +208,105 @@ public final class HWPFDocument extends HWPFDocumentCore {
         this(pFileSystem.getRoot());
     }
 
+    /**
+     * This constructor loads a Word document from a NPOIFSFileSystem. Unlike
+     * {@link POIFSFileSystem}, it reads the streams straight from the
+     * underlying file or channel, which it usually maps into memory.
+     *
+     * @param pFileSystem The NPOIFSFileSystem that contains the Word document.
+     * @throws IOException If there is an unexpected IOException from the passed
+     *                     in NPOIFSFileSystem.
+     */
+    public HWPFDocument(NPOIFSFileSystem pFileSystem) throws IOException {
+        this(pFileSystem.getRoot());
+    }
+
+    /**
+     * This constructor loads an encrypted Word document from a
+     * NPOIFSFileSystem.
+     *
+     * @param pFileSystem The NPOIFSFileSystem that contains the encrypted Word document.
+     * @param password    the password the document was protected with
+     */
+    public HWPFDocument(NPOIFSFileSystem pFileSystem, String password) throws Exception {
+        this(pFileSystem.getRoot(), password);
+    }
+
+    /**
+     * This constructor loads a Word document from a file, which is opened
+     * read-only and memory mapped. The file stays open until {@link #close()}
+     * is called.
+     *
+     * @param file The Word document.
+     * @throws IOException If the file can not be read.
+     */
+    public HWPFDocument(File file) throws IOException {
+        this(file, HWPFLoadOptions.FULL);
+    }
+
+    /**
+     * This constructor loads an encrypted Word document from a file, which is
+     * opened read-only and memory mapped. The file stays open until
+     * {@link #close()} is called.
+     *
+     * @param file     The encrypted Word document.
+     * @param password the password the document was protected with
+     */
+    public HWPFDocument(File file, String password) throws Exception {
+        this(file, password, HWPFLoadOptions.FULL);
+    }
+
+    /**
+     * Same as {@link #HWPFDocument(File)}, but parses only the parts selected
+     * by the options while loading.
+     *
+     * @param file    The Word document.
+     * @param options The parts to parse while loading.
+     * @throws IOException If the file can not be read.
+     */
+    public HWPFDocument(File file, HWPFLoadOptions options) throws IOException {
+        this(openReadOnly(file).getRoot(), options, new LoadRecorder(options
+                .getListener()), true);
+    }
+
+    /**
+     * Same as {@link #HWPFDocument(File, String)}, but parses only the parts
+     * selected by the options while loading.
+     *
+     * @param file     The encrypted Word document.
+     * @param password the password the document was protected with
+     * @param options  The parts to parse while loading.
+     */
+    public HWPFDocument(File file, String password, HWPFLoadOptions options)
+            throws Exception {
+        this(openReadOnly(file).getRoot(), new LoadRecorder(options
+                .getListener()), password, options, true);
+    }
+
+    /**
+     * This constructor loads a Word document from a file channel through
+     * NPOIFS. The channel stays owned by the caller, who must keep it open
+     * while the document is used and close it afterwards.
+     *
+     * @param channel The channel of the Word document.
+     * @throws IOException If the channel can not be read.
+     */
+    public HWPFDocument(FileChannel channel) throws IOException {
+        this(new NPOIFSFileSystem(channel));
+    }
+
+    /**
+     * This constructor loads an encrypted Word document from a file channel
+     * through NPOIFS. The channel stays owned by the caller, who must keep it
+     * open while the document is used and close it afterwards.
+     *
+     * @param channel  The channel of the encrypted Word document.
+     * @param password the password the document was protected with
+     */
+    public HWPFDocument(FileChannel channel, String password) throws Exception {
+        this(new NPOIFSFileSystem(channel), password);
+    }
+
     /**
      * @param pFileSystem The POIFSFileSystem that contains the encrpted Word document.
      * @throws Exception
@@ -207,9 +342,50 @@ public final class HWPFDocument extends HWPFDocumentCore {
      *                     in POIFSFileSystem.
      */
     public HWPFDocument(DirectoryNode directory) throws IOException {
+        this(directory, HWPFLoadOptions.FULL);
+    }
+
+    /**
+     * This constructor loads a Word document from a specific point
+     * in a POIFSFileSystem, parsing only the parts selected by the options.
+     * The other parts are parsed on first access.
+     *
+     * @param directory The DirectoryNode that contains the Word document.
+     * @param options   The parts to parse while loading.
+     * @throws IOException If there is an unexpected IOException from the passed
+     *                     in POIFSFileSystem.
+     */
+    public HWPFDocument(DirectoryNode directory, HWPFLoadOptions options)
+            throws IOException {
+        this(directory, options, new LoadRecorder(options.getListener()),
+                false);
+    }
+
+    /**
+     * @param ownsFileSystem whether the file system was opened for this
+     *                       document, so it is closed if loading fails
+     */
+    private HWPFDocument(DirectoryNode directory, HWPFLoadOptions options,
+                         LoadRecorder recorder, boolean ownsFileSystem) throws IOException {
         // Load the main stream and FIB
         // Also handles HPSF bits
-        super(directory);
+        super(directory, ownsFileSystem);
+        boolean loaded = false;
+        try {
+            load(directory, options, recorder);
+            loaded = true;
+        } finally {
+            if (!loaded) {
+                closeOnFailure();
+            }
+        }
+    }
+
+    private void load(DirectoryNode directory, HWPFLoadOptions options,
+                      LoadRecorder recorder) throws IOException {
+        _loadRecorder = recorder;
+        recorder.next(HWPFLoadEvent.Phase.MAIN_STREAM, _mainStream.length,
+                HWPFLoadEvent.UNKNOWN);
 
         // Is this document too old for us?
         if (_fib.getFibBase().getNFib() < 106) {
@@ -235,15 +411,16 @@ public final class HWPFDocument extends HWPFDocumentCore {
         directory.createDocumentInputStream(name).read(_tableStream);
 
         _fib.fillVariableFields(_mainStream, _tableStream);
+        recorder.next(HWPFLoadEvent.Phase.TABLE_STREAM, _tableStream.length,
+                HWPFLoadEvent.UNKNOWN);
 
-        // read in the data stream.
-        try {
-            DocumentEntry dataProps =
-                    (DocumentEntry) directory.getEntry(STREAM_DATA);
-            _dataStream = new byte[dataProps.getSize()];
-            directory.createDocumentInputStream(STREAM_DATA).read(_dataStream);
-        } catch (java.io.FileNotFoundException e) {
-            _dataStream = new byte[0];
+        // read in the data stream, unless it should wait for first use
+        if (isLazyDataStream(options)) {
+            _pendingParts.add(HWPFLoadOptions.Part.DATA_STREAM);
+        } else {
+            _dataStream = readDataStream();
+            recorder.next(HWPFLoadEvent.Phase.DATA_STREAM,
+                    _dataStream.length, HWPFLoadEvent.UNKNOWN);
         }
 
         // Get the cp of the start of text in the main stream
@@ -253,14 +430,22 @@ public final class HWPFDocument extends HWPFDocumentCore {
 
         // Start to load up our standard structures.
 
-        _dop = new DocumentProperties(_tableStream, _fib.getFcDop(), _fib.getLcbDop());
         _cft = new ComplexFileTable(_mainStream, _tableStream, _fib.getFcClx(), fcMin);
         TextPieceTable _tpt = _cft.getTextPieceTable();
+        recorder.next(HWPFLoadEvent.Phase.TEXT_PIECES, _fib.getLcbClx(), _tpt
+                .getTextPieces().size());
 
         // Now load the rest of the properties, which need to be adjusted
         //  for where text really begin
         _cbt = new CHPBinTable(_mainStream, _tableStream, _fib.getFcPlcfbteChpx(), _fib.getLcbPlcfbteChpx(), _tpt);
+        recorder.next(HWPFLoadEvent.Phase.CHARACTER_RUNS, _fib
+                .getLcbPlcfbteChpx(), _cbt.getTextRuns().size());
         _pbt = new PAPBinTable(_mainStream, _tableStream, _dataStream, _fib.getFcPlcfbtePapx(), _fib.getLcbPlcfbtePapx(), _tpt);
+        if (_dataStream == null && _pbt.hasHugePapx()) {
+            _pbt.loadHugePapx(getDataStream());
+        }
+        recorder.next(HWPFLoadEvent.Phase.PARAGRAPHS, _fib
+                .getLcbPlcfbtePapx(), _pbt.getParagraphs().size());
 
         _text = _tpt.getText();
 
@@ -299,225 +484,108 @@ public final class HWPFDocument extends HWPFDocumentCore {
             _tpt.add(textPiece);
             _text = textPiece.getStringBuilder();
         }
-
-        // Read FSPA and Escher information
-        // _fspa = new FSPATable(_tableStream, _fib.getFcPlcspaMom(),
-        // _fib.getLcbPlcspaMom(), getTextTable().getTextPieces());
-        _fspaHeaders = new FSPATable(_tableStream, _fib,
-                FSPADocumentPart.HEADER);
-        _fspaMain = new FSPATable(_tableStream, _fib, FSPADocumentPart.MAIN);
-
-        if (_fib.getFcDggInfo() != 0) {
-            _escherRecordHolder = new EscherRecordHolder(_tableStream, _fib.getFcDggInfo(), _fib.getLcbDggInfo());
-        } else {
-            _escherRecordHolder = new EscherRecordHolder();
-        }
-
-        // read in the pictures stream
-        _pictures = new PicturesTable(this, _dataStream, _mainStream, _fspaMain, _escherRecordHolder);
-        // And the art shapes stream
-        _officeArts = new ShapesTable(_tableStream, _fib);
-
-        // And escher pictures
-        _officeDrawingsHeaders = new OfficeDrawingsImpl(_fspaHeaders, _escherRecordHolder, _mainStream);
-        _officeDrawingsMain = new OfficeDrawingsImpl(_fspaMain, _escherRecordHolder, _mainStream);
+        recorder.next(HWPFLoadEvent.Phase.REBUILD, HWPFLoadEvent.UNKNOWN,
+                _cbt.getTextRuns().size() + _pbt.getParagraphs().size());
 
         _st = new SectionTable(_mainStream, _tableStream, _fib.getFcPlcfsed(), _fib.getLcbPlcfsed(), fcMin, _tpt, _fib.getSubdocumentTextStreamLength(SubDocumentType.MAIN));
-        _ss = new StyleSheet(_tableStream, _fib.getFcStshf());
-        _ft = new FontTable(_tableStream, _fib.getFcSttbfffn(), _fib.getLcbSttbfffn());
-
-        int listOffset = _fib.getFcPlfLst();
-        int lfoOffset = _fib.getFcPlfLfo();
-        if (listOffset != 0 && _fib.getLcbPlfLst() != 0) {
-            _lt = new ListTables(_tableStream, listOffset, _fib.getFcPlfLfo(),
-                    _fib.getLcbPlfLfo());
-        }
+        recorder.next(HWPFLoadEvent.Phase.SECTIONS, _fib.getLcbPlcfsed(), _st
+                .getSections().size());
 
-        int sbtOffset = _fib.getFcSttbSavedBy();
-        int sbtLength = _fib.getLcbSttbSavedBy();
-        if (sbtOffset != 0 && sbtLength != 0) {
-            _sbt = new SavedByTable(_tableStream, sbtOffset, sbtLength);
-        }
-
-        int rmarkOffset = _fib.getFcSttbfRMark();
-        int rmarkLength = _fib.getLcbSttbfRMark();
-        if (rmarkOffset != 0 && rmarkLength != 0) {
-            _rmat = new RevisionMarkAuthorTable(_tableStream, rmarkOffset, rmarkLength);
-        }
+        loadParts(options);
+    }
 
-        _bookmarksTables = new BookmarksTables(_tableStream, _fib);
-        _bookmarks = new BookmarksImpl(_bookmarksTables);
+    public HWPFDocument(DirectoryNode directory, String password) throws Exception {
+        this(directory, password, HWPFLoadOptions.FULL);
+    }
 
-        _endnotesTables = new NotesTables(NoteType.ENDNOTE, _tableStream, _fib);
-        _endnotes = new NotesImpl(_endnotesTables);
-        _footnotesTables = new NotesTables(NoteType.FOOTNOTE, _tableStream, _fib);
-        _footnotes = new NotesImpl(_footnotesTables);
+    /**
+     * This constructor loads an encrypted Word document, parsing only the
+     * parts selected by the options. The other parts are parsed on first
+     * access.
+     *
+     * @param directory The DirectoryNode that contains the encrypted Word document.
+     * @param password  the password the document was protected with
+     * @param options   The parts to parse while loading.
+     */
+    public HWPFDocument(DirectoryNode directory, String password,
+                        HWPFLoadOptions options) throws Exception {
+        this(directory, new LoadRecorder(options.getListener()), password,
+                options, false);
+    }
 
-        _fieldsTables = new FieldsTables(_tableStream, _fib);
-        _fields = new FieldsImpl(_fieldsTables);
+    private static MD5 verifyPassword(DirectoryNode directory, FibBase fibBase,
+                                      String password, LoadRecorder recorder) throws IOException {
+        MD5 digest = new HWPFEncryptionInfo(directory, fibBase)
+                .getPasswordDigest(password);
+        recorder.next(HWPFLoadEvent.Phase.PASSWORD, HWPFLoadEvent.UNKNOWN,
+                HWPFLoadEvent.UNKNOWN);
+        if (digest == null) {
+            throw new PassWordIsWrongException("the word97-03 file's password is wrong ");
+        }
+        return digest;
     }
 
-    public HWPFDocument(DirectoryNode directory, String password) throws Exception {
+    private HWPFDocument(DirectoryNode directory, LoadRecorder recorder,
+                         String password, HWPFLoadOptions options,
+                         boolean ownsFileSystem) throws IOException {
         // Load the main stream and FIB
         // Also handles HPSF bits
-        super(directory);
-        byte[] test = new byte[0x10];
-        RC4 key = new RC4();
-        RC4 tool = new RC4();
-        int i, j = 0, blk = 0;
-        int end;
-        byte x;
-        byte[] docId = new byte[16];
-        byte[] salt = new byte[64];
-        byte[] hashedSalt = new byte[16];
-        // Is this document too old for us?
-        if (_fib.getFibBase().getNFib() < 106) {
-            throw new OldWordFileFormatException("The document is too old - Word 95 or older. Try HWPFOldDocument instead?");
+        super(directory, ownsFileSystem);
+        boolean loaded = false;
+        try {
+            loadEncrypted(directory, recorder, password, options);
+            loaded = true;
+        } finally {
+            if (!loaded) {
+                closeOnFailure();
+            }
         }
+    }
+
+    private void loadEncrypted(DirectoryNode directory, LoadRecorder recorder,
+                               String password, HWPFLoadOptions options) throws IOException {
+        _loadRecorder = recorder;
+        recorder.next(HWPFLoadEvent.Phase.MAIN_STREAM, _mainStream.length,
+                HWPFLoadEvent.UNKNOWN);
+
+        // the FIB base is not encrypted, so the one just read is reused
+        MD5 yy = verifyPassword(directory, _fib.getFibBase(), password,
+                recorder);
 
         // use the fib to determine the name of the table stream.
         String name = STREAM_TABLE_0;
         if (_fib.getFibBase().isFWhichTblStm()) {
             name = STREAM_TABLE_1;
         }
-        // Grab the table stream.
-        DocumentEntry tableProps;
-        try {
-            tableProps =
-                    (DocumentEntry) directory.getEntry(name);
-        } catch (FileNotFoundException fnfe) {
-            throw new IllegalStateException("Table Stream '" + name + "' wasn't found - Either the document is corrupt, or is Word95 (or earlier)");
-        }
         // read in the table stream.
+        DocumentEntry tableProps = (DocumentEntry) directory.getEntry(name);
         _tableStream = new byte[tableProps.getSize()];
-        end = _tableStream.length;
-        byte[] outTable = new byte[tableProps.getSize()];
         directory.createDocumentInputStream(name).read(_tableStream);
-        for (i = 0; i < 4; i++) {
-            x = _tableStream[i];
-        }
-        for (i = 0; i < 16; i++) {
-            docId[i] = _tableStream[i + 4];
-        }
-        for (i = 0; i < 16; i++) {
-            salt[i] = _tableStream[i + 20];
-        }
-        for (i = 0; i < 16; i++) {
-            hashedSalt[i] = _tableStream[i + 36];
-        }
-        byte[] pArray = expandPW(password);
-        MD5 yy = new MD5();
-        if (!verifyPWD(pArray, docId, salt, hashedSalt, yy)) {
-            throw new PassWordIsWrongException("the word97-03 file's password is wrong ");
-        }
-        tool.makeKey(0, key, yy);
-        int k = 0;
-        int m = 0;
-        while (j < end) {
-            for (i = 0; i < 0x10; i++) {
-                if (k + i >= end - 1) {
-                    test[i] = 0;
-                    continue;
-                }
-                test[i] = _tableStream[k + i];
-            }
-            k += 16;
-            tool.rc4(test, 0x10, key);
-            for (i = 0; i < 0x10; i++) {
-                if (m >= end) break;
-                outTable[m++] = test[i];
-            }
-            j += 0x10;
-            if ((j % 0x200) == 0) {
-                blk++;
-                tool.makeKey(blk, key, yy);
-            }
-        }
-
-        byte[] outMain = new byte[_mainStream.length];
-        blk = 0;
-        tool.makeKey(blk, key, yy);
-        end = _mainStream.length;
-        k = 0;
-        j = 0;
-        m = 0;
-        while (j < end) {
-            for (i = 0; i < 0x10; i++) {
-                if (k + i >= end - 1) {
-                    test[i] = 0;
-                    continue;
-                }
-                test[i] = _mainStream[k + i];
-            }
-            tool.rc4(test, 0x10, key);
-            if (k == 0) {
-            }
-            for (i = 0; i < 0x10; i++) {
-                if (m >= end) break;
-                outMain[m++] = test[i];
-            }
-            j += 0x10;
-            k += 16;
-            if ((j % 0x200) == 0) {
-                blk++;
-                tool.makeKey(blk, key, yy);
-            }
-        }
-
-        for (i = 0; i < _mainStream.length; i++) {
-            if (i == 11 || i == 12 || i >= outMain.length) outMain[i] = 0;
-            _mainStream[i] = outMain[i];
-        }
-        for (j = 0; j < _tableStream.length; j++) {
-            if (j >= outTable.length) _tableStream[j] = 0;
-            _tableStream[j] = outTable[j];
+        recorder.next(HWPFLoadEvent.Phase.TABLE_STREAM, _tableStream.length,
+                HWPFLoadEvent.UNKNOWN);
+
+        // decrypt the streams already in memory in place
+        _decryptor = new ParallelRC4Decryptor(RC4CryptoProvider.getInstance(),
+                yy.digest);
+        _decryptor.decrypt(_tableStream);
+        _decryptor.decrypt(_mainStream);
+        if (_mainStream.length > 12) {
+            _mainStream[11] = 0;
+            _mainStream[12] = 0;
         }
         _fib = new FileInformationBlock(_mainStream);
         _fib.fillVariableFields(_mainStream, _tableStream);
-        // read in the data stream.
-        byte[] dataStream = null;
-        try {
-            DocumentEntry dataProps =
-                    (DocumentEntry) directory.getEntry(STREAM_DATA);
-            _dataStream = new byte[dataProps.getSize()];
-            dataStream = new byte[dataProps.getSize()];
-            directory.createDocumentInputStream(STREAM_DATA).read(_dataStream);
-        } catch (java.io.FileNotFoundException e) {
-            _dataStream = new byte[0];
-
-        }
-        assert dataStream != null;
-        blk = 0;
-        tool.makeKey(blk, key, yy);
-        end = _dataStream.length;
-        k = 0;
-        j = 0;
-        m = 0;
-        while (j < end) {
-            for (i = 0; i < 0x10; i++) {
-                if (k + i >= end - 1) {
-                    test[i] = 0;
-                    continue;
-                }
-                test[i] = _dataStream[k + i];
-            }
-            tool.rc4(test, 0x10, key);
-            if (k == 0) {
-            }
-            for (i = 0; i < 0x10; i++) {
-                if (m >= end) break;
-                dataStream[m++] = test[i];
-            }
-            j += 0x10;
-            k += 16;
-            if ((j % 0x200) == 0) {
-                blk++;
-                tool.makeKey(blk, key, yy);
-            }
-        }
-        for (j = 0; j < dataStream.length; j++) {
-            _dataStream[j] = dataStream[j];
+        recorder.next(HWPFLoadEvent.Phase.DECRYPTION, _mainStream.length
+                + _tableStream.length, HWPFLoadEvent.UNKNOWN);
+        // read in the data stream, unless it should wait for first use
+        if (isLazyDataStream(options)) {
+            _pendingParts.add(HWPFLoadOptions.Part.DATA_STREAM);
+        } else {
+            _dataStream = readDataStream();
+            recorder.next(HWPFLoadEvent.Phase.DATA_STREAM,
+                    _dataStream.length, HWPFLoadEvent.UNKNOWN);
         }
+
         // Get the cp of the start of text in the main stream
         // The latest spec doc says this is always zero!
         int fcMin = _fib.getFibBase().getFcMin();
@@ -527,15 +595,23 @@ public final class HWPFDocument extends HWPFDocumentCore {
         int mm = LittleEndian.getInt(_mainStream, 0x01A2);
 
 
-        _dop = new DocumentProperties(_tableStream, _fib.getFcDop(), _fib.getLcbDop());
         _cft = new ComplexFileTable(_mainStream, _tableStream, mm, fcMin);
         TextPieceTable _tpt = _cft.getTextPieceTable();
+        recorder.next(HWPFLoadEvent.Phase.TEXT_PIECES, _fib.getLcbClx(), _tpt
+                .getTextPieces().size());
 
         // Now load the rest of the properties, which need to be adjusted
         //  for where text really begin
 
         _cbt = new CHPBinTable(_mainStream, _tableStream, _fib.getFcPlcfbteChpx(), _fib.getLcbPlcfbteChpx(), _tpt);
-        _pbt = new PAPBinTable(_mainStream, _tableStream, dataStream, _fib.getFcPlcfbtePapx(), _fib.getLcbPlcfbtePapx(), _tpt);
+        recorder.next(HWPFLoadEvent.Phase.CHARACTER_RUNS, _fib
+                .getLcbPlcfbteChpx(), _cbt.getTextRuns().size());
+        _pbt = new PAPBinTable(_mainStream, _tableStream, _dataStream, _fib.getFcPlcfbtePapx(), _fib.getLcbPlcfbtePapx(), _tpt);
+        if (_dataStream == null && _pbt.hasHugePapx()) {
+            _pbt.loadHugePapx(getDataStream());
+        }
+        recorder.next(HWPFLoadEvent.Phase.PARAGRAPHS, _fib
+                .getLcbPlcfbtePapx(), _pbt.getParagraphs().size());
 
         _text = _tpt.getText();
         /*
@@ -573,62 +649,206 @@ public final class HWPFDocument extends HWPFDocumentCore {
             _tpt.add(textPiece);
             _text = textPiece.getStringBuilder();
         }
+        recorder.next(HWPFLoadEvent.Phase.REBUILD, HWPFLoadEvent.UNKNOWN,
+                _cbt.getTextRuns().size() + _pbt.getParagraphs().size());
 
-        // Read FSPA and Escher information
-        // _fspa = new FSPATable(_tableStream, _fib.getFcPlcspaMom(),
-        // _fib.getLcbPlcspaMom(), getTextTable().getTextPieces());
-        _fspaHeaders = new FSPATable(_tableStream, _fib,
-                FSPADocumentPart.HEADER);
-        _fspaMain = new FSPATable(_tableStream, _fib, FSPADocumentPart.MAIN);
+        _st = new SectionTable(_mainStream, _tableStream, _fib.getFcPlcfsed(), _fib.getLcbPlcfsed(), fcMin, _tpt, _fib.getSubdocumentTextStreamLength(SubDocumentType.MAIN));
+        recorder.next(HWPFLoadEvent.Phase.SECTIONS, _fib.getLcbPlcfsed(), _st
+                .getSections().size());
 
-        if (_fib.getFcDggInfo() != 0) {
-            _escherRecordHolder = new EscherRecordHolder(_tableStream, _fib.getFcDggInfo(), _fib.getLcbDggInfo());
-        } else {
-            _escherRecordHolder = new EscherRecordHolder();
-        }
+        loadParts(options);
+    }
 
-        // read in the pictures stream
-        _pictures = new PicturesTable(this, dataStream, _mainStream, _fspaMain, _escherRecordHolder);
-        // And the art shapes stream
-        _officeArts = new ShapesTable(_tableStream, _fib);
+    private void loadParts(HWPFLoadOptions options) throws IOException {
+        for (HWPFLoadOptions.Part part : HWPFLoadOptions.Part.values()) {
+            if (part == HWPFLoadOptions.Part.DATA_STREAM) {
+                // already read or left out before the bin tables
+                continue;
+            }
+            if (options.isEager(part)) {
+                loadPart(part);
+            } else {
+                _pendingParts.add(part);
+            }
+        }
+    }
 
-        // And escher pictures
-        _officeDrawingsHeaders = new OfficeDrawingsImpl(_fspaHeaders, _escherRecordHolder, _mainStream);
-        _officeDrawingsMain = new OfficeDrawingsImpl(_fspaMain, _escherRecordHolder, _mainStream);
+    /**
+     * Parses the given part if it was left out while loading
+     */
+    private synchronized void ensureLoaded(HWPFLoadOptions.Part part) {
+        if (_pendingParts.remove(part)) {
+            try {
+                loadPart(part);
+            } catch (IOException exc) {
+                throw new IllegalStateException("Unable to read " + part, exc);
+            }
+        }
+    }
 
-        _st = new SectionTable(_mainStream, _tableStream, _fib.getFcPlcfsed(), _fib.getLcbPlcfsed(), fcMin, _tpt, _fib.getSubdocumentTextStreamLength(SubDocumentType.MAIN));
-        _ss = new StyleSheet(_tableStream, _fib.getFcStshf());
-        _ft = new FontTable(_tableStream, _fib.getFcSttbfffn(), _fib.getLcbSttbfffn());
-        int listOffset = LittleEndian.getInt(_mainStream, 0x2E2);// _fib.getFcPlfLst();
-        int lfoOffset = LittleEndian.getInt(_mainStream, 0x2EA); //_fib.getFcPlfLfo();
-        if (listOffset != 0 && _fib.getLcbPlfLst() != 0) {
-            _lt = new ListTables(_tableStream, listOffset, lfoOffset, LittleEndian.getInt(_mainStream, 0x2EE)
-                    //_fib.getLcbPlfLfo()
-            );
+    private void loadPart(HWPFLoadOptions.Part part) throws IOException {
+        LoadRecorder.Mark start = _loadRecorder.start();
+        try {
+            parsePart(part);
+        } catch (IOException exc) {
+            _loadRecorder.discard(start);
+            throw exc;
+        } catch (RuntimeException exc) {
+            _loadRecorder.discard(start);
+            throw exc;
+        }
+        if (start != null) {
+            _loadRecorder.end(start, HWPFLoadEvent.Phase.of(part),
+                    getPartBytes(part), getPartObjects(part));
         }
+    }
 
-        int sbtOffset = _fib.getFcSttbSavedBy();
-        int sbtLength = _fib.getLcbSttbSavedBy();
-        if (sbtOffset != 0 && sbtLength != 0) {
-            _sbt = new SavedByTable(_tableStream, sbtOffset, sbtLength);
+    private long getPartBytes(HWPFLoadOptions.Part part) {
+        switch (part) {
+            case DATA_STREAM:
+                return _dataStream.length;
+            case DOCUMENT_PROPERTIES:
+                return _fib.getLcbDop();
+            case DRAWINGS:
+                return _fib.getLcbDggInfo();
+            case STYLES:
+                return _fib.getLcbStshf();
+            case FONTS:
+                return _fib.getLcbSttbfffn();
+            case LISTS:
+                return _fib.getLcbPlfLst() + _fib.getLcbPlfLfo();
+            case SAVED_BY:
+                return _fib.getLcbSttbSavedBy();
+            case REVISION_MARKS:
+                return _fib.getLcbSttbfRMark();
+            default:
+                return HWPFLoadEvent.UNKNOWN;
         }
+    }
 
-        int rmarkOffset = _fib.getFcSttbfRMark();
-        int rmarkLength = _fib.getLcbSttbfRMark();
-        if (rmarkOffset != 0 && rmarkLength != 0) {
-            _rmat = new RevisionMarkAuthorTable(_tableStream, rmarkOffset, rmarkLength);
+    private long getPartObjects(HWPFLoadOptions.Part part) {
+        switch (part) {
+            case DRAWINGS:
+                return _fspaMain.getShapesCount()
+                        + _fspaHeaders.getShapesCount();
+            case STYLES:
+                return _ss.numStyles();
+            case FONTS:
+                return _ft.getFontNames().length;
+            case BOOKMARKS:
+                return _bookmarks.getBookmarksCount();
+            case NOTES:
+                return _endnotes.getNotesCount() + _footnotes.getNotesCount();
+            case FIELDS:
+                int fields = 0;
+                for (FieldsDocumentPart documentPart : FieldsDocumentPart
+                        .values()) {
+                    fields += _fields.getFields(documentPart).size();
+                }
+                return fields;
+            default:
+                return HWPFLoadEvent.UNKNOWN;
         }
+    }
 
-        _bookmarksTables = new BookmarksTables(_tableStream, _fib);
-        _bookmarks = new BookmarksImpl(_bookmarksTables);
+    private void parsePart(HWPFLoadOptions.Part part) throws IOException {
+        switch (part) {
+            case DATA_STREAM:
+                _dataStream = readDataStream();
+                break;
+            case DOCUMENT_PROPERTIES:
+                _dop = new DocumentProperties(_tableStream, _fib.getFcDop(), _fib.getLcbDop());
+                break;
+            case DRAWINGS:
+                // Read FSPA and Escher information
+                // _fspa = new FSPATable(_tableStream, _fib.getFcPlcspaMom(),
+                // _fib.getLcbPlcspaMom(), getTextTable().getTextPieces());
+                _fspaHeaders = new FSPATable(_tableStream, _fib,
+                        FSPADocumentPart.HEADER);
+                _fspaMain = new FSPATable(_tableStream, _fib, FSPADocumentPart.MAIN);
+
+                if (_fib.getFcDggInfo() != 0) {
+                    _escherRecordHolder = new EscherRecordHolder(_tableStream, _fib.getFcDggInfo(), _fib.getLcbDggInfo());
+                } else {
+                    _escherRecordHolder = new EscherRecordHolder();
+                }
 
-        _endnotesTables = new NotesTables(NoteType.ENDNOTE, _tableStream, _fib);
-        _endnotes = new NotesImpl(_endnotesTables);
-        _footnotesTables = new NotesTables(NoteType.FOOTNOTE, _tableStream, _fib);
-        _footnotes = new NotesImpl(_footnotesTables);
+                // read in the pictures stream
+                _pictures = new PicturesTable(this, _mainStream, _fspaMain, _escherRecordHolder);
+                // And the art shapes stream
+                _officeArts = new ShapesTable(_tableStream, _fib);
+
+                // And escher pictures
+                _officeDrawingsHeaders = new OfficeDrawingsImpl(_fspaHeaders, _escherRecordHolder, _mainStream);
+                _officeDrawingsMain = new OfficeDrawingsImpl(_fspaMain, _escherRecordHolder, _mainStream);
+                break;
+            case STYLES:
+                _ss = new StyleSheet(_tableStream, _fib.getFcStshf());
+                break;
+            case FONTS:
+                _ft = new FontTable(_tableStream, _fib.getFcSttbfffn(), _fib.getLcbSttbfffn());
+                break;
+            case LISTS:
+                loadListTables();
+                break;
+            case SAVED_BY:
+                int sbtOffset = _fib.getFcSttbSavedBy();
+                int sbtLength = _fib.getLcbSttbSavedBy();
+                if (sbtOffset != 0 && sbtLength != 0) {
+                    _sbt = new SavedByTable(_tableStream, sbtOffset, sbtLength);
+                }
+                break;
+            case REVISION_MARKS:
+                int rmarkOffset = _fib.getFcSttbfRMark();
+                int rmarkLength = _fib.getLcbSttbfRMark();
+                if (rmarkOffset != 0 && rmarkLength != 0) {
+                    _rmat = new RevisionMarkAuthorTable(_tableStream, rmarkOffset, rmarkLength);
+                }
+                break;
+            case BOOKMARKS:
+                _bookmarksTables = new BookmarksTables(_tableStream, _fib);
+                _bookmarks = new BookmarksImpl(_bookmarksTables);
+                break;
+            case NOTES:
+                _endnotesTables = new NotesTables(NoteType.ENDNOTE, _tableStream, _fib);
+                _endnotes = new NotesImpl(_endnotesTables);
+                _footnotesTables = new NotesTables(NoteType.FOOTNOTE, _tableStream, _fib);
+                _footnotes = new NotesImpl(_footnotesTables);
+                break;
+            case FIELDS:
+                _fieldsTables = new FieldsTables(_tableStream, _fib);
+                _fields = new FieldsImpl(_fieldsTables);
+                break;
+        }
+    }
 
-        _fieldsTables = new FieldsTables(_tableStream, _fib);
-        _fields = new FieldsImpl(_fieldsTables);
+    private void loadListTables() {
+        if (_decryptor == null) {
+            int listOffset = _fib.getFcPlfLst();
+            if (listOffset != 0 && _fib.getLcbPlfLst() != 0) {
+                _lt = new ListTables(_tableStream, listOffset, _fib.getFcPlfLfo(),
+                        _fib.getLcbPlfLfo());
+            }
+        } else {
+            // encrypted documents take the offsets straight from the
+            // decrypted main stream
+            int listOffset = LittleEndian.getInt(_mainStream, 0x2E2);// _fib.getFcPlfLst();
+            int lfoOffset = LittleEndian.getInt(_mainStream, 0x2EA); //_fib.getFcPlfLfo();
+            if (listOffset != 0 && _fib.getLcbPlfLst() != 0) {
+                _lt = new ListTables(_tableStream, listOffset, lfoOffset, LittleEndian.getInt(_mainStream, 0x2EE)
+                        //_fib.getLcbPlfLfo()
+                );
+            }
+        }
+    }
+
+    /**
+     * Parses all parts left out while loading
+     */
+    private void ensureAllLoaded() {
+        for (HWPFLoadOptions.Part part : HWPFLoadOptions.Part.values()) {
+            ensureLoaded(part);
+        }
     }
 
     public static String utf8ToUnicode(String inStr) {
@@ -662,78 +882,22 @@ public final class HWPFDocument extends HWPFDocumentCore {
         return tt;
     }
 
-    private boolean verifyPWD(byte pwArray[], byte docId[], byte salt[], byte hashedSalt[], MD5 valContext) {
-        RC4 tool = new RC4();
-        RC4 key = new RC4();
-        int offset = 0, keyOffset = 0;
-        int toCopy = 5;
-        MD5 md5 = new MD5();
-        MD5 md51 = new MD5();
-        md5.md5Init();
-        md5.md5Update(pwArray, 64);
-        md5.getMD5StoreDigest(md5);
-        valContext.md5Init();
-        while (offset != 16) {
-            if ((64 - offset) < 5)
-                toCopy = 64 - offset;
-            System.arraycopy(md5.digest, keyOffset, pwArray, offset, toCopy);
-            offset += toCopy;
-
-            if (offset == 64) {
-                valContext.md5Update(pwArray, 64);
-                keyOffset = toCopy;
-                toCopy = 5 - toCopy;
-                offset = 0;
-                continue;
-            }
-            keyOffset = 0;
-            toCopy = 5;
-            System.arraycopy(docId, 0, pwArray, offset, 16);
-            offset += 16;
-        }
-        pwArray[16] = (byte) 0x80;
-        for (int i = 0; i < 47; i++) {
-            pwArray[17 + i] = 0;
-        }
-        pwArray[56] = (byte) 0x80;
-        pwArray[57] = (byte) 0x0A;
-        valContext.md5Update(pwArray, 64);
-        valContext.getMD5StoreDigest(valContext);
-        tool.makeKey(0, key, valContext);
-        tool.rc4(salt, 16, key);
-        tool.rc4(hashedSalt, 16, key);
-        salt[16] = (byte) 0x80;
-        for (int i = 0; i < 47; i++) salt[17 + i] = 0;
-        salt[56] = (byte) 0x80;
-        md51.md5Init();
-        md51.md5Update(salt, 64);
-        md51.getMD5StoreDigest(md51);
-        for (int i = 0; i < 16; i++) {
-            if (hashedSalt[i] != md51.digest[i]) return false;
-        }
-        return true;
+    @Override
+    public StyleSheet getStyleSheet() {
+        ensureLoaded(HWPFLoadOptions.Part.STYLES);
+        return super.getStyleSheet();
     }
 
-    private byte[] expandPW(String password) {
-        int i;
-        byte[] pwArray = new byte[64];
-        for (i = 0; i < 64; i++)
-            pwArray[i] = 0;
-        i = 0;
-        char[] passwordArray = new char[16];
-        char[] temp = utf8ToUnicode(password).toCharArray();
-        for (int j = 0; j < 16; j++) {
-            if (j < temp.length) passwordArray[j] = temp[j];
-            else passwordArray[j] = 0;
-        }
-        while (passwordArray[i] != 0) {
-            pwArray[(2 * i)] = (byte) (passwordArray[i] & 0xff);
-            pwArray[(2 * i) + 1] = (byte) ((passwordArray[i] << 8) & 0xff);
-            i++;
-        }
-        pwArray[2 * i] = (byte) 0x80;
-        pwArray[56] = (byte) (i << 4);
-        return pwArray;
+    @Override
+    public ListTables getListTables() {
+        ensureLoaded(HWPFLoadOptions.Part.LISTS);
+        return super.getListTables();
+    }
+
+    @Override
+    public FontTable getFontTable() {
+        ensureLoaded(HWPFLoadOptions.Part.FONTS);
+        return super.getFontTable();
     }
 
     @Internal
@@ -748,6 +912,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
     }
 
     public DocumentProperties getDocProperties() {
+        ensureLoaded(HWPFLoadOptions.Part.DOCUMENT_PROPERTIES);
         return _dop;
     }
 
@@ -871,6 +1036,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
      */
     @Internal
     public SavedByTable getSavedByTable() {
+        ensureLoaded(HWPFLoadOptions.Part.SAVED_BY);
         return _sbt;
     }
 
@@ -881,6 +1047,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
      */
     @Internal
     public RevisionMarkAuthorTable getRevisionMarkAuthorTable() {
+        ensureLoaded(HWPFLoadOptions.Part.REVISION_MARKS);
         return _rmat;
     }
 
@@ -888,11 +1055,13 @@ public final class HWPFDocument extends HWPFDocumentCore {
      * @return PicturesTable object, that is able to extract images from this document
      */
     public PicturesTable getPicturesTable() {
+        ensureLoaded(HWPFLoadOptions.Part.DRAWINGS);
         return _pictures;
     }
 
     @Internal
     public EscherRecordHolder getEscherRecordHolder() {
+        ensureLoaded(HWPFLoadOptions.Part.DRAWINGS);
         return _escherRecordHolder;
     }
 
@@ -904,14 +1073,17 @@ public final class HWPFDocument extends HWPFDocumentCore {
     @Deprecated
     @Internal
     public ShapesTable getShapesTable() {
+        ensureLoaded(HWPFLoadOptions.Part.DRAWINGS);
         return _officeArts;
     }
 
     public OfficeDrawings getOfficeDrawingsHeaders() {
+        ensureLoaded(HWPFLoadOptions.Part.DRAWINGS);
         return _officeDrawingsHeaders;
     }
 
     public OfficeDrawings getOfficeDrawingsMain() {
+        ensureLoaded(HWPFLoadOptions.Part.DRAWINGS);
         return _officeDrawingsMain;
     }
 
@@ -919,6 +1091,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
      * @return user-friendly interface to access document bookmarks
      */
     public Bookmarks getBookmarks() {
+        ensureLoaded(HWPFLoadOptions.Part.BOOKMARKS);
         return _bookmarks;
     }
 
@@ -926,6 +1099,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
      * @return user-friendly interface to access document endnotes
      */
     public Notes getEndnotes() {
+        ensureLoaded(HWPFLoadOptions.Part.NOTES);
         return _endnotes;
     }
 
@@ -933,6 +1107,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
      * @return user-friendly interface to access document footnotes
      */
     public Notes getFootnotes() {
+        ensureLoaded(HWPFLoadOptions.Part.NOTES);
         return _footnotes;
     }
 
@@ -943,6 +1118,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
     @Deprecated
     @Internal
     public FieldsTables getFieldsTables() {
+        ensureLoaded(HWPFLoadOptions.Part.FIELDS);
         return _fieldsTables;
     }
 
@@ -952,6 +1128,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
      * @return user-friendly interface to access document {@link Field}s
      */
     public Fields getFields() {
+        ensureLoaded(HWPFLoadOptions.Part.FIELDS);
         return _fields;
     }
 
@@ -964,6 +1141,8 @@ public final class HWPFDocument extends HWPFDocumentCore {
      */
     public void write(OutputStream out)
             throws IOException {
+        ensureAllLoaded();
+
         // initialize our streams for writing.
         HWPFFileSystem docSys = new HWPFFileSystem();
         HWPFOutputStream wordDocumentStream = docSys.getStream(STREAM_WORD_DOCUMENT);
@@ -1237,7 +1416,7 @@ public final class HWPFDocument extends HWPFDocumentCore {
             tableBuf = tempBuf;
         }
 
-        byte[] dataBuf = _dataStream;
+        byte[] dataBuf = getDataStream();
         if (dataBuf == null) {
             dataBuf = new byte[4096];
         }
@@ -1319,17 +1498,79 @@ public final class HWPFDocument extends HWPFDocumentCore {
         this._dataStream = dataBuf;
     }
 
+    /**
+     * @return the content of the Data stream; if the Data stream is loaded
+     * lazily, it is read (and decrypted) by the first call
+     */
     @Internal
     public byte[] getDataStream() {
+        ensureLoaded(HWPFLoadOptions.Part.DATA_STREAM);
         return _dataStream;
     }
 
+    /**
+     * Data stream is only needed by pictures, form fields and paragraph
+     * properties too big for their FKP, so it may be read on first use. The
+     * system property makes it lazy for every document.
+     */
+    private static boolean isLazyDataStream(HWPFLoadOptions options) {
+        if (!options.isEager(HWPFLoadOptions.Part.DATA_STREAM)) {
+            return true;
+        }
+        try {
+            return Boolean.parseBoolean(System
+                    .getProperty(PROPERTY_LAZY_DATA_STREAM));
+        } catch (Exception exc) {
+            // ignore;
+            return false;
+        }
+    }
+
+    /**
+     * Reads the Data stream if it was left out while loading, since it can
+     * not be read once the file is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (_ownedFileSystem != null) {
+            ensureLoaded(HWPFLoadOptions.Part.DATA_STREAM);
+        }
+        super.close();
+    }
+
+    private byte[] readDataStream() throws IOException {
+        DocumentEntry dataProps;
+        try {
+            dataProps = (DocumentEntry) directory.getEntry(STREAM_DATA);
+        } catch (FileNotFoundException e) {
+            return new byte[0];
+        }
+
+        byte[] dataStream = new byte[dataProps.getSize()];
+        InputStream dataIn = directory.createDocumentInputStream(STREAM_DATA);
+        try {
+            if (_decryptor == null) {
+                IOUtils.readFully(dataIn, dataStream);
+            } else if (_decryptor.isParallel(dataStream.length)) {
+                IOUtils.readFully(dataIn, dataStream);
+                _decryptor.decrypt(dataStream);
+            } else {
+                // small streams are decrypted while they are read
+                IOUtils.readFully(_decryptor.decryptingStream(dataIn), dataStream);
+            }
+        } finally {
+            dataIn.close();
+        }
+        return dataStream;
+    }
+
     @Internal
     public byte[] getTableStream() {
         return _tableStream;
     }
 
     public int registerList(HWPFList list) {
+        ensureLoaded(HWPFLoadOptions.Part.LISTS);
         if (_lt == null) {
             _lt = new ListTables();
         }
@@ -21,13 +21,16 @@ import org.apache.poi.POIDocument;
 import org.apache.poi.hwpf.model.*;
 import org.apache.poi.hwpf.usermodel.ObjectPoolImpl;
 import org.apache.poi.hwpf.usermodel.ObjectsPool;
+import org.apache.poi.hwpf.usermodel.ParagraphProperties;
 import org.apache.poi.hwpf.usermodel.Range;
 import org.apache.poi.poifs.filesystem.DirectoryEntry;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.DocumentEntry;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.util.Internal;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -89,6 +92,17 @@ public abstract class HWPFDocumentCore extends POIDocument {
      */
     protected byte[] _mainStream;
 
+    /**
+     * File system opened by this document itself, closed by {@link #close()}
+     */
+    NPOIFSFileSystem _ownedFileSystem;
+
+    /**
+     * Resolved paragraph properties shared by identically formatted
+     * paragraphs
+     */
+    private PropertiesCache<ParagraphProperties> _paragraphPropertiesCache;
+
     protected HWPFDocumentCore() {
         super((DirectoryNode) null);
     }
@@ -126,9 +140,33 @@ public abstract class HWPFDocumentCore extends POIDocument {
      *                     in POIFSFileSystem.
      */
     public HWPFDocumentCore(DirectoryNode directory) throws IOException {
+        this(directory, false);
+    }
+
+    /**
+     * @param ownsFileSystem whether the file system was opened for this
+     *                       document; it is closed by {@link #close()}, or
+     *                       right away if loading fails
+     */
+    HWPFDocumentCore(DirectoryNode directory, boolean ownsFileSystem)
+            throws IOException {
         // Sort out the hpsf properties
         super(directory);
+        if (ownsFileSystem) {
+            _ownedFileSystem = directory.getNFileSystem();
+        }
+        boolean loaded = false;
+        try {
+            loadMainStream(directory);
+            loaded = true;
+        } finally {
+            if (!loaded) {
+                closeOnFailure();
+            }
+        }
+    }
 
+    private void loadMainStream(DirectoryNode directory) throws IOException {
         // read in the main stream.
         DocumentEntry documentProps = (DocumentEntry)
                 directory.getEntry("WordDocument");
@@ -171,6 +209,43 @@ public abstract class HWPFDocumentCore extends POIDocument {
         return new POIFSFileSystem(pis);
     }
 
+    /**
+     * Opens a file read-only through NPOIFS, which maps the file into memory
+     * instead of copying all of its blocks onto the heap like
+     * {@link POIFSFileSystem} does.
+     */
+    static NPOIFSFileSystem openReadOnly(File file) throws IOException {
+        return new NPOIFSFileSystem(file, true);
+    }
+
+    /**
+     * Closes the file system opened for a document which failed to load, as
+     * nothing else could close it any more
+     */
+    void closeOnFailure() {
+        if (_ownedFileSystem != null) {
+            try {
+                _ownedFileSystem.close();
+            } catch (IOException exc) {
+                // ignore; the load failure is reported instead
+            }
+            _ownedFileSystem = null;
+        }
+    }
+
+    /**
+     * Closes the file opened by the <code>File</code> constructors. Streams
+     * left for first use are read before, as they can not be read any more
+     * afterwards. Does nothing if the document was loaded from a stream or a
+     * file system owned by the caller.
+     */
+    public void close() throws IOException {
+        if (_ownedFileSystem != null) {
+            _ownedFileSystem.close();
+            _ownedFileSystem = null;
+        }
+    }
+
     /**
      * Returns the range which covers the whole of the document, but excludes
      * any headers and footers.
@@ -225,6 +300,19 @@ public abstract class HWPFDocumentCore extends POIDocument {
         return _fib;
     }
 
+    /**
+     * Returns the cache of resolved paragraph properties, keyed by the
+     * paragraph's grpprl (which starts with its style index). Its hit and
+     * miss counters show how often paragraphs shared their formatting.
+     */
+    @Internal
+    public PropertiesCache<ParagraphProperties> getParagraphPropertiesCache() {
+        if (_paragraphPropertiesCache == null) {
+            _paragraphPropertiesCache = new PropertiesCache<ParagraphProperties>();
+        }
+        return _paragraphPropertiesCache;
+    }
+
     public ObjectsPool getObjectsPool() {
         return _objectPool;
     }
@@ -0,0 +1,246 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.hwpf;
+
+import org.apache.poi.hwpf.model.FibBase;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.util.IOUtils;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * Lightweight probe of the RC4 encryption header of a Word 97-2003 document.
+ * Only the {@link FibBase} of the main stream and the first 52 bytes of the
+ * table stream are read, so candidate passwords can be checked without
+ * loading the document. The header is read once and reused for every
+ * candidate.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class HWPFEncryptionInfo {
+    private static final String STREAM_TABLE_0 = "0Table";
+    private static final String STREAM_TABLE_1 = "1Table";
+
+    /**
+     * Size of the encryption header at the start of the table stream:
+     * version, docId, salt and hashed salt
+     */
+    private static final int HEADER_SIZE = 52;
+
+    /**
+     * Longest password Word accepts; the length must fit in one nibble of
+     * the expanded password
+     */
+    private static final int MAX_PASSWORD_LENGTH = 15;
+
+    private final FibBase _fibBase;
+    private final byte[] _docId = new byte[16];
+    private final byte[] _salt = new byte[16];
+    private final byte[] _hashedSalt = new byte[16];
+
+    /**
+     * @param directory The DirectoryNode that contains the Word document.
+     * @throws IOException If there is an unexpected IOException from the passed
+     *                     in POIFSFileSystem.
+     */
+    public HWPFEncryptionInfo(DirectoryNode directory) throws IOException {
+        this(directory, readFibBase(directory));
+    }
+
+    /**
+     * @param fibBase the FIB base already read from the main stream
+     */
+    HWPFEncryptionInfo(DirectoryNode directory, FibBase fibBase)
+            throws IOException {
+        _fibBase = fibBase;
+
+        // Is this document too old for us?
+        if (_fibBase.getNFib() < 106) {
+            throw new OldWordFileFormatException("The document is too old - Word 95 or older. Try HWPFOldDocument instead?");
+        }
+
+        if (!_fibBase.isFEncrypted()) {
+            return;
+        }
+
+        // use the fib to determine the name of the table stream.
+        String name = STREAM_TABLE_0;
+        if (_fibBase.isFWhichTblStm()) {
+            name = STREAM_TABLE_1;
+        }
+        byte[] header = new byte[HEADER_SIZE];
+        try {
+            readFully(directory, name, header);
+        } catch (FileNotFoundException fnfe) {
+            throw new IllegalStateException("Table Stream '" + name + "' wasn't found - Either the document is corrupt, or is Word95 (or earlier)");
+        }
+        System.arraycopy(header, 4, _docId, 0, 16);
+        System.arraycopy(header, 20, _salt, 0, 16);
+        System.arraycopy(header, 36, _hashedSalt, 0, 16);
+    }
+
+    private static FibBase readFibBase(DirectoryNode directory)
+            throws IOException {
+        byte[] fib = new byte[FibBase.getSize()];
+        readFully(directory, HWPFDocumentCore.STREAM_WORD_DOCUMENT, fib);
+        return new FibBase(fib, 0);
+    }
+
+    private static void readFully(DirectoryNode directory, String name,
+                                  byte[] buffer) throws IOException {
+        DocumentInputStream is = directory.createDocumentInputStream(name);
+        try {
+            IOUtils.readFully(is, buffer);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * @return whether the document is marked as encrypted in its FIB
+     */
+    public boolean isEncrypted() {
+        return _fibBase.isFEncrypted();
+    }
+
+    /**
+     * @return whether the document is obfuscated (XOR) rather than RC4
+     * encrypted; such documents can not be opened with a password
+     */
+    public boolean isObfuscated() {
+        return _fibBase.isFObfuscated();
+    }
+
+    /**
+     * @return true if the password opens this document
+     */
+    public boolean verifyPassword(String password) {
+        return getPasswordDigest(password) != null;
+    }
+
+    /**
+     * Checks the candidates in order and returns the first one which opens
+     * this document.
+     *
+     * @return the matching password, or <code>null</code> if none matched
+     */
+    public String findPassword(Iterable<String> candidates) {
+        for (String candidate : candidates) {
+            if (verifyPassword(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the digest the stream keys are derived from, or
+     * <code>null</code> if the password is wrong
+     */
+    MD5 getPasswordDigest(String password) {
+        if (!isEncrypted()) {
+            return null;
+        }
+
+        // the verification works in place, so keep the header untouched
+        byte[] salt = new byte[64];
+        System.arraycopy(_salt, 0, salt, 0, 16);
+        byte[] hashedSalt = _hashedSalt.clone();
+        MD5 digest = new MD5();
+        if (!verifyPWD(expandPW(password), _docId, salt, hashedSalt, digest)) {
+            return null;
+        }
+        return digest;
+    }
+
+    private static boolean verifyPWD(byte pwArray[], byte docId[], byte salt[], byte hashedSalt[], MD5 valContext) {
+        RC4 tool = new RC4();
+        RC4 key = new RC4();
+        int offset = 0, keyOffset = 0;
+        int toCopy = 5;
+        MD5 md5 = new MD5();
+        MD5 md51 = new MD5();
+        md5.md5Init();
+        md5.md5Update(pwArray, 64);
+        md5.getMD5StoreDigest(md5);
+        valContext.md5Init();
+        while (offset != 16) {
+            if ((64 - offset) < 5)
+                toCopy = 64 - offset;
+            System.arraycopy(md5.digest, keyOffset, pwArray, offset, toCopy);
+            offset += toCopy;
+
+            if (offset == 64) {
+                valContext.md5Update(pwArray, 64);
+                keyOffset = toCopy;
+                toCopy = 5 - toCopy;
+                offset = 0;
+                continue;
+            }
+            keyOffset = 0;
+            toCopy = 5;
+            System.arraycopy(docId, 0, pwArray, offset, 16);
+            offset += 16;
+        }
+        pwArray[16] = (byte) 0x80;
+        for (int i = 0; i < 47; i++) {
+            pwArray[17 + i] = 0;
+        }
+        pwArray[56] = (byte) 0x80;
+        pwArray[57] = (byte) 0x0A;
+        valContext.md5Update(pwArray, 64);
+        valContext.getMD5StoreDigest(valContext);
+        tool.makeKey(0, key, valContext);
+        tool.rc4(salt, 16, key);
+        tool.rc4(hashedSalt, 16, key);
+        salt[16] = (byte) 0x80;
+        for (int i = 0; i < 47; i++) salt[17 + i] = 0;
+        salt[56] = (byte) 0x80;
+        md51.md5Init();
+        md51.md5Update(salt, 64);
+        md51.getMD5StoreDigest(md51);
+        for (int i = 0; i < 16; i++) {
+            if (hashedSalt[i] != md51.digest[i]) return false;
+        }
+        return true;
+    }
+
+    private static byte[] expandPW(String password) {
+        int i;
+        byte[] pwArray = new byte[64];
+        for (i = 0; i < 64; i++)
+            pwArray[i] = 0;
+        i = 0;
+        char[] passwordArray = new char[16];
+        char[] temp = HWPFDocument.utf8ToUnicode(password).toCharArray();
+        for (int j = 0; j < 16; j++) {
+            if (j < temp.length) passwordArray[j] = temp[j];
+            else passwordArray[j] = 0;
+        }
+        // like Word, only the first 15 characters are used
+        while (i < MAX_PASSWORD_LENGTH && passwordArray[i] != 0) {
+            pwArray[(2 * i)] = (byte) (passwordArray[i] & 0xff);
+            pwArray[(2 * i) + 1] = (byte) ((passwordArray[i] << 8) & 0xff);
+            i++;
+        }
+        pwArray[2 * i] = (byte) 0x80;
+        pwArray[56] = (byte) (i << 4);
+        return pwArray;
+    }
+}
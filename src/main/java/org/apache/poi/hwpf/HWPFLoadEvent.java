@@ -0,0 +1,137 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf;
+
+/**
+ * Metrics of one phase of loading a Word document.
+ */
+public final class HWPFLoadEvent {
+    /**
+     * Value of metrics not known for a phase
+     */
+    public static final long UNKNOWN = -1;
+
+    public enum Phase {
+        /**
+         * checking the password of an encrypted document
+         */
+        PASSWORD,
+        /**
+         * reading the WordDocument stream and the FIB
+         */
+        MAIN_STREAM,
+        TABLE_STREAM,
+        /**
+         * decrypting the main and table streams
+         */
+        DECRYPTION,
+        /**
+         * reading the Data stream, eagerly or on first use
+         */
+        DATA_STREAM,
+        TEXT_PIECES,
+        /**
+         * reading the CHPX bin table
+         */
+        CHARACTER_RUNS,
+        /**
+         * reading the PAPX bin table
+         */
+        PARAGRAPHS,
+        /**
+         * rebuilding the CHPX and PAPX tables over the text
+         */
+        REBUILD,
+        SECTIONS,
+        DOCUMENT_PROPERTIES,
+        /**
+         * shape anchors, Escher records, pictures and office drawings
+         */
+        DRAWINGS,
+        STYLES,
+        FONTS,
+        LISTS,
+        SAVED_BY,
+        REVISION_MARKS,
+        BOOKMARKS,
+        NOTES,
+        FIELDS;
+
+        static Phase of(HWPFLoadOptions.Part part) {
+            // parts are named after their phases
+            return valueOf(part.name());
+        }
+    }
+
+    private final Phase _phase;
+    private final long _elapsedNanos;
+    private final long _bytes;
+    private final long _objects;
+    private final long _allocatedBytes;
+
+    public HWPFLoadEvent(Phase phase, long elapsedNanos, long bytes,
+                         long objects, long allocatedBytes) {
+        _phase = phase;
+        _elapsedNanos = elapsedNanos;
+        _bytes = bytes;
+        _objects = objects;
+        _allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return bytes allocated by the loading thread during the phase, or
+     * {@link #UNKNOWN} if not tracked
+     */
+    public long getAllocatedBytes() {
+        return _allocatedBytes;
+    }
+
+    /**
+     * @return bytes of the stream or structure read by the phase, or
+     * {@link #UNKNOWN}
+     */
+    public long getBytes() {
+        return _bytes;
+    }
+
+    /**
+     * @return time spent in the phase, without parts it loaded on first use,
+     * which are reported as phases of their own
+     */
+    public long getElapsedNanos() {
+        return _elapsedNanos;
+    }
+
+    /**
+     * @return number of pieces, CHPX, PAPX, sections, fields, shapes etc.
+     * created by the phase, or {@link #UNKNOWN}
+     */
+    public long getObjects() {
+        return _objects;
+    }
+
+    public Phase getPhase() {
+        return _phase;
+    }
+
+    @Override
+    public String toString() {
+        return _phase + ": " + _elapsedNanos + " ns, " + _bytes + " bytes, "
+                + _objects + " objects, " + _allocatedBytes + " allocated";
+    }
+}
@@ -0,0 +1,240 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load listener keeping per phase statistics in memory: call counts, total
+ * and maximum time, a histogram of times with power of two nanosecond
+ * buckets, bytes read and the largest object counts. It is meant to be
+ * installed as the default listener of long running services, which can then
+ * dump {@link #toString()} or query percentiles to find documents slow to
+ * load.
+ */
+public class HWPFLoadHistogram implements HWPFLoadListener {
+    /**
+     * Bucket <code>i</code> counts the phases which took less than
+     * <code>2<sup>i</sup></code> nanoseconds
+     */
+    private static final int BUCKETS = 64;
+
+    private final boolean _allocationTracked;
+
+    private final Map<HWPFLoadEvent.Phase, PhaseStatistics> _phases = new EnumMap<HWPFLoadEvent.Phase, PhaseStatistics>(
+            HWPFLoadEvent.Phase.class);
+
+    public HWPFLoadHistogram() {
+        this(false);
+    }
+
+    /**
+     * @param allocationTracked whether to collect the bytes allocated by each
+     *                          phase, if the JVM can measure it
+     */
+    public HWPFLoadHistogram(boolean allocationTracked) {
+        _allocationTracked = allocationTracked;
+        for (HWPFLoadEvent.Phase phase : HWPFLoadEvent.Phase.values()) {
+            _phases.put(phase, new PhaseStatistics());
+        }
+    }
+
+    public boolean isAllocationTracked() {
+        return _allocationTracked;
+    }
+
+    public void phaseCompleted(HWPFLoadEvent event) {
+        _phases.get(event.getPhase()).add(event);
+    }
+
+    /**
+     * @return number of times the phase completed
+     */
+    public long getCount(HWPFLoadEvent.Phase phase) {
+        PhaseStatistics statistics = _phases.get(phase);
+        synchronized (statistics) {
+            return statistics.count;
+        }
+    }
+
+    public long getMaxNanos(HWPFLoadEvent.Phase phase) {
+        PhaseStatistics statistics = _phases.get(phase);
+        synchronized (statistics) {
+            return statistics.maxNanos;
+        }
+    }
+
+    /**
+     * @return largest object count reported for the phase, or
+     * {@link HWPFLoadEvent#UNKNOWN}
+     */
+    public long getMaxObjects(HWPFLoadEvent.Phase phase) {
+        PhaseStatistics statistics = _phases.get(phase);
+        synchronized (statistics) {
+            return statistics.maxObjects;
+        }
+    }
+
+    /**
+     * Estimates a percentile of the phase times from the histogram, so the
+     * result is only exact to a power of two.
+     *
+     * @param percentile between 0 and 100
+     * @return upper bound of the bucket holding the percentile, capped by the
+     * maximum time seen, or 0 if the phase never completed
+     */
+    public long getPercentileNanos(HWPFLoadEvent.Phase phase, double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile out of range: "
+                    + percentile);
+
+        PhaseStatistics statistics = _phases.get(phase);
+        synchronized (statistics) {
+            if (statistics.count == 0)
+                return 0;
+
+            long rank = (long) Math.ceil(statistics.count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += statistics.buckets[i];
+                if (seen >= rank && seen > 0) {
+                    long upper = i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i;
+                    return Math.min(upper, statistics.maxNanos);
+                }
+            }
+            return statistics.maxNanos;
+        }
+    }
+
+    /**
+     * @return sum of the bytes allocated by the phase, or
+     * {@link HWPFLoadEvent#UNKNOWN} if they are not tracked
+     */
+    public long getTotalAllocatedBytes(HWPFLoadEvent.Phase phase) {
+        PhaseStatistics statistics = _phases.get(phase);
+        synchronized (statistics) {
+            return statistics.totalAllocatedBytes;
+        }
+    }
+
+    /**
+     * @return sum of the bytes read by the phase, or
+     * {@link HWPFLoadEvent#UNKNOWN} if they are not known
+     */
+    public long getTotalBytes(HWPFLoadEvent.Phase phase) {
+        PhaseStatistics statistics = _phases.get(phase);
+        synchronized (statistics) {
+            return statistics.totalBytes;
+        }
+    }
+
+    public long getTotalNanos(HWPFLoadEvent.Phase phase) {
+        PhaseStatistics statistics = _phases.get(phase);
+        synchronized (statistics) {
+            return statistics.totalNanos;
+        }
+    }
+
+    public void reset() {
+        for (PhaseStatistics statistics : _phases.values()) {
+            synchronized (statistics) {
+                statistics.reset();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[HWPFLoadHistogram]\n");
+        for (HWPFLoadEvent.Phase phase : HWPFLoadEvent.Phase.values()) {
+            PhaseStatistics statistics = _phases.get(phase);
+            synchronized (statistics) {
+                if (statistics.count == 0)
+                    continue;
+
+                builder.append(phase);
+                builder.append(": count ").append(statistics.count);
+                builder.append(", mean ")
+                        .append(statistics.totalNanos / statistics.count / 1000)
+                        .append(" us");
+                builder.append(", p99 ")
+                        .append(getPercentileNanos(phase, 99) / 1000)
+                        .append(" us");
+                builder.append(", max ").append(statistics.maxNanos / 1000)
+                        .append(" us");
+                if (statistics.totalBytes != HWPFLoadEvent.UNKNOWN)
+                    builder.append(", bytes ").append(statistics.totalBytes);
+                if (statistics.maxObjects != HWPFLoadEvent.UNKNOWN)
+                    builder.append(", max objects ").append(
+                            statistics.maxObjects);
+                if (statistics.totalAllocatedBytes != HWPFLoadEvent.UNKNOWN)
+                    builder.append(", allocated ").append(
+                            statistics.totalAllocatedBytes);
+                builder.append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    private static final class PhaseStatistics {
+        long count;
+        long totalNanos;
+        long maxNanos;
+        final long[] buckets = new long[BUCKETS];
+        long totalBytes;
+        long maxObjects;
+        long totalAllocatedBytes;
+
+        PhaseStatistics() {
+            reset();
+        }
+
+        synchronized void add(HWPFLoadEvent event) {
+            long nanos = Math.max(0, event.getElapsedNanos());
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))]++;
+            totalBytes = sum(totalBytes, event.getBytes());
+            maxObjects = Math.max(maxObjects, event.getObjects());
+            totalAllocatedBytes = sum(totalAllocatedBytes,
+                    event.getAllocatedBytes());
+        }
+
+        private static long sum(long total, long value) {
+            if (value == HWPFLoadEvent.UNKNOWN)
+                return total;
+            if (total == HWPFLoadEvent.UNKNOWN)
+                return value;
+            return total + value;
+        }
+
+        void reset() {
+            count = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+            Arrays.fill(buckets, 0);
+            totalBytes = HWPFLoadEvent.UNKNOWN;
+            maxObjects = HWPFLoadEvent.UNKNOWN;
+            totalAllocatedBytes = HWPFLoadEvent.UNKNOWN;
+        }
+    }
+}
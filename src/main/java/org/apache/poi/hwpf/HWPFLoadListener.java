@@ -0,0 +1,38 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf;
+
+/**
+ * Receives the metrics of every phase of loading a Word document. Parts left
+ * out of the load profile are reported when they are parsed on first access.
+ * <p>
+ * Listeners are set per document with
+ * {@link HWPFLoadOptions#HWPFLoadOptions(java.util.Set, HWPFLoadListener)}
+ * or for all documents with
+ * {@link HWPFLoadOptions#setDefaultListener(HWPFLoadListener)}, so they may
+ * be called from several threads at once.
+ */
+public interface HWPFLoadListener {
+    /**
+     * @return whether the events shall carry the bytes allocated by the
+     * loading thread, which costs two extra JVM calls per phase
+     */
+    boolean isAllocationTracked();
+
+    void phaseCompleted(HWPFLoadEvent event);
+}
@@ -0,0 +1,184 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf;
+
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Selects which parts of a Word document {@link HWPFDocument} parses while
+ * it is opened. Text, character and paragraph properties and sections are
+ * always loaded; every other part left out here is parsed on first access
+ * instead, so a document opened with a smaller profile still behaves like a
+ * fully loaded one.
+ * <p>
+ * The load options also carry the {@link HWPFLoadListener} notified of every
+ * load phase. Without one the default listener is used, which can be named
+ * with the <code>org.apache.poi.hwpf.loadListener</code> system property set
+ * to a class with a public no-argument constructor.
+ */
+public final class HWPFLoadOptions {
+    /**
+     * Parts of the document which can be loaded on first access
+     */
+    public enum Part {
+        /**
+         * the Data stream, needed by pictures, form fields and paragraph
+         * properties too big for their FKP; when left out it is read on
+         * first use, or when the document is closed
+         */
+        DATA_STREAM,
+        /**
+         * document wide properties (DOP)
+         */
+        DOCUMENT_PROPERTIES,
+        /**
+         * shape anchors, Escher records, pictures and office drawings
+         */
+        DRAWINGS,
+        STYLES,
+        FONTS,
+        LISTS,
+        SAVED_BY,
+        REVISION_MARKS,
+        BOOKMARKS,
+        /**
+         * footnotes and endnotes
+         */
+        NOTES,
+        FIELDS
+    }
+
+    /**
+     * Parses every part while the document is opened
+     */
+    public static final HWPFLoadOptions FULL = new HWPFLoadOptions(
+            EnumSet.allOf(Part.class));
+
+    /**
+     * Parses only the text structure while the document is opened
+     */
+    public static final HWPFLoadOptions TEXT_ONLY = new HWPFLoadOptions(
+            EnumSet.noneOf(Part.class));
+
+    /**
+     * Parses the text structure and the styles needed to resolve table
+     * properties while the document is opened
+     */
+    public static final HWPFLoadOptions TABLES_ONLY = new HWPFLoadOptions(
+            EnumSet.of(Part.STYLES));
+
+    static final String PROPERTY_LOAD_LISTENER = "org.apache.poi.hwpf.loadListener";
+
+    private static final POILogger logger = POILogFactory
+            .getLogger(HWPFLoadOptions.class);
+
+    private static HWPFLoadListener defaultListener;
+
+    private static boolean defaultListenerResolved;
+
+    /**
+     * @return the listener of documents opened without one, or
+     * <code>null</code>
+     */
+    public static synchronized HWPFLoadListener getDefaultListener() {
+        if (!defaultListenerResolved) {
+            defaultListenerResolved = true;
+
+            String name = null;
+            try {
+                name = System.getProperty(PROPERTY_LOAD_LISTENER);
+            } catch (Exception exc) {
+                // ignore;
+            }
+
+            if (name != null && name.length() > 0) {
+                try {
+                    defaultListener = (HWPFLoadListener) Class.forName(name)
+                            .newInstance();
+                } catch (Exception exc) {
+                    logger.log(POILogger.WARN, "Unable to create load listener ",
+                            name, ": ", exc);
+                }
+            }
+        }
+        return defaultListener;
+    }
+
+    /**
+     * Sets the listener of documents opened without one, overriding the
+     * system property.
+     *
+     * @param listener the listener, or <code>null</code> to disable
+     */
+    public static synchronized void setDefaultListener(
+            HWPFLoadListener listener) {
+        defaultListener = listener;
+        defaultListenerResolved = true;
+    }
+
+    private final Set<Part> _eagerParts;
+
+    private final HWPFLoadListener _listener;
+
+    /**
+     * @param eagerParts parts to parse while the document is opened
+     */
+    public HWPFLoadOptions(Set<Part> eagerParts) {
+        this(eagerParts, null);
+    }
+
+    /**
+     * @param eagerParts parts to parse while the document is opened
+     * @param listener   listener notified of every load phase, or
+     *                   <code>null</code> for the default one
+     */
+    public HWPFLoadOptions(Set<Part> eagerParts, HWPFLoadListener listener) {
+        _eagerParts = Collections.unmodifiableSet(eagerParts.isEmpty() ? EnumSet
+                .noneOf(Part.class) : EnumSet.copyOf(eagerParts));
+        _listener = listener;
+    }
+
+    /**
+     * @return the parts parsed while the document is opened
+     */
+    public Set<Part> getEagerParts() {
+        return _eagerParts;
+    }
+
+    /**
+     * @return the listener notified of every load phase, or
+     * <code>null</code> if there is none
+     */
+    public HWPFLoadListener getListener() {
+        return _listener != null ? _listener : getDefaultListener();
+    }
+
+    public boolean isEager(Part part) {
+        return _eagerParts.contains(part);
+    }
+
+    @Override
+    public String toString() {
+        return "HWPFLoadOptions " + _eagerParts;
+    }
+}
@@ -62,17 +62,12 @@ public class HWPFOldDocument extends HWPFDocumentCore {
         // We need to get hold of the text that makes up the
         //  document, which might be regular or fast-saved
         ComplexFileTable cft = null;
-        StringBuilder text = new StringBuilder();
         if (_fib.getFibBase().isFComplex()) {
             cft = new ComplexFileTable(
                     _mainStream, _mainStream,
                     complexTableOffset, _fib.getFibBase().getFcMin()
             );
             tpt = cft.getTextPieceTable();
-
-            for (TextPiece tp : tpt.getTextPieces()) {
-                text.append(tp.getStringBuilder());
-            }
         } else {
             // TODO Discover if these older documents can ever hold Unicode Strings?
             //  (We think not, because they seem to lack a Piece table)
@@ -90,8 +85,6 @@ public class HWPFOldDocument extends HWPFDocumentCore {
                     0, textData.length, textData, pd
             );
             tpt.add(tp);
-
-            text.append(tp.getStringBuilder());
         }
 
         _text = tpt.getText();
@@ -0,0 +1,96 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.hwpf;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.DigestException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * {@link RC4CryptoProvider} backed by the JCA "MD5" message digest and
+ * "ARCFOUR" cipher
+ */
+final class JCARC4CryptoProvider extends RC4CryptoProvider {
+    static final String NAME = "jca";
+
+    private static final String DIGEST_ALGORITHM = "MD5";
+    private static final String CIPHER_ALGORITHM = "ARCFOUR";
+
+    JCARC4CryptoProvider() throws GeneralSecurityException {
+        // fail early if the algorithms are missing
+        MessageDigest.getInstance(DIGEST_ALGORITHM);
+        Cipher.getInstance(CIPHER_ALGORITHM);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public RC4KeySchedule newKeySchedule(byte[] passwordDigest) {
+        try {
+            return new KeySchedule(passwordDigest);
+        } catch (GeneralSecurityException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    private static final class KeySchedule implements RC4KeySchedule {
+        private final MessageDigest _md5;
+        private final Cipher _cipher;
+        /**
+         * five password digest bytes followed by the little endian block number
+         */
+        private final byte[] _keyData = new byte[9];
+        private final byte[] _key = new byte[16];
+
+        KeySchedule(byte[] passwordDigest) throws GeneralSecurityException {
+            _md5 = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            _cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            System.arraycopy(passwordDigest, 0, _keyData, 0, 5);
+        }
+
+        public void rekey(int block) {
+            _keyData[5] = (byte) block;
+            _keyData[6] = (byte) (block >>> 8);
+            _keyData[7] = (byte) (block >>> 16);
+            _keyData[8] = (byte) (block >>> 24);
+            try {
+                _md5.update(_keyData);
+                _md5.digest(_key, 0, _key.length);
+                _cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(_key,
+                        CIPHER_ALGORITHM));
+            } catch (DigestException exc) {
+                throw new IllegalStateException(exc);
+            } catch (GeneralSecurityException exc) {
+                throw new IllegalStateException(exc);
+            }
+        }
+
+        public void crypt(byte[] buffer, int offset, int length) {
+            try {
+                _cipher.update(buffer, offset, length, buffer, offset);
+            } catch (ShortBufferException exc) {
+                throw new IllegalStateException(exc);
+            }
+        }
+    }
+}
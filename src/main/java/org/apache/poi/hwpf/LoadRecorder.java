@@ -0,0 +1,161 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf;
+
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the load phases of a document for its {@link HWPFLoadListener}.
+ * Without a listener every call returns at once.
+ */
+final class LoadRecorder {
+    private static final POILogger logger = POILogFactory
+            .getLogger(LoadRecorder.class);
+
+    private final HWPFLoadListener _listener;
+
+    private final com.sun.management.ThreadMXBean _threads;
+
+    /**
+     * Start of the current constructor phase
+     */
+    private Mark _mark;
+
+    /**
+     * Innermost phase being measured
+     */
+    private Mark _open;
+
+    LoadRecorder(HWPFLoadListener listener) {
+        _listener = listener;
+        _threads = listener != null && listener.isAllocationTracked() ? getThreadMXBean()
+                : null;
+        _mark = start();
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemorySupported()
+                    && sunThreads.isThreadAllocatedMemoryEnabled())
+                return sunThreads;
+        }
+        return null;
+    }
+
+    private long getAllocatedBytes() {
+        if (_threads == null)
+            return HWPFLoadEvent.UNKNOWN;
+        return _threads.getThreadAllocatedBytes(Thread.currentThread()
+                .getId());
+    }
+
+    /**
+     * @return start of a phase, or <code>null</code> without a listener
+     */
+    Mark start() {
+        if (_listener == null)
+            return null;
+        _open = new Mark(System.nanoTime(), getAllocatedBytes(), _open);
+        return _open;
+    }
+
+    /**
+     * Reports a phase that started at the given mark. Phases started and
+     * ended in between, like parts loaded on first use, are left out of it.
+     */
+    void end(Mark start, HWPFLoadEvent.Phase phase, long bytes, long objects) {
+        if (start == null)
+            return;
+
+        long total = System.nanoTime() - start._nanos;
+        long totalAllocated = start._allocatedBytes == HWPFLoadEvent.UNKNOWN ? HWPFLoadEvent.UNKNOWN
+                : getAllocatedBytes() - start._allocatedBytes;
+        close(start, total, totalAllocated);
+
+        long elapsed = total - start._nestedNanos;
+        long allocated = totalAllocated == HWPFLoadEvent.UNKNOWN ? HWPFLoadEvent.UNKNOWN
+                : totalAllocated - start._nestedAllocatedBytes;
+        try {
+            _listener.phaseCompleted(new HWPFLoadEvent(phase, elapsed, bytes,
+                    objects, allocated));
+        } catch (RuntimeException exc) {
+            logger.log(POILogger.WARN, "Load listener failed on ", phase,
+                    ": ", exc);
+        }
+    }
+
+    /**
+     * Drops a phase that failed, without reporting it
+     */
+    void discard(Mark start) {
+        if (start == null)
+            return;
+
+        long totalAllocated = start._allocatedBytes == HWPFLoadEvent.UNKNOWN ? HWPFLoadEvent.UNKNOWN
+                : getAllocatedBytes() - start._allocatedBytes;
+        close(start, System.nanoTime() - start._nanos, totalAllocated);
+    }
+
+    /**
+     * Makes the enclosing phase current again and leaves the given one out
+     * of it
+     */
+    private void close(Mark start, long total, long totalAllocated) {
+        _open = start._parent;
+        if (_open != null) {
+            _open._nestedNanos += total;
+            if (totalAllocated != HWPFLoadEvent.UNKNOWN)
+                _open._nestedAllocatedBytes += totalAllocated;
+        }
+    }
+
+    /**
+     * Reports a constructor phase, which started where the previous one
+     * ended
+     */
+    void next(HWPFLoadEvent.Phase phase, long bytes, long objects) {
+        if (_listener == null)
+            return;
+        end(_mark, phase, bytes, objects);
+        _mark = start();
+    }
+
+    static final class Mark {
+        final long _nanos;
+        final long _allocatedBytes;
+        final Mark _parent;
+
+        /**
+         * Time and allocations of the phases nested in this one
+         */
+        long _nestedNanos;
+        long _nestedAllocatedBytes;
+
+        Mark(long nanos, long allocatedBytes, Mark parent) {
+            _nanos = nanos;
+            _allocatedBytes = allocatedBytes;
+            _parent = parent;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.hwpf;
+
+import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decrypts in-memory Word 97-2003 streams, splitting big ones into ranges of
+ * 0x200-byte blocks that are decrypted concurrently on a
+ * {@link ForkJoinPool}. Each block is keyed from the password digest and its
+ * block number only, so the ranges are independent of each other.
+ * <p>
+ * Streams shorter than the threshold given by the
+ * <code>org.apache.poi.hwpf.parallelDecryptThreshold</code> system property
+ * (in bytes, 1MB by default, 0 or less to disable) are decrypted on the
+ * calling thread.
+ */
+final class ParallelRC4Decryptor {
+    static final String PROPERTY_PARALLEL_THRESHOLD = "org.apache.poi.hwpf.parallelDecryptThreshold";
+
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+
+    /**
+     * Number of blocks below which a range is not split any further
+     */
+    private static final int MIN_BLOCKS_PER_TASK = 128;
+
+    private final RC4CryptoProvider _provider;
+    private final byte[] _passwordDigest;
+    private final int _threshold;
+    private final ForkJoinPool _pool;
+
+    ParallelRC4Decryptor(RC4CryptoProvider provider, byte[] passwordDigest) {
+        this(provider, passwordDigest, getDefaultThreshold(), ForkJoinPool
+                .commonPool());
+    }
+
+    ParallelRC4Decryptor(RC4CryptoProvider provider, byte[] passwordDigest,
+                         int threshold, ForkJoinPool pool) {
+        _provider = provider;
+        _passwordDigest = passwordDigest;
+        _threshold = threshold;
+        _pool = pool;
+    }
+
+    private static int getDefaultThreshold() {
+        try {
+            String value = System.getProperty(PROPERTY_PARALLEL_THRESHOLD);
+            if (value != null) {
+                return Integer.parseInt(value.trim());
+            }
+        } catch (Exception exc) {
+            // ignore;
+        }
+        return DEFAULT_PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * @return whether a stream of the given length would be split across
+     * the pool
+     */
+    boolean isParallel(int length) {
+        return _threshold > 0 && length >= _threshold
+                && _pool.getParallelism() > 1;
+    }
+
+    /**
+     * @return stream which decrypts <code>in</code> while it is read, on the
+     * calling thread
+     */
+    InputStream decryptingStream(InputStream in) {
+        return new RC4InputStream(in, _provider.newKeySchedule(_passwordDigest));
+    }
+
+    /**
+     * Decrypts the whole buffer in place, <code>buffer[0]</code> being the
+     * first byte of the encrypted stream
+     */
+    void decrypt(byte[] buffer) {
+        if (!isParallel(buffer.length)) {
+            RC4.decrypt(buffer, 0, buffer.length,
+                    _provider.newKeySchedule(_passwordDigest));
+            return;
+        }
+
+        int blocks = (buffer.length + RC4.REKEY_BLOCK_SIZE - 1)
+                / RC4.REKEY_BLOCK_SIZE;
+        _pool.invoke(new DecryptTask(buffer, 0, blocks));
+    }
+
+    private final class DecryptTask extends RecursiveAction {
+        private final byte[] _buffer;
+        private final int _firstBlock;
+        private final int _lastBlock;
+
+        DecryptTask(byte[] buffer, int firstBlock, int lastBlock) {
+            _buffer = buffer;
+            _firstBlock = firstBlock;
+            _lastBlock = lastBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (_lastBlock - _firstBlock > MIN_BLOCKS_PER_TASK) {
+                int middle = (_firstBlock + _lastBlock) >>> 1;
+                invokeAll(new DecryptTask(_buffer, _firstBlock, middle),
+                        new DecryptTask(_buffer, middle, _lastBlock));
+                return;
+            }
+
+            RC4KeySchedule keys = _provider.newKeySchedule(_passwordDigest);
+            for (int block = _firstBlock; block < _lastBlock; block++) {
+                int offset = block * RC4.REKEY_BLOCK_SIZE;
+                keys.rekey(block);
+                keys.crypt(_buffer, offset, Math.min(RC4.REKEY_BLOCK_SIZE,
+                        _buffer.length - offset));
+            }
+        }
+    }
+}
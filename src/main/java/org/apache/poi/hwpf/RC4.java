@@ -1,6 +1,11 @@
 package org.apache.poi.hwpf;
 
 public class RC4 {
+    /**
+     * Word 97-2003 rebuilds the RC4 key every 0x200 bytes of a stream
+     */
+    static final int REKEY_BLOCK_SIZE = 0x200;
+
     private byte[] state;
     public int x;
     public int y;
@@ -29,6 +34,10 @@ public class RC4 {
         }
     }
 
+    void prepareKey(byte[] key_data_ptr, int key_data_len) {
+        prepareKey(key_data_ptr, key_data_len, this);
+    }
+
     void makeKey(int block, RC4 rc4key, MD5 md5) {
         byte[] pwArray = new byte[64];
         MD5 temp = new MD5();
@@ -47,6 +56,14 @@ public class RC4 {
     }
 
     void rc4(byte[] buffer_ptr, int buffer_len, RC4 key) {
+        rc4(buffer_ptr, 0, buffer_len, key);
+    }
+
+    void rc4(byte[] buffer_ptr, int offset, int buffer_len) {
+        rc4(buffer_ptr, offset, buffer_len, this);
+    }
+
+    void rc4(byte[] buffer_ptr, int offset, int buffer_len, RC4 key) {
         int x;
         int y;
         byte[] state;
@@ -55,7 +72,7 @@ public class RC4 {
         x = key.x;
         y = key.y;
         state = key.state;
-        for (counter = 0; counter < buffer_len; counter++) {
+        for (counter = offset; counter < offset + buffer_len; counter++) {
             x = ((x + 1) & 0xff);
             y = (((state[x] & 0xff) + y) & 0xff);
             byte bTemp = state[x];
@@ -67,4 +84,17 @@ public class RC4 {
         key.x = x;
         key.y = y;
     }
+
+    /**
+     * Decrypts <code>length</code> bytes of <code>buffer</code> in place,
+     * treating <code>buffer[offset]</code> as the first byte of an encrypted
+     * stream and rekeying at every {@link #REKEY_BLOCK_SIZE} boundary.
+     */
+    static void decrypt(byte[] buffer, int offset, int length, RC4KeySchedule keys) {
+        int block = 0;
+        for (int pos = 0; pos < length; pos += REKEY_BLOCK_SIZE) {
+            keys.rekey(block++);
+            keys.crypt(buffer, offset + pos, Math.min(REKEY_BLOCK_SIZE, length - pos));
+        }
+    }
 }
@@ -0,0 +1,100 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.hwpf;
+
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * Supplies the MD5 key derivation and RC4 cipher used to decrypt Word
+ * 97-2003 documents protected with a password.
+ * <p>
+ * By default the JCA implementations ("MD5" message digest and "ARCFOUR"
+ * cipher) are used when the running JVM provides them, otherwise the
+ * built-in allocation-free implementation is used. The choice can be forced
+ * with the <code>org.apache.poi.hwpf.cryptoProvider</code> system property
+ * set to <code>jca</code> or <code>builtin</code>.
+ */
+public abstract class RC4CryptoProvider {
+    static final String PROPERTY_CRYPTO_PROVIDER = "org.apache.poi.hwpf.cryptoProvider";
+
+    private static final POILogger logger = POILogFactory
+            .getLogger(RC4CryptoProvider.class);
+
+    private static RC4CryptoProvider defaultInstance;
+
+    /**
+     * @return the provider selected by the system property, or the JCA one
+     * if it is available, or the built-in one
+     */
+    public static synchronized RC4CryptoProvider getInstance() {
+        if (defaultInstance == null) {
+            String name = null;
+            try {
+                name = System.getProperty(PROPERTY_CRYPTO_PROVIDER);
+            } catch (Exception exc) {
+                // ignore;
+            }
+
+            if (BuiltinRC4CryptoProvider.NAME.equalsIgnoreCase(name)) {
+                defaultInstance = getBuiltinInstance();
+            } else {
+                try {
+                    defaultInstance = getJCAInstance();
+                } catch (GeneralSecurityException exc) {
+                    logger.log(POILogger.INFO,
+                            "JCA MD5/ARCFOUR not available, falling back to built-in RC4: ",
+                            exc);
+                    defaultInstance = getBuiltinInstance();
+                }
+            }
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * @return provider backed by the built-in int-based MD5 and RC4
+     */
+    public static RC4CryptoProvider getBuiltinInstance() {
+        return new BuiltinRC4CryptoProvider();
+    }
+
+    /**
+     * @return provider backed by <code>java.security.MessageDigest</code>
+     * and <code>javax.crypto.Cipher</code>
+     * @throws GeneralSecurityException if MD5 or ARCFOUR is not available
+     */
+    public static RC4CryptoProvider getJCAInstance()
+            throws GeneralSecurityException {
+        return new JCARC4CryptoProvider();
+    }
+
+    /**
+     * @return short name of this provider, as accepted by the system property
+     */
+    public abstract String getName();
+
+    /**
+     * Creates a new key schedule for one stream.
+     *
+     * @param passwordDigest digest of the validated password; only its first
+     *                       five bytes are used
+     */
+    public abstract RC4KeySchedule newKeySchedule(byte[] passwordDigest);
+}
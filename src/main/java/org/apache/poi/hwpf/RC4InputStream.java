@@ -0,0 +1,107 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@link InputStream} which decrypts a Word 97-2003 RC4 encrypted stream
+ * while it is being read. Bytes are decrypted in place in the caller's
+ * buffer, and the key schedule is rekeyed every {@link RC4#REKEY_BLOCK_SIZE}
+ * bytes.
+ */
+final class RC4InputStream extends FilterInputStream {
+    private final RC4KeySchedule _keys;
+
+    /**
+     * Offset of the next byte in the encrypted stream
+     */
+    private long _position;
+
+    /**
+     * @param in   the encrypted stream, positioned at its first byte
+     * @param keys key schedule derived from the validated password
+     */
+    RC4InputStream(InputStream in, RC4KeySchedule keys) {
+        super(in);
+        _keys = keys;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = read(b, 0, 1);
+        return read == -1 ? -1 : (b[0] & 0xff);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read > 0) {
+            decrypt(b, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // the key stream has to be advanced as well, so skipped bytes are
+        // read and decrypted like any others
+        byte[] scratch = new byte[RC4.REKEY_BLOCK_SIZE];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(scratch, 0, (int) Math.min(scratch.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // not supported, the RC4 state can not be rewound
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private void decrypt(byte[] b, int off, int len) {
+        while (len > 0) {
+            int blockOffset = (int) (_position % RC4.REKEY_BLOCK_SIZE);
+            if (blockOffset == 0) {
+                _keys.rekey((int) (_position / RC4.REKEY_BLOCK_SIZE));
+            }
+            int chunk = Math.min(len, RC4.REKEY_BLOCK_SIZE - blockOffset);
+            _keys.crypt(b, off, chunk);
+            _position += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.hwpf;
+
+/**
+ * RC4 key stream for one encrypted Word 97-2003 stream. Word rebuilds the
+ * RC4 key every 0x200 bytes from the password digest and the block number,
+ * so a key schedule has to be rekeyed at every block boundary before the
+ * bytes of that block are decrypted.
+ * <p>
+ * Key schedules keep cipher state and are not thread safe; obtain one per
+ * thread from {@link RC4CryptoProvider#newKeySchedule(byte[])}.
+ */
+public interface RC4KeySchedule {
+    /**
+     * Resets the cipher to the start of the given 0x200-byte block
+     *
+     * @param block zero based block number within the stream
+     */
+    void rekey(int block);
+
+    /**
+     * XORs the next <code>length</code> bytes of the key stream into
+     * <code>buffer</code> in place
+     */
+    void crypt(byte[] buffer, int offset, int length);
+}
@@ -109,6 +109,11 @@ public abstract class AbstractWordConverter {
         this.fontReplacer = fontReplacer;
     }
 
+    /**
+     * @deprecated use {@link TableGrid#getColSpan(int, int)}, computed once
+     * per table
+     */
+    @Deprecated
     protected int getNumberColumnsSpanned(int[] tableCellEdges,
                                           int currentEdgeIndex, TableCell tableCell) {
         int nextEdgeIndex = currentEdgeIndex;
@@ -121,6 +126,11 @@ public abstract class AbstractWordConverter {
         return colSpan;
     }
 
+    /**
+     * @deprecated use {@link TableGrid#getRowSpan(int, int)}, computed once
+     * per table
+     */
+    @Deprecated
     protected int getNumberRowsSpanned(Table table,
                                        final int[] tableCellEdges, int currentRowIndex,
                                        int currentColumnIndex, TableCell tableCell) {
@@ -0,0 +1,265 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import org.w3c.dom.*;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a DOM document to a {@link ContentHandler} piece by piece while it
+ * is still being built, and removes what was written from the DOM.
+ * <p>
+ * An element is opened (its start tag written) when its children are
+ * flushed for the first time. Opening an element also writes and removes
+ * everything before it in document order, so nodes may only be added to the
+ * elements still open or not attached yet. Attributes of open elements can
+ * no longer be changed.
+ */
+final class DomStreamer {
+    private final ContentHandler contentHandler;
+
+    private final NamespaceSupport namespaces = new NamespaceSupport();
+
+    /**
+     * Open elements, from the document element down
+     */
+    private final List<Element> opened = new ArrayList<Element>();
+
+    /**
+     * Prefixes declared by each started element, for its end tag
+     */
+    private final List<List<String>> declaredPrefixes = new ArrayList<List<String>>();
+
+    private final Document document;
+
+    private boolean started = false;
+
+    DomStreamer(Document document, ContentHandler contentHandler) {
+        this.document = document;
+        this.contentHandler = contentHandler;
+    }
+
+    private static String getLocalName(Node node) {
+        return node.getLocalName() != null ? node.getLocalName() : node
+                .getNodeName();
+    }
+
+    private static String getNamespaceURI(Node node) {
+        return node.getNamespaceURI() != null ? node.getNamespaceURI() : "";
+    }
+
+    private static boolean isNamespaceDeclaration(Attr attr) {
+        return attr.getName().equals("xmlns")
+                || attr.getName().startsWith("xmlns:");
+    }
+
+    /**
+     * Writes and removes all children of the given element but the last one,
+     * which converters may still change. Does nothing until the element is
+     * attached to the document.
+     */
+    void flushCompleted(Element parent) throws SAXException {
+        if (!isAttached(parent))
+            return;
+
+        Node child = parent.getFirstChild();
+        if (child == null || child.getNextSibling() == null)
+            return;
+
+        open(parent);
+        while (child.getNextSibling() != null) {
+            Node next = child.getNextSibling();
+            write(child);
+            parent.removeChild(child);
+            child = next;
+        }
+    }
+
+    /**
+     * Writes and removes the given element with everything it still has.
+     * Nothing can be added to it afterwards.
+     */
+    void close(Element element) throws SAXException {
+        if (!isAttached(element))
+            return;
+
+        open(element);
+        while (!opened.isEmpty()) {
+            if (closeLast() == element)
+                return;
+        }
+    }
+
+    /**
+     * Writes everything left in the document and ends it
+     */
+    void finish() throws SAXException {
+        Element documentElement = document.getDocumentElement();
+        if (documentElement != null)
+            close(documentElement);
+        if (started)
+            contentHandler.endDocument();
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    private boolean isAttached(Node node) {
+        Node parent = node.getParentNode();
+        while (parent != null) {
+            if (parent == document)
+                return true;
+            parent = parent.getParentNode();
+        }
+        return false;
+    }
+
+    private void open(Element element) throws SAXException {
+        int index = opened.indexOf(element);
+        if (index != -1) {
+            while (opened.size() > index + 1)
+                closeLast();
+            return;
+        }
+
+        Node parent = element.getParentNode();
+        if (parent instanceof Element) {
+            open((Element) parent);
+
+            Node sibling = parent.getFirstChild();
+            while (sibling != element) {
+                Node next = sibling.getNextSibling();
+                write(sibling);
+                parent.removeChild(sibling);
+                sibling = next;
+            }
+        } else {
+            while (!opened.isEmpty())
+                closeLast();
+            if (!started) {
+                contentHandler.startDocument();
+                started = true;
+            }
+        }
+
+        startElement(element);
+        opened.add(element);
+    }
+
+    private Element closeLast() throws SAXException {
+        Element element = opened.get(opened.size() - 1);
+        Node child = element.getFirstChild();
+        while (child != null) {
+            Node next = child.getNextSibling();
+            write(child);
+            element.removeChild(child);
+            child = next;
+        }
+        opened.remove(opened.size() - 1);
+        endElement(element);
+        element.getParentNode().removeChild(element);
+        return element;
+    }
+
+    private void write(Node node) throws SAXException {
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                startElement((Element) node);
+                for (Node child = node.getFirstChild(); child != null; child = child
+                        .getNextSibling()) {
+                    write(child);
+                }
+                endElement((Element) node);
+                break;
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+                char[] text = node.getNodeValue().toCharArray();
+                contentHandler.characters(text, 0, text.length);
+                break;
+            case Node.COMMENT_NODE:
+                if (contentHandler instanceof LexicalHandler) {
+                    char[] comment = node.getNodeValue().toCharArray();
+                    ((LexicalHandler) contentHandler).comment(comment, 0,
+                            comment.length);
+                }
+                break;
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                contentHandler.processingInstruction(
+                        ((ProcessingInstruction) node).getTarget(),
+                        ((ProcessingInstruction) node).getData());
+                break;
+            default:
+                // ignore
+                break;
+        }
+    }
+
+    private void startElement(Element element) throws SAXException {
+        namespaces.pushContext();
+        List<String> prefixes = new ArrayList<String>(0);
+        declare(element, prefixes);
+
+        AttributesImpl attributes = new AttributesImpl();
+        NamedNodeMap attributeNodes = element.getAttributes();
+        for (int i = 0; i < attributeNodes.getLength(); i++) {
+            Attr attr = (Attr) attributeNodes.item(i);
+            if (isNamespaceDeclaration(attr))
+                continue;
+            if (attr.getPrefix() != null && !"xml".equals(attr.getPrefix()))
+                declare(attr, prefixes);
+            attributes.addAttribute(getNamespaceURI(attr), getLocalName(attr),
+                    attr.getName(), "CDATA", attr.getValue());
+        }
+
+        declaredPrefixes.add(prefixes);
+        contentHandler.startElement(getNamespaceURI(element),
+                getLocalName(element), element.getTagName(), attributes);
+    }
+
+    private void declare(Node node, List<String> prefixes) throws SAXException {
+        String uri = node.getNamespaceURI();
+        if (uri == null)
+            return;
+
+        String prefix = node.getPrefix() != null ? node.getPrefix() : "";
+        if (uri.equals(namespaces.getURI(prefix)))
+            return;
+
+        namespaces.declarePrefix(prefix, uri);
+        contentHandler.startPrefixMapping(prefix, uri);
+        prefixes.add(prefix);
+    }
+
+    private void endElement(Element element) throws SAXException {
+        contentHandler.endElement(getNamespaceURI(element),
+                getLocalName(element), element.getTagName());
+        for (String prefix : declaredPrefixes
+                .remove(declaredPrefixes.size() - 1)) {
+            contentHandler.endPrefixMapping(prefix);
+        }
+        namespaces.popContext();
+    }
+}
@@ -0,0 +1,48 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import org.apache.poi.util.Beta;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * {@link HtmlDocumentFacade} which puts styles into <tt>style</tt>
+ * attributes instead of CSS classes, so nothing has to be collected for the
+ * stylesheet in the document head.
+ */
+@Beta
+public class InlineStylesHtmlDocumentFacade extends HtmlDocumentFacade {
+    public InlineStylesHtmlDocumentFacade(Document document) {
+        super(document);
+    }
+
+    @Override
+    public void addStyleClass(Element element, String classNamePrefix,
+                              String style) {
+        String exising = element.getAttribute("style");
+        String newStyleValue = WordToHtmlUtils.isEmpty(exising) ? style
+                : (exising + style);
+        element.setAttribute("style", newStyleValue);
+    }
+
+    @Override
+    public void updateStylesheet() {
+        // no stylesheet
+    }
+}
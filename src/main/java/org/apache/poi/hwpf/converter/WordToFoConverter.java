@@ -444,8 +444,7 @@ public class WordToFoConverter extends AbstractWordConverter {
         Element tableHeader = foDocumentFacade.createTableHeader();
         Element tableBody = foDocumentFacade.createTableBody();
 
-        final int[] tableCellEdges = WordToHtmlUtils
-                .buildTableCellEdgesArray(table);
+        final TableGrid tableGrid = new TableGrid(table);
         final int tableRows = table.numRows();
 
         int maxColumns = Integer.MIN_VALUE;
@@ -459,16 +458,12 @@ public class WordToFoConverter extends AbstractWordConverter {
             Element tableRowElement = foDocumentFacade.createTableRow();
             WordToFoUtils.setTableRowProperties(tableRow, tableRowElement);
 
-            // index of current element in tableCellEdges[]
-            int currentEdgeIndex = 0;
             final int rowCells = tableRow.numCells();
             for (int c = 0; c < rowCells; c++) {
                 TableCell tableCell = tableRow.getCell(c);
 
                 if (tableCell.isVerticallyMerged()
                         && !tableCell.isFirstVerticallyMerged()) {
-                    currentEdgeIndex += getNumberColumnsSpanned(
-                            tableCellEdges, currentEdgeIndex, tableCell);
                     continue;
                 }
 
@@ -477,9 +472,7 @@ public class WordToFoConverter extends AbstractWordConverter {
                         tableCellElement, r == 0, r == tableRows - 1, c == 0,
                         c == rowCells - 1);
 
-                int colSpan = getNumberColumnsSpanned(tableCellEdges,
-                        currentEdgeIndex, tableCell);
-                currentEdgeIndex += colSpan;
+                int colSpan = tableGrid.getColSpan(r, c);
 
                 if (colSpan == 0)
                     continue;
@@ -488,8 +481,7 @@ public class WordToFoConverter extends AbstractWordConverter {
                     tableCellElement.setAttribute("number-columns-spanned",
                             String.valueOf(colSpan));
 
-                final int rowSpan = getNumberRowsSpanned(table,
-                        tableCellEdges, r, c, tableCell);
+                final int rowSpan = tableGrid.getRowSpan(r, c);
                 if (rowSpan > 1)
                     tableCellElement.setAttribute("number-rows-spanned",
                             String.valueOf(rowSpan));
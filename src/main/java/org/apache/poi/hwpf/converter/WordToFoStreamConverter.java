@@ -0,0 +1,213 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import org.apache.poi.hwpf.HWPFDocumentCore;
+import org.apache.poi.hwpf.usermodel.Paragraph;
+import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.hwpf.usermodel.Section;
+import org.apache.poi.hwpf.usermodel.Table;
+import org.apache.poi.util.Beta;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.FileWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Converts Word files (97-2007) into XSL FO written to a
+ * {@link ContentHandler} while the document is processed, instead of
+ * building the whole FO DOM first.
+ * <p>
+ * Each block or table is still built as a DOM subtree, as
+ * {@link WordToFoConverter} does, but it is written out and dropped once the
+ * next one is started, so memory is bounded by the largest table rather than
+ * the whole document. Page masters of all sections are created before the
+ * first page sequence is written, as they have to precede it. Metadata has to
+ * be set before that too; in practice only the first processed document
+ * contributes it.
+ */
+@Beta
+public class WordToFoStreamConverter extends WordToFoConverter {
+    private static final POILogger logger = POILogFactory
+            .getLogger(WordToFoStreamConverter.class);
+
+    private final Set<String> pageMasters = new HashSet<String>();
+
+    private final DomStreamer streamer;
+
+    /**
+     * Creates new instance of {@link WordToFoStreamConverter}. Can be used for
+     * output several {@link org.apache.poi.hwpf.HWPFDocument}s into single FO
+     * document.
+     *
+     * @param contentHandler receives the FO document
+     * @throws ParserConfigurationException if an internal {@link DocumentBuilder} cannot be created
+     */
+    public WordToFoStreamConverter(ContentHandler contentHandler)
+            throws ParserConfigurationException {
+        super(DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .newDocument());
+        this.streamer = new DomStreamer(foDocumentFacade.getDocument(),
+                contentHandler);
+    }
+
+    /**
+     * Java main() interface to interact with {@link WordToFoStreamConverter}
+     * <p>
+     * <p>
+     * Usage: WordToFoStreamConverter infile outfile
+     * </p>
+     * Where infile is an input .doc file ( Word 97-2007) which will be rendered
+     * as XSL-FO into outfile
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err
+                    .println("Usage: WordToFoStreamConverter <inputFile.doc> <saveTo.fo>");
+            return;
+        }
+
+        System.out.println("Converting " + args[0]);
+        System.out.println("Saving output to " + args[1]);
+        try {
+            final HWPFDocumentCore hwpfDocument = WordToFoUtils
+                    .loadDoc(new File(args[0]));
+
+            FileWriter out = new FileWriter(args[1]);
+            SAXTransformerFactory tf = (SAXTransformerFactory) TransformerFactory
+                    .newInstance();
+            TransformerHandler handler = tf.newTransformerHandler();
+            Transformer serializer = handler.getTransformer();
+            // TODO set encoding from a command argument
+            serializer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            serializer.setOutputProperty(OutputKeys.INDENT, "yes");
+            handler.setResult(new StreamResult(out));
+
+            WordToFoStreamConverter converter = new WordToFoStreamConverter(
+                    handler);
+            converter.processDocument(hwpfDocument);
+            converter.finish();
+            out.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    protected String createPageMaster(Section section, String type,
+                                      int sectionIndex) {
+        String pageMasterName = type + "-page" + sectionIndex;
+        if (pageMasters.contains(pageMasterName))
+            return pageMasterName;
+
+        if (streamer.isStarted()) {
+            logger.log(POILogger.WARN, "Page master '", pageMasterName,
+                    "' created after layout master set was written");
+        }
+        pageMasters.add(pageMasterName);
+        return super.createPageMaster(section, type, sectionIndex);
+    }
+
+    private void createPageMasters(Range range) {
+        for (int s = 0; s < range.numSections(); s++) {
+            createPageMaster(range.getSection(s), "page", s);
+        }
+    }
+
+    /**
+     * Writes the rest of the document and ends it. Call once after the last
+     * document or part was processed.
+     */
+    public void finish() throws SAXException {
+        streamer.finish();
+    }
+
+    private void flushCompleted(Element parent) {
+        try {
+            streamer.flushCompleted(parent);
+        } catch (SAXException exc) {
+            throw new IllegalStateException("Unable to write XSL FO", exc);
+        }
+    }
+
+    /**
+     * @return <code>null</code>, as the document is written out while it is
+     * built
+     */
+    @Override
+    public Document getDocument() {
+        return null;
+    }
+
+    @Override
+    public void processDocument(HWPFDocumentCore wordDocument) {
+        createPageMasters(wordDocument.getRange());
+        super.processDocument(wordDocument);
+    }
+
+    @Override
+    protected void processDocumentPart(HWPFDocumentCore wordDocument,
+                                       Range range) {
+        createPageMasters(range);
+        super.processDocumentPart(wordDocument, range);
+    }
+
+    @Override
+    protected void processParagraph(HWPFDocumentCore hwpfDocument,
+                                    Element parentFopElement, int currentTableLevel,
+                                    Paragraph paragraph, String bulletText) {
+        super.processParagraph(hwpfDocument, parentFopElement,
+                currentTableLevel, paragraph, bulletText);
+        flushCompleted(parentFopElement);
+    }
+
+    @Override
+    protected void processSection(HWPFDocumentCore wordDocument,
+                                  Section section, int sectionCounter) {
+        super.processSection(wordDocument, section, sectionCounter);
+
+        try {
+            streamer.close((Element) foDocumentFacade.root.getLastChild());
+        } catch (SAXException exc) {
+            throw new IllegalStateException("Unable to write XSL FO", exc);
+        }
+    }
+
+    @Override
+    protected void processTable(HWPFDocumentCore wordDocument, Element flow,
+                                Table table) {
+        super.processTable(wordDocument, flow, table);
+        flushCompleted(flow);
+    }
+}
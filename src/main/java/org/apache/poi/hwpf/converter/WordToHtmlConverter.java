@@ -361,19 +361,28 @@ public class WordToHtmlConverter extends AbstractWordConverter {
         block.appendChild(htmlDocumentFacade.createLineBreak());
     }
 
+    /**
+     * Adds the class after the ones already set, which keeps the generated
+     * style class first
+     */
+    private static void appendClass(Element element, String className) {
+        String existing = element.getAttribute("class");
+        element.setAttribute("class", WordToHtmlUtils.isEmpty(existing)
+                ? className : existing + " " + className);
+    }
+
     private void processNoteAutonumbered(HWPFDocument doc, String type,
                                          int noteIndex, Element block, Range noteTextRange) {
         final String textIndex = String.valueOf(noteIndex + 1);
-        final String textIndexClass = htmlDocumentFacade.getOrCreateCssClass(
-                "a", "vertical-align:super;font-size:smaller;");
+        final String textIndexStyle = "vertical-align:super;font-size:smaller;";
         final String forwardNoteLink = type + "note_" + textIndex;
         final String backwardNoteLink = type + "note_back_" + textIndex;
 
         Element anchor = htmlDocumentFacade.createHyperlink("#"
                 + forwardNoteLink);
         anchor.setAttribute("name", backwardNoteLink);
-        anchor.setAttribute("class", textIndexClass + " " + type
-                + "noteanchor");
+        htmlDocumentFacade.addStyleClass(anchor, "a", textIndexStyle);
+        appendClass(anchor, type + "noteanchor");
         anchor.setTextContent(textIndex);
         block.appendChild(anchor);
 
@@ -389,8 +398,8 @@ public class WordToHtmlConverter extends AbstractWordConverter {
         Element bookmark = htmlDocumentFacade.createBookmark(forwardNoteLink);
         bookmark.setAttribute("href", "#" + backwardNoteLink);
         bookmark.setTextContent(textIndex);
-        bookmark.setAttribute("class", textIndexClass + " " + type
-                + "noteindex");
+        htmlDocumentFacade.addStyleClass(bookmark, "a", textIndexStyle);
+        appendClass(bookmark, type + "noteindex");
         note.appendChild(bookmark);
         note.appendChild(htmlDocumentFacade.createText(" "));
 
@@ -527,8 +536,7 @@ public class WordToHtmlConverter extends AbstractWordConverter {
         Element tableHeader = htmlDocumentFacade.createTableHeader();
         Element tableBody = htmlDocumentFacade.createTableBody();
 
-        final int[] tableCellEdges = WordToHtmlUtils
-                .buildTableCellEdgesArray(table);
+        final TableGrid tableGrid = new TableGrid(table);
         final int tableRows = table.numRows();
 
         int maxColumns = Integer.MIN_VALUE;
@@ -543,16 +551,12 @@ public class WordToHtmlConverter extends AbstractWordConverter {
             StringBuilder tableRowStyle = new StringBuilder();
             WordToHtmlUtils.addTableRowProperties(tableRow, tableRowStyle);
 
-            // index of current element in tableCellEdges[]
-            int currentEdgeIndex = 0;
             final int rowCells = tableRow.numCells();
             for (int c = 0; c < rowCells; c++) {
                 TableCell tableCell = tableRow.getCell(c);
 
                 if (tableCell.isVerticallyMerged()
                         && !tableCell.isFirstVerticallyMerged()) {
-                    currentEdgeIndex += getNumberColumnsSpanned(
-                            tableCellEdges, currentEdgeIndex, tableCell);
                     continue;
                 }
 
@@ -568,9 +572,7 @@ public class WordToHtmlConverter extends AbstractWordConverter {
                         r == 0, r == tableRows - 1, c == 0, c == rowCells - 1,
                         tableCellStyle);
 
-                int colSpan = getNumberColumnsSpanned(tableCellEdges,
-                        currentEdgeIndex, tableCell);
-                currentEdgeIndex += colSpan;
+                int colSpan = tableGrid.getColSpan(r, c);
 
                 if (colSpan == 0)
                     continue;
@@ -579,8 +581,7 @@ public class WordToHtmlConverter extends AbstractWordConverter {
                     tableCellElement.setAttribute("colspan",
                             String.valueOf(colSpan));
 
-                final int rowSpan = getNumberRowsSpanned(table,
-                        tableCellEdges, r, c, tableCell);
+                final int rowSpan = tableGrid.getRowSpan(r, c);
                 if (rowSpan > 1)
                     tableCellElement.setAttribute("rowspan",
                             String.valueOf(rowSpan));
@@ -601,8 +602,8 @@ public class WordToHtmlConverter extends AbstractWordConverter {
             }
 
             if (tableRowStyle.length() > 0)
-                tableRowElement.setAttribute("class", htmlDocumentFacade
-                        .getOrCreateCssClass("r", tableRowStyle.toString()));
+                htmlDocumentFacade.addStyleClass(tableRowElement, "r",
+                        tableRowStyle.toString());
 
             if (tableRow.isTableHeader()) {
                 tableHeader.appendChild(tableRowElement);
@@ -612,12 +613,8 @@ public class WordToHtmlConverter extends AbstractWordConverter {
         }
 
         final Element tableElement = htmlDocumentFacade.createTable();
-        tableElement
-                .setAttribute(
-                        "class",
-                        htmlDocumentFacade
-                                .getOrCreateCssClass("t",
-                                        "table-layout:fixed;border-collapse:collapse;border-spacing:0;"));
+        htmlDocumentFacade.addStyleClass(tableElement, "t",
+                "table-layout:fixed;border-collapse:collapse;border-spacing:0;");
         if (tableHeader.hasChildNodes()) {
             tableElement.appendChild(tableHeader);
         }
@@ -0,0 +1,198 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import org.apache.poi.hwpf.HWPFDocumentCore;
+import org.apache.poi.hwpf.usermodel.Paragraph;
+import org.apache.poi.hwpf.usermodel.Section;
+import org.apache.poi.hwpf.usermodel.Table;
+import org.apache.poi.util.Beta;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.FileWriter;
+
+/**
+ * Converts Word files (95-2007) into HTML written to a {@link ContentHandler}
+ * while the document is processed, instead of building the whole HTML DOM
+ * first.
+ * <p>
+ * Each paragraph or table is still built as a DOM subtree, as
+ * {@link WordToHtmlConverter} does, but it is written out and dropped as soon
+ * as the next one is started, so memory is bounded by the largest table
+ * rather than the whole document. Styles are written inline (see
+ * {@link InlineStylesHtmlDocumentFacade}), as the document head has to be
+ * written before any of them are known. Notes are kept until
+ * {@link #finish()}.
+ * <p>
+ * Title and meta information have to be set before the first paragraph is
+ * written; in practice only the first processed document contributes them.
+ * An <tt>XMLStreamWriter</tt>-based output can be used through a
+ * {@link TransformerHandler} with a <tt>StAXResult</tt>.
+ */
+@Beta
+public class WordToHtmlStreamConverter extends WordToHtmlConverter {
+    private final HtmlDocumentFacade htmlDocumentFacade;
+
+    private final DomStreamer streamer;
+
+    /**
+     * Creates new instance of {@link WordToHtmlStreamConverter}. Can be used
+     * for output several {@link org.apache.poi.hwpf.HWPFDocument}s into single
+     * HTML document.
+     *
+     * @param contentHandler receives the HTML document
+     * @throws ParserConfigurationException if an internal {@link DocumentBuilder} cannot be created
+     */
+    public WordToHtmlStreamConverter(ContentHandler contentHandler)
+            throws ParserConfigurationException {
+        this(new InlineStylesHtmlDocumentFacade(DocumentBuilderFactory
+                .newInstance().newDocumentBuilder().newDocument()),
+                contentHandler);
+    }
+
+    private WordToHtmlStreamConverter(HtmlDocumentFacade htmlDocumentFacade,
+                                      ContentHandler contentHandler) {
+        super(htmlDocumentFacade);
+        this.htmlDocumentFacade = htmlDocumentFacade;
+        this.streamer = new DomStreamer(htmlDocumentFacade.getDocument(),
+                contentHandler);
+    }
+
+    /**
+     * Java main() interface to interact with {@link WordToHtmlStreamConverter}
+     * <p>
+     * <p>
+     * Usage: WordToHtmlStreamConverter infile outfile
+     * </p>
+     * Where infile is an input .doc file ( Word 95-2007) which will be rendered
+     * as HTML into outfile
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err
+                    .println("Usage: WordToHtmlStreamConverter <inputFile.doc> <saveTo.html>");
+            return;
+        }
+
+        System.out.println("Converting " + args[0]);
+        System.out.println("Saving output to " + args[1]);
+        try {
+            final HWPFDocumentCore wordDocument = WordToHtmlUtils
+                    .loadDoc(new File(args[0]));
+
+            FileWriter out = new FileWriter(args[1]);
+            SAXTransformerFactory tf = (SAXTransformerFactory) TransformerFactory
+                    .newInstance();
+            TransformerHandler handler = tf.newTransformerHandler();
+            Transformer serializer = handler.getTransformer();
+            // TODO set encoding from a command argument
+            serializer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            serializer.setOutputProperty(OutputKeys.INDENT, "yes");
+            serializer.setOutputProperty(OutputKeys.METHOD, "html");
+            handler.setResult(new StreamResult(out));
+
+            WordToHtmlStreamConverter converter = new WordToHtmlStreamConverter(
+                    handler);
+            converter.processDocument(wordDocument);
+            converter.finish();
+            out.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    protected void afterProcess() {
+        // notes are written by finish()
+    }
+
+    /**
+     * Writes the notes and the rest of the document and ends it. Call once
+     * after the last document or part was processed.
+     */
+    public void finish() throws SAXException {
+        super.afterProcess();
+        streamer.finish();
+    }
+
+    /**
+     * @return <code>null</code>, as the document is written out while it is
+     * built
+     */
+    @Override
+    public Document getDocument() {
+        return null;
+    }
+
+    private void flushCompleted(Element parent) {
+        try {
+            streamer.flushCompleted(parent);
+        } catch (SAXException exc) {
+            throw new IllegalStateException("Unable to write HTML", exc);
+        }
+    }
+
+    @Override
+    protected void processParagraph(HWPFDocumentCore hwpfDocument,
+                                    Element parentElement, int currentTableLevel, Paragraph paragraph,
+                                    String bulletText) {
+        super.processParagraph(hwpfDocument, parentElement, currentTableLevel,
+                paragraph, bulletText);
+        flushCompleted(parentElement);
+    }
+
+    @Override
+    protected void processSection(HWPFDocumentCore wordDocument,
+                                  Section section, int sectionCounter) {
+        super.processSection(wordDocument, section, sectionCounter);
+
+        try {
+            streamer.close((Element) htmlDocumentFacade.getBody()
+                    .getLastChild());
+        } catch (SAXException exc) {
+            throw new IllegalStateException("Unable to write HTML", exc);
+        }
+    }
+
+    @Override
+    protected void processSingleSection(HWPFDocumentCore wordDocument,
+                                        Section section) {
+        super.processSingleSection(wordDocument, section);
+        flushCompleted(htmlDocumentFacade.getBody());
+    }
+
+    @Override
+    protected void processTable(HWPFDocumentCore hwpfDocument, Element flow,
+                                Table table) {
+        super.processTable(hwpfDocument, flow, table);
+        flushCompleted(flow);
+    }
+}
@@ -0,0 +1,424 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import org.apache.poi.hpsf.SummaryInformation;
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.HWPFDocumentCore;
+import org.apache.poi.hwpf.usermodel.*;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.Entry;
+import org.apache.poi.util.Beta;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Same as {@link WordToTextConverter}, but writes the text straight to an
+ * {@link Appendable} while the document is visited instead of building a DOM
+ * and serializing it afterwards. Output is the same as
+ * {@link WordToTextConverter#getText()}, including the way its text
+ * serializer writes line feeds, NUL characters and broken surrogate pairs.
+ * <p>
+ * Notes are collected while processing and written by {@link #finish()},
+ * after everything else, as {@link WordToTextConverter} puts them at the end
+ * of the document. Summary information is written when it is met, so with
+ * several documents only the first one's comes first.
+ * <p>
+ * No DOM is built; all <code>Element</code> arguments are <code>null</code>.
+ */
+@Beta
+public class WordToTextStreamConverter extends AbstractWordConverter {
+    private static final POILogger logger = POILogFactory
+            .getLogger(WordToTextStreamConverter.class);
+
+    private final Appendable out;
+
+    private final String lineSeparator = System.getProperty("line.separator",
+            "\n");
+
+    private int noteCounters = 1;
+
+    /**
+     * Notes, each as the text pieces of its block
+     */
+    private final List<List<String>> notes = new ArrayList<List<String>>();
+
+    /**
+     * Note being processed, or <code>null</code> while writing to the output
+     */
+    private List<String> currentNote;
+
+    private boolean outputSummaryInformation = false;
+
+    /**
+     * Surrogate at the end of a previous piece of text, not written yet
+     */
+    private char pendingSurrogate;
+
+    public WordToTextStreamConverter(Appendable out) {
+        this.out = out;
+    }
+
+    public static String getText(DirectoryNode root) throws Exception {
+        final HWPFDocumentCore wordDocument = AbstractWordUtils.loadDoc(root);
+        return getText(wordDocument);
+    }
+
+    public static String getText(File docFile) throws Exception {
+        final HWPFDocumentCore wordDocument = AbstractWordUtils
+                .loadDoc(docFile);
+        return getText(wordDocument);
+    }
+
+    public static String getText(final HWPFDocumentCore wordDocument)
+            throws Exception {
+        StringBuilder text = new StringBuilder();
+        WordToTextStreamConverter converter = new WordToTextStreamConverter(
+                text);
+        converter.processDocument(wordDocument);
+        converter.finish();
+        return text.toString();
+    }
+
+    /**
+     * Writes the collected notes. Call once after the last document or part
+     * was processed.
+     */
+    public void finish() throws IOException {
+        for (List<String> note : notes) {
+            for (String text : note) {
+                write(text);
+            }
+        }
+        notes.clear();
+        pendingSurrogate = 0;
+    }
+
+    /**
+     * @return <code>null</code>, as no DOM is built
+     */
+    @Override
+    public Document getDocument() {
+        return null;
+    }
+
+    private boolean isOutputSummaryInformation() {
+        return outputSummaryInformation;
+    }
+
+    public void setOutputSummaryInformation(boolean outputDocumentInformation) {
+        this.outputSummaryInformation = outputDocumentInformation;
+    }
+
+    /**
+     * Outputs one piece of text, where {@link WordToTextConverter} creates a
+     * text node
+     */
+    private void output(String text) {
+        if (currentNote != null) {
+            currentNote.add(text);
+            return;
+        }
+
+        try {
+            write(text);
+        } catch (IOException exc) {
+            throw new IllegalStateException("Unable to write text", exc);
+        }
+    }
+
+    /**
+     * Writes text the way the text output method of the JRE serializer does,
+     * including what it makes of broken surrogate pairs
+     */
+    private void write(String text) throws IOException {
+        final int length = text.length();
+        int from = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c == '\n') {
+                out.append(text, from, i);
+                out.append(lineSeparator);
+            } else if (c == 0) {
+                out.append(text, from, i);
+                out.append("&#0;");
+            } else if (Character.isSurrogate(c)) {
+                out.append(text, from, i);
+                if (i + 1 == length) {
+                    // paired with the first surrogate of the next piece
+                    pendingSurrogate = c;
+                    return;
+                }
+
+                final boolean pairInPiece = pendingSurrogate == 0;
+                final char high = pairInPiece ? c : pendingSurrogate;
+                final char low = pairInPiece ? text.charAt(i + 1) : c;
+                pendingSurrogate = 0;
+
+                if (!Character.isLowSurrogate(low))
+                    throw new IOException("Invalid UTF-16 surrogate detected: "
+                            + Integer.toHexString(high) + " "
+                            + Integer.toHexString(low) + " ?");
+
+                if (Character.isHighSurrogate(high)) {
+                    out.append(high);
+                    out.append(low);
+                    if (pairInPiece)
+                        i++;
+                } else {
+                    out.append("&#");
+                    out.append(Integer.toString(((high - 0xd800) << 10)
+                            + (low - 0xdc00) + 0x10000));
+                    out.append(';');
+                    if (Character.isHighSurrogate(c))
+                        i++;
+                }
+            } else {
+                continue;
+            }
+            from = i + 1;
+        }
+        out.append(text, from, length);
+    }
+
+    @Override
+    protected void outputCharacters(Element block, CharacterRun characterRun,
+                                    String text) {
+        output(text);
+    }
+
+    @Override
+    protected void processBookmarks(HWPFDocumentCore wordDocument,
+                                    Element currentBlock, Range range, int currentTableLevel,
+                                    List<Bookmark> rangeBookmarks) {
+        processCharacters(wordDocument, currentTableLevel, range, currentBlock);
+    }
+
+    @Override
+    protected void processDocumentInformation(
+            SummaryInformation summaryInformation) {
+        if (isOutputSummaryInformation()) {
+            // the title is never part of the text output
+            if (AbstractWordUtils.isNotEmpty(summaryInformation.getAuthor()))
+                outputMeta("Author", summaryInformation.getAuthor());
+
+            if (AbstractWordUtils
+                    .isNotEmpty(summaryInformation.getComments()))
+                outputMeta("Description", summaryInformation.getComments());
+
+            if (AbstractWordUtils
+                    .isNotEmpty(summaryInformation.getKeywords()))
+                outputMeta("Keywords", summaryInformation.getKeywords());
+        }
+    }
+
+    private void outputMeta(String name, String value) {
+        output(name + ": ");
+        output(value + "\n");
+    }
+
+    @Override
+    public void processDocumentPart(HWPFDocumentCore wordDocument, Range range) {
+        super.processDocumentPart(wordDocument, range);
+    }
+
+    @Override
+    protected void processDrawnObject(HWPFDocument doc,
+                                      CharacterRun characterRun, OfficeDrawing officeDrawing,
+                                      String path, Element block) {
+        // ignore
+    }
+
+    @Override
+    protected void processEndnoteAutonumbered(HWPFDocument wordDocument,
+                                              int noteIndex, Element block, Range endnoteTextRange) {
+        processNote(wordDocument, block, endnoteTextRange);
+    }
+
+    @Override
+    protected void processFootnoteAutonumbered(HWPFDocument wordDocument,
+                                               int noteIndex, Element block, Range footnoteTextRange) {
+        processNote(wordDocument, block, footnoteTextRange);
+    }
+
+    @Override
+    protected void processHyperlink(HWPFDocumentCore wordDocument,
+                                    Element currentBlock, Range textRange, int currentTableLevel,
+                                    String hyperlink) {
+        processCharacters(wordDocument, currentTableLevel, textRange,
+                currentBlock);
+
+        output(" ("
+                + UNICODECHAR_ZERO_WIDTH_SPACE
+                + hyperlink.replaceAll("\\/", UNICODECHAR_ZERO_WIDTH_SPACE
+                + "\\/" + UNICODECHAR_ZERO_WIDTH_SPACE)
+                + UNICODECHAR_ZERO_WIDTH_SPACE + ")");
+    }
+
+    @Override
+    protected void processImage(Element currentBlock, boolean inlined,
+                                Picture picture) {
+        // ignore
+    }
+
+    @Override
+    protected void processImage(Element currentBlock, boolean inlined,
+                                Picture picture, String url) {
+        // ignore
+    }
+
+    @Override
+    protected void processImageWithoutPicturesManager(Element currentBlock,
+                                                      boolean inlined, Picture picture) {
+        // ignore
+    }
+
+    @Override
+    protected void processLineBreak(Element block, CharacterRun characterRun) {
+        output("\n");
+    }
+
+    private void processNote(HWPFDocument wordDocument, Element block,
+                             Range noteTextRange) {
+        final int noteIndex = noteCounters++;
+        output(UNICODECHAR_ZERO_WIDTH_SPACE + "[" + noteIndex + "]"
+                + UNICODECHAR_ZERO_WIDTH_SPACE);
+
+        List<String> note = new ArrayList<String>();
+        notes.add(note);
+
+        List<String> parent = currentNote;
+        currentNote = note;
+        try {
+            output("^" + noteIndex + "\t ");
+            processCharacters(wordDocument, Integer.MIN_VALUE, noteTextRange,
+                    null);
+            output("\n");
+        } finally {
+            currentNote = parent;
+        }
+    }
+
+    @Override
+    protected boolean processOle2(HWPFDocument wordDocument, Element block,
+                                  Entry entry) throws Exception {
+        if (!(entry instanceof DirectoryNode))
+            return false;
+        DirectoryNode directoryNode = (DirectoryNode) entry;
+
+        /*
+         * even if there is no ExtractorFactory in classpath, still support
+         * included Word's objects
+         */
+        if (directoryNode.hasEntry("WordDocument")) {
+            String text = WordToTextStreamConverter
+                    .getText((DirectoryNode) entry);
+            output(UNICODECHAR_ZERO_WIDTH_SPACE + text
+                    + UNICODECHAR_ZERO_WIDTH_SPACE);
+            return true;
+        }
+
+        Object extractor;
+        try {
+            Class<?> cls = Class
+                    .forName("org.apache.poi.extractor.ExtractorFactory");
+            Method createExtractor = cls.getMethod("createExtractor",
+                    DirectoryNode.class);
+            extractor = createExtractor.invoke(null, directoryNode);
+        } catch (Error exc) {
+            // no extractor in classpath
+            logger.log(POILogger.WARN, "There is an OLE object entry '",
+                    entry.getName(),
+                    "', but there is no text extractor for this object type ",
+                    "or text extractor factory is not available: ", "" + exc);
+            return false;
+        }
+
+        try {
+            Method getText = extractor.getClass().getMethod("getText");
+            String text = (String) getText.invoke(extractor);
+
+            output(UNICODECHAR_ZERO_WIDTH_SPACE + text
+                    + UNICODECHAR_ZERO_WIDTH_SPACE);
+            return true;
+        } catch (Exception exc) {
+            logger.log(POILogger.ERROR,
+                    "Unable to extract text from OLE entry '", entry.getName(),
+                    "': ", exc, exc);
+            return false;
+        }
+    }
+
+    @Override
+    protected void processPageBreak(HWPFDocumentCore wordDocument, Element flow) {
+        output("\n");
+    }
+
+    @Override
+    protected void processPageref(HWPFDocumentCore wordDocument,
+                                  Element currentBlock, Range textRange, int currentTableLevel,
+                                  String pageref) {
+        processCharacters(wordDocument, currentTableLevel, textRange,
+                currentBlock);
+    }
+
+    @Override
+    protected void processParagraph(HWPFDocumentCore wordDocument,
+                                    Element parentElement, int currentTableLevel, Paragraph paragraph,
+                                    String bulletText) {
+        output(bulletText);
+        processCharacters(wordDocument, currentTableLevel, paragraph, null);
+        output("\n");
+    }
+
+    @Override
+    protected void processSection(HWPFDocumentCore wordDocument,
+                                  Section section, int s) {
+        processParagraphes(wordDocument, null, section, Integer.MIN_VALUE);
+        output("\n");
+    }
+
+    protected void processTable(HWPFDocumentCore wordDocument, Element flow,
+                                Table table) {
+        final int tableRows = table.numRows();
+        for (int r = 0; r < tableRows; r++) {
+            TableRow tableRow = table.getRow(r);
+
+            final int rowCells = tableRow.numCells();
+            for (int c = 0; c < rowCells; c++) {
+                TableCell tableCell = tableRow.getCell(c);
+
+                if (c != 0)
+                    output("\t");
+
+                processCharacters(wordDocument, table.getTableLevel(),
+                        tableCell, null);
+            }
+
+            output("\n");
+        }
+    }
+}
@@ -0,0 +1,396 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.event;
+
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.model.CHPX;
+import org.apache.poi.hwpf.model.PAPX;
+import org.apache.poi.hwpf.model.PropertyNode;
+import org.apache.poi.hwpf.model.SEPX;
+import org.apache.poi.hwpf.model.StyleSheet;
+import org.apache.poi.hwpf.model.SubDocumentType;
+import org.apache.poi.hwpf.sprm.TableSprmUncompressor;
+import org.apache.poi.hwpf.usermodel.CharacterProperties;
+import org.apache.poi.hwpf.usermodel.Paragraph;
+import org.apache.poi.hwpf.usermodel.ParagraphProperties;
+import org.apache.poi.hwpf.usermodel.TableCellDescriptor;
+import org.apache.poi.hwpf.usermodel.TableProperties;
+import org.apache.poi.util.Beta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pushes the sections, table rows, cells, paragraphs and character runs of a
+ * Word document to a {@link HWPFParsingListener}, in one forward pass over
+ * the document's SEPX, PAPX and CHPX tables. Unlike the {@link
+ * org.apache.poi.hwpf.usermodel.Range} tree it creates no objects per
+ * paragraph or run: properties come from the document's caches and the text
+ * is passed as a reusable window over the document text.
+ * <p>
+ * Paragraphs marked as in a table without a nesting level are reported at
+ * level 1. Rows are found by looking ahead to their row end mark, whose
+ * properties describe the row and its cells.
+ */
+@Beta
+public final class HWPFEventParser {
+    private static final char TABLE_CELL_MARK = '\u0007';
+
+    private final HWPFDocument _document;
+
+    public HWPFEventParser(HWPFDocument document) {
+        _document = document;
+    }
+
+    /**
+     * Parses the main document
+     */
+    public void parse(HWPFParsingListener listener) {
+        parse(SubDocumentType.MAIN, listener);
+    }
+
+    /**
+     * Parses the given part of the document text. Sections are only
+     * reported for the main document.
+     */
+    public void parse(SubDocumentType subdocument, HWPFParsingListener listener) {
+        int start = 0;
+        for (SubDocumentType previous : SubDocumentType.ORDERED) {
+            int length = _document.getFileInformationBlock()
+                    .getSubdocumentTextStreamLength(previous);
+            if (previous == subdocument) {
+                new Pass(listener, start, start + length).parse(subdocument);
+                return;
+            }
+            start += length;
+        }
+        throw new UnsupportedOperationException(
+                "Subdocument type not supported: " + subdocument);
+    }
+
+    /**
+     * @return index of the first node ending after the given position
+     */
+    private static int findFirstEndingAfter(
+            List<? extends PropertyNode<?>> nodes, int position) {
+        int low = 0;
+        int high = nodes.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (nodes.get(middle).getEnd() <= position)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private static int getTableLevel(ParagraphProperties pap) {
+        if (!pap.getFInTable())
+            return 0;
+        return Math.max(1, pap.getItap());
+    }
+
+    private static boolean isTableRowEnd(ParagraphProperties pap) {
+        return pap.getFTtp() || pap.getFTtpEmbedded();
+    }
+
+    /**
+     * State of one call to {@link HWPFEventParser#parse}
+     */
+    private final class Pass {
+        private final HWPFParsingListener _listener;
+        private final int _start;
+        private final int _end;
+
+        private final List<PAPX> _paragraphs;
+        private final List<CHPX> _runs;
+        private final StyleSheet _styleSheet;
+        private final StringBuilder _text;
+        private final TextWindow _window;
+
+        /**
+         * Open rows by nesting level, index 0 unused; rows are reused
+         */
+        private final List<Row> _rows = new ArrayList<Row>();
+        private int _depth;
+
+        Pass(HWPFParsingListener listener, int start, int end) {
+            _listener = listener;
+            _start = start;
+            _end = end;
+            _paragraphs = _document.getParagraphTable().getParagraphs();
+            _runs = _document.getCharacterTable().getTextRuns();
+            _styleSheet = _document.getStyleSheet();
+            _text = _document.getText();
+            _window = new TextWindow(_text);
+            _rows.add(null);
+        }
+
+        void parse(SubDocumentType subdocument) {
+            List<SEPX> sections = subdocument == SubDocumentType.MAIN ? _document
+                    .getSectionTable().getSections() : Collections
+                    .<SEPX>emptyList();
+            int s = findFirstEndingAfter(sections, _start);
+            SEPX section = null;
+
+            int c = findFirstEndingAfter(_runs, _start);
+            for (int p = findFirstEndingAfter(_paragraphs, _start); p < _paragraphs
+                    .size(); p++) {
+                PAPX papx = _paragraphs.get(p);
+                int start = Math.max(papx.getStart(), _start);
+                int end = Math.min(papx.getEnd(), _end);
+                if (start >= _end)
+                    break;
+                if (start >= end)
+                    continue;
+
+                if (section != null && start >= section.getEnd()) {
+                    closeRows(0);
+                    endSection(section);
+                    section = null;
+                }
+                while (section == null && s < sections.size()
+                        && sections.get(s).getStart() <= start) {
+                    SEPX next = sections.get(s++);
+                    if (next.getEnd() > start) {
+                        section = next;
+                        _listener.startSection(section.getSectionProperties(),
+                                Math.max(section.getStart(), _start),
+                                Math.min(section.getEnd(), _end));
+                    }
+                }
+
+                ParagraphProperties pap = Paragraph.getSharedProperties(
+                        _document, papx);
+                int level = getTableLevel(pap);
+                boolean rowEnd = level > 0 && isTableRowEnd(pap);
+
+                // rows left without their row end mark are closed here
+                closeRows(level);
+                while (_depth < level) {
+                    openRow(_depth + 1, p, start);
+                }
+                for (int l = 1; l <= level; l++) {
+                    Row row = _rows.get(l);
+                    if (!row._cellOpen && !(l == level && rowEnd))
+                        row.openCell();
+                }
+
+                _listener.startParagraph(pap, start, end);
+                while (c < _runs.size() && _runs.get(c).getEnd() <= start)
+                    c++;
+                for (int r = c; r < _runs.size(); r++) {
+                    CHPX chpx = _runs.get(r);
+                    if (chpx.getStart() >= end)
+                        break;
+                    int runStart = Math.max(start, chpx.getStart());
+                    int runEnd = Math.min(end, chpx.getEnd());
+                    if (runStart >= runEnd)
+                        continue;
+
+                    CharacterProperties chp = chpx
+                            .getSharedCharacterProperties(_styleSheet,
+                                    papx.getIstd());
+                    _window.set(runStart, runEnd);
+                    _listener.characterRun(chp, _window, runStart, runEnd);
+                }
+                _listener.endParagraph(pap, start, end);
+
+                if (level > 0) {
+                    Row row = _rows.get(level);
+                    if (rowEnd) {
+                        closeRows(level - 1);
+                    } else if (row._cellOpen && isCellMark(pap, end)) {
+                        row.closeCell();
+                    }
+                }
+            }
+
+            closeRows(0);
+            if (section != null)
+                endSection(section);
+        }
+
+        private void endSection(SEPX section) {
+            _listener.endSection(section.getSectionProperties(),
+                    Math.max(section.getStart(), _start),
+                    Math.min(section.getEnd(), _end));
+        }
+
+        private boolean isCellMark(ParagraphProperties pap, int end) {
+            return _text.charAt(end - 1) == TABLE_CELL_MARK
+                    || pap.getFInnerTableCell();
+        }
+
+        /**
+         * Closes the rows nested deeper than the given level
+         */
+        private void closeRows(int level) {
+            while (_depth > level) {
+                Row row = _rows.get(_depth);
+                if (row._cellOpen)
+                    row.closeCell();
+                _listener.endTableRow(row._tap, _depth, row._start, row._end);
+                _depth--;
+            }
+        }
+
+        /**
+         * Looks ahead for the end mark of the row starting at the given
+         * paragraph, collecting the bounds of its cells on the way.
+         */
+        private void openRow(int level, int firstParagraph, int start) {
+            if (_rows.size() <= level)
+                _rows.add(new Row(level));
+            Row row = _rows.get(level);
+            row.reset(start);
+
+            PAPX rowEndPapx = null;
+            for (int p = firstParagraph; p < _paragraphs.size(); p++) {
+                PAPX papx = _paragraphs.get(p);
+                if (papx.getStart() >= _end)
+                    break;
+                ParagraphProperties pap = Paragraph.getSharedProperties(
+                        _document, papx);
+                int paragraphLevel = getTableLevel(pap);
+                if (paragraphLevel < level)
+                    break;
+
+                int end = Math.min(papx.getEnd(), _end);
+                row._end = end;
+                if (paragraphLevel == level) {
+                    if (isTableRowEnd(pap)) {
+                        rowEndPapx = papx;
+                        break;
+                    }
+                    if (isCellMark(pap, end))
+                        row.addCellEnd(end);
+                }
+            }
+
+            row._tap = rowEndPapx != null ? TableSprmUncompressor
+                    .uncompressTAP(rowEndPapx.getSprmBuf())
+                    : new TableProperties();
+            _depth = level;
+            _listener.startTableRow(row._tap, level, row._start, row._end);
+        }
+
+        private final class Row {
+            private final int _level;
+            TableProperties _tap;
+            int _start;
+            int _end;
+
+            private int[] _cellEnds = new int[16];
+            private int _cellsCount;
+
+            /**
+             * Index of the current or next cell
+             */
+            private int _cell;
+            boolean _cellOpen;
+            private int _cellStart;
+            private TableCellDescriptor _tc;
+
+            Row(int level) {
+                _level = level;
+            }
+
+            void reset(int start) {
+                _start = start;
+                _end = start;
+                _cellsCount = 0;
+                _cell = 0;
+                _cellOpen = false;
+                _cellStart = start;
+            }
+
+            void addCellEnd(int end) {
+                if (_cellsCount == _cellEnds.length) {
+                    int[] cellEnds = new int[_cellEnds.length * 2];
+                    System.arraycopy(_cellEnds, 0, cellEnds, 0, _cellsCount);
+                    _cellEnds = cellEnds;
+                }
+                _cellEnds[_cellsCount++] = end;
+            }
+
+            private int getCellEnd() {
+                // a cell without its mark ends with the row
+                return _cell < _cellsCount ? _cellEnds[_cell] : _end;
+            }
+
+            void openCell() {
+                TableCellDescriptor[] rgtc = _tap.getRgtc();
+                _tc = rgtc != null && rgtc.length > _cell ? rgtc[_cell]
+                        : new TableCellDescriptor();
+                _cellStart = _cell > 0 && _cell - 1 < _cellsCount ? _cellEnds[_cell - 1]
+                        : _start;
+                _cellOpen = true;
+                _listener.startTableCell(_tc, _level, _cell, _cellStart,
+                        getCellEnd());
+            }
+
+            void closeCell() {
+                _listener.endTableCell(_tc, _level, _cell, _cellStart,
+                        getCellEnd());
+                _cellOpen = false;
+                _cell++;
+            }
+        }
+    }
+
+    /**
+     * Reusable view of a part of the document text
+     */
+    private static final class TextWindow implements CharSequence {
+        private final StringBuilder _text;
+        private int _start;
+        private int _end;
+
+        TextWindow(StringBuilder text) {
+            _text = text;
+        }
+
+        void set(int start, int end) {
+            _start = start;
+            _end = end;
+        }
+
+        public char charAt(int index) {
+            if (index < 0 || index >= _end - _start)
+                throw new IndexOutOfBoundsException("Index " + index
+                        + " out of [0; " + (_end - _start) + ")");
+            return _text.charAt(_start + index);
+        }
+
+        public int length() {
+            return _end - _start;
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return _text.substring(_start, _end);
+        }
+    }
+}
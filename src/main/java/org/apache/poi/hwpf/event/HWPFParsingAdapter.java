@@ -0,0 +1,62 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.event;
+
+import org.apache.poi.hwpf.usermodel.CharacterProperties;
+import org.apache.poi.hwpf.usermodel.ParagraphProperties;
+import org.apache.poi.hwpf.usermodel.SectionProperties;
+import org.apache.poi.hwpf.usermodel.TableCellDescriptor;
+import org.apache.poi.hwpf.usermodel.TableProperties;
+
+/**
+ * {@link HWPFParsingListener} ignoring all events, to be extended by
+ * listeners interested in a few of them.
+ */
+public abstract class HWPFParsingAdapter implements HWPFParsingListener {
+    public void startSection(SectionProperties sep, int start, int end) {
+    }
+
+    public void endSection(SectionProperties sep, int start, int end) {
+    }
+
+    public void startTableRow(TableProperties tap, int level, int start,
+                              int end) {
+    }
+
+    public void endTableRow(TableProperties tap, int level, int start,
+                            int end) {
+    }
+
+    public void startTableCell(TableCellDescriptor tc, int level, int index,
+                               int start, int end) {
+    }
+
+    public void endTableCell(TableCellDescriptor tc, int level, int index,
+                             int start, int end) {
+    }
+
+    public void startParagraph(ParagraphProperties pap, int start, int end) {
+    }
+
+    public void endParagraph(ParagraphProperties pap, int start, int end) {
+    }
+
+    public void characterRun(CharacterProperties chp, CharSequence text,
+                             int start, int end) {
+    }
+}
@@ -0,0 +1,70 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.event;
+
+import org.apache.poi.hwpf.usermodel.CharacterProperties;
+import org.apache.poi.hwpf.usermodel.ParagraphProperties;
+import org.apache.poi.hwpf.usermodel.SectionProperties;
+import org.apache.poi.hwpf.usermodel.TableCellDescriptor;
+import org.apache.poi.hwpf.usermodel.TableProperties;
+
+/**
+ * Receives the structure of a Word document from {@link HWPFEventParser} in
+ * character position order. Start and end events are properly nested:
+ * sections contain table rows and paragraphs, rows contain cells, and cells
+ * contain paragraphs or the rows of nested tables. The paragraph holding the
+ * row end mark is reported inside its row, after the last cell.
+ * <p>
+ * All positions are character positions in the document text, end
+ * exclusive. Properties are shared with the document's caches and must not
+ * be changed.
+ */
+public interface HWPFParsingListener {
+    void startSection(SectionProperties sep, int start, int end);
+
+    void endSection(SectionProperties sep, int start, int end);
+
+    /**
+     * @param tap   properties of the row, taken from its row end mark
+     * @param level table nesting level, starting at 1
+     */
+    void startTableRow(TableProperties tap, int level, int start, int end);
+
+    void endTableRow(TableProperties tap, int level, int start, int end);
+
+    /**
+     * @param tc    descriptor of the cell from the row properties
+     * @param index index of the cell in its row
+     */
+    void startTableCell(TableCellDescriptor tc, int level, int index,
+                        int start, int end);
+
+    void endTableCell(TableCellDescriptor tc, int level, int index,
+                      int start, int end);
+
+    void startParagraph(ParagraphProperties pap, int start, int end);
+
+    void endParagraph(ParagraphProperties pap, int start, int end);
+
+    /**
+     * @param text the text of the run; it is only valid during this call,
+     *             use <code>text.toString()</code> to keep it
+     */
+    void characterRun(CharacterProperties chp, CharSequence text, int start,
+                      int end);
+}
@@ -19,7 +19,7 @@ package org.apache.poi.hwpf.extractor;
 
 import org.apache.poi.POIOLE2TextExtractor;
 import org.apache.poi.hwpf.HWPFOldDocument;
-import org.apache.poi.hwpf.converter.WordToTextConverter;
+import org.apache.poi.hwpf.converter.WordToTextStreamConverter;
 import org.apache.poi.hwpf.usermodel.Range;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
@@ -113,9 +113,7 @@ public final class Word6Extractor extends POIOLE2TextExtractor {
 
     public String getText() {
         try {
-            WordToTextConverter wordToTextConverter = new WordToTextConverter();
-            wordToTextConverter.processDocument(doc);
-            return wordToTextConverter.getText();
+            return WordToTextStreamConverter.getText(doc);
         } catch (Exception exc) {
             // fall-back
             StringBuilder text = new StringBuilder();
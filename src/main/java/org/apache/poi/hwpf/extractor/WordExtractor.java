@@ -19,10 +19,11 @@ package org.apache.poi.hwpf.extractor;
 
 import org.apache.poi.POIOLE2TextExtractor;
 import org.apache.poi.hwpf.HWPFDocument;
-import org.apache.poi.hwpf.converter.WordToTextConverter;
+import org.apache.poi.hwpf.converter.WordToTextStreamConverter;
 import org.apache.poi.hwpf.usermodel.HeaderStories;
 import org.apache.poi.hwpf.usermodel.Paragraph;
 import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.hwpf.usermodel.TextNormalizer;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 
@@ -39,6 +40,16 @@ import java.io.InputStream;
  * @author Nick Burch
  */
 public final class WordExtractor extends POIOLE2TextExtractor {
+    /**
+     * Fixes line endings of the text pieces, leaving fields alone
+     */
+    private static final TextNormalizer PIECES_NORMALIZER = new TextNormalizer();
+
+    static {
+        PIECES_NORMALIZER.setStripFields(false);
+        PIECES_NORMALIZER.setFixLineEndings(true);
+    }
+
     private HWPFDocument doc;
 
     /**
@@ -237,26 +248,19 @@ public final class WordExtractor extends POIOLE2TextExtractor {
      * broken. Fast too.
      */
     public String getTextFromPieces() {
-        String text = doc.getDocumentText();
-
         // Fix line endings (Note - won't get all of them
-        text = text.replaceAll("\r\r\r", "\r\n\r\n\r\n");
-        text = text.replaceAll("\r\r", "\r\n\r\n");
-
-        if (text.endsWith("\r")) {
-            text += "\n";
-        }
-
-        return text;
+        return PIECES_NORMALIZER.normalize(doc.getText());
     }
 
     /**
-     * Grab the text, based on the WordToTextConverter. Shouldn't include any
-     * crud, but slower than getTextFromPieces().
+     * Grab the text, based on the WordToTextStreamConverter. Shouldn't include
+     * any crud, but slower than getTextFromPieces().
      */
     public String getText() {
         try {
-            WordToTextConverter wordToTextConverter = new WordToTextConverter();
+            StringBuilder text = new StringBuilder();
+            WordToTextStreamConverter wordToTextConverter = new WordToTextStreamConverter(
+                    text);
 
             HeaderStories hs = new HeaderStories(doc);
 
@@ -284,7 +288,8 @@ public final class WordExtractor extends POIOLE2TextExtractor {
                 wordToTextConverter.processDocumentPart(doc,
                         hs.getOddFooterSubrange());
 
-            return wordToTextConverter.getText();
+            wordToTextConverter.finish();
+            return text.toString();
         } catch (Exception exc) {
             throw new RuntimeException(exc);
         }
@@ -46,6 +46,18 @@ public class CHPBinTable {
      */
     protected ArrayList<CHPX> _textRuns = new ArrayList<CHPX>();
 
+    /**
+     * Positions of the character runs, built on first use and dropped whenever
+     * they change
+     */
+    private PropertyNodeIndex _index;
+
+    /**
+     * Special character runs, built on first use and dropped together with
+     * {@link #_index}
+     */
+    private PictureRunIndex _pictureRunIndex;
+
     public CHPBinTable() {
     }
 
@@ -102,26 +114,8 @@ public class CHPBinTable {
         }
     }
 
-    private static int binarySearch(List<CHPX> chpxs, int startPosition) {
-        int low = 0;
-        int high = chpxs.size() - 1;
-
-        while (low <= high) {
-            int mid = (low + high) >>> 1;
-            CHPX midVal = chpxs.get(mid);
-            int midValue = midVal.getStart();
-
-            if (midValue < startPosition)
-                low = mid + 1;
-            else if (midValue > startPosition)
-                high = mid - 1;
-            else
-                return mid; // key found
-        }
-        return -(low + 1); // key not found.
-    }
-
     public void rebuild(ComplexFileTable complexFileTable) {
+        invalidateIndex();
         long start = System.currentTimeMillis();
 
         if (complexFileTable != null) {
@@ -174,80 +168,76 @@ public class CHPBinTable {
             start = System.currentTimeMillis();
         }
 
-        List<CHPX> oldChpxSortedByStartPos = new ArrayList<>(_textRuns);
-        Collections.sort(oldChpxSortedByStartPos,
-                PropertyNode.StartComparator.instance);
-
-        logger.log(POILogger.DEBUG, "CHPX sorted by start position in ",
-                System.currentTimeMillis() - start, " ms");
-        start = System.currentTimeMillis();
-
-        final Map<CHPX, Integer> chpxToFileOrder = new IdentityHashMap<>();
-        {
-            int counter = 0;
-            for (CHPX chpx : _textRuns) {
-                chpxToFileOrder.put(chpx, counter++);
-            }
+        final int size = _textRuns.size();
+        final int[] starts = new int[size];
+        final int[] ends = new int[size];
+        for (int i = 0; i < size; i++) {
+            CHPX chpx = _textRuns.get(i);
+            starts[i] = chpx.getStart();
+            ends[i] = chpx.getEnd();
         }
-        final Comparator<CHPX> chpxFileOrderComparator = (o1, o2) -> {
-            Integer i1 = chpxToFileOrder.get(o1);
-            Integer i2 = chpxToFileOrder.get(o2);
-            return i1.compareTo(i2);
-        };
 
-        logger.log(POILogger.DEBUG, "CHPX's order map created in ",
+        // positions in the high and file order in the low half of each key,
+        // so that sorting the keys sorts the CHPX stably by position
+        final long[] byStart = sortByPosition(starts);
+        final long[] byEnd = sortByPosition(ends);
+
+        logger.log(POILogger.DEBUG, "CHPX sorted by start and end position in ",
                 System.currentTimeMillis() - start, " ms");
         start = System.currentTimeMillis();
 
-        List<Integer> textRunsBoundariesList;
-        {
-            Set<Integer> textRunsBoundariesSet = new HashSet<>();
-            for (CHPX chpx : _textRuns) {
-                textRunsBoundariesSet.add(chpx.getStart());
-                textRunsBoundariesSet.add(chpx.getEnd());
-            }
-            textRunsBoundariesSet.remove(0);
-            textRunsBoundariesList = new ArrayList<>(
-                    textRunsBoundariesSet);
-            Collections.sort(textRunsBoundariesList);
+        int[] boundaries = new int[size * 2];
+        System.arraycopy(starts, 0, boundaries, 0, size);
+        System.arraycopy(ends, 0, boundaries, size, size);
+        Arrays.sort(boundaries);
+        int boundariesCount = 0;
+        for (int i = 0; i < boundaries.length; i++) {
+            int boundary = boundaries[i];
+            if (boundary == 0
+                    || (boundariesCount > 0 && boundaries[boundariesCount - 1] == boundary))
+                continue;
+            boundaries[boundariesCount++] = boundary;
         }
 
         logger.log(POILogger.DEBUG, "Texts CHPX boundaries collected in ",
                 System.currentTimeMillis() - start, " ms");
         start = System.currentTimeMillis();
 
-        List<CHPX> newChpxs = new LinkedList<>();
+        /*
+         * Sweep over the boundaries, keeping the CHPX which cover the current
+         * text run in file order
+         */
+        final int[] active = new int[size];
+        final boolean[] isActive = new boolean[size];
+        int activeCount = 0;
+        int nextStart = 0;
+        int nextEnd = 0;
+
+        ArrayList<CHPX> newChpxs = new ArrayList<CHPX>(boundariesCount);
         int lastTextRunStart = 0;
-        for (Integer objBoundary : textRunsBoundariesList) {
-            final int boundary = objBoundary;
+        for (int b = 0; b < boundariesCount; b++) {
+            final int boundary = boundaries[b];
 
             final int startInclusive = lastTextRunStart;
             lastTextRunStart = boundary;
 
-            int startPosition = binarySearch(oldChpxSortedByStartPos, boundary);
-            startPosition = Math.abs(startPosition);
-            while (startPosition >= oldChpxSortedByStartPos.size())
-                startPosition--;
-            while (startPosition > 0
-                    && oldChpxSortedByStartPos.get(startPosition).getStart() >= boundary)
-                startPosition--;
-
-            List<CHPX> chpxs = new LinkedList<>();
-            for (int c = startPosition; c < oldChpxSortedByStartPos.size(); c++) {
-                CHPX chpx = oldChpxSortedByStartPos.get(c);
-
-                if (boundary < chpx.getStart())
-                    break;
-
-                int left = Math.max(startInclusive, chpx.getStart());
-                int right = Math.min(boundary, chpx.getEnd());
-
-                if (left < right) {
-                    chpxs.add(chpx);
+            while (nextEnd < size && (int) (byEnd[nextEnd] >> 32) <= startInclusive) {
+                int fileOrder = (int) byEnd[nextEnd++];
+                if (isActive[fileOrder]) {
+                    activeCount = removeSorted(active, activeCount, fileOrder);
+                    isActive[fileOrder] = false;
+                }
+            }
+            while (nextStart < size && (int) (byStart[nextStart] >> 32) < boundary) {
+                int fileOrder = (int) byStart[nextStart++];
+                if (starts[fileOrder] < ends[fileOrder]
+                        && ends[fileOrder] > startInclusive) {
+                    activeCount = insertSorted(active, activeCount, fileOrder);
+                    isActive[fileOrder] = true;
                 }
             }
 
-            if (chpxs.size() == 0) {
+            if (activeCount == 0) {
                 logger.log(POILogger.WARN, "Text piece [",
                         startInclusive, "; ",
                         boundary,
@@ -259,9 +249,9 @@ public class CHPBinTable {
                 continue;
             }
 
-            if (chpxs.size() == 1) {
+            if (activeCount == 1) {
                 // can we reuse existing?
-                CHPX existing = chpxs.get(0);
+                CHPX existing = _textRuns.get(active[0]);
                 if (existing.getStart() == startInclusive
                         && existing.getEnd() == boundary) {
                     newChpxs.add(existing);
@@ -269,49 +259,75 @@ public class CHPBinTable {
                 }
             }
 
-            Collections.sort(chpxs, chpxFileOrderComparator);
-
             SprmBuffer sprmBuffer = new SprmBuffer(0);
-            for (CHPX chpx : chpxs) {
-                sprmBuffer.append(chpx.getGrpprl(), 0);
+            for (int a = 0; a < activeCount; a++) {
+                sprmBuffer.append(_textRuns.get(active[a]).getGrpprl(), 0);
             }
             CHPX newChpx = new CHPX(startInclusive, boundary, sprmBuffer);
             newChpxs.add(newChpx);
-
         }
-        this._textRuns = new ArrayList<>(newChpxs);
 
         logger.log(POILogger.DEBUG, "CHPX rebuilded in ",
                 System.currentTimeMillis() - start, " ms (",
-                _textRuns.size(), " elements)");
+                newChpxs.size(), " elements)");
         start = System.currentTimeMillis();
 
+        // getGrpprl() returns the sprm buffer itself, so comparing costs no
+        // copies
+        ArrayList<CHPX> compacted = new ArrayList<CHPX>(newChpxs.size());
         CHPX previous = null;
-        for (Iterator<CHPX> iterator = _textRuns.iterator(); iterator
-                .hasNext(); ) {
-            CHPX current = iterator.next();
-            if (previous == null) {
-                previous = current;
-                continue;
-            }
-
-            if (previous.getEnd() == current.getStart()
+        for (CHPX current : newChpxs) {
+            if (previous != null
+                    && previous.getEnd() == current.getStart()
                     && Arrays
                     .equals(previous.getGrpprl(), current.getGrpprl())) {
                 previous.setEnd(current.getEnd());
-                iterator.remove();
                 continue;
             }
 
+            compacted.add(current);
             previous = current;
         }
+        this._textRuns = compacted;
 
         logger.log(POILogger.DEBUG, "CHPX compacted in ",
                 System.currentTimeMillis() - start, " ms (",
                 _textRuns.size(), " elements)");
     }
 
+    /**
+     * @return the indexes of the given positions, sorted by position and
+     * index and packed below the positions themselves
+     */
+    static long[] sortByPosition(int[] positions) {
+        long[] keys = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            keys[i] = ((long) positions[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static int insertSorted(int[] values, int count, int value) {
+        int index = Arrays.binarySearch(values, 0, count, value);
+        if (index >= 0)
+            return count;
+        index = -(index + 1);
+        System.arraycopy(values, index, values, index + 1, count - index);
+        values[index] = value;
+        return count + 1;
+    }
+
+    private static int removeSorted(int[] values, int count, int value) {
+        int index = Arrays.binarySearch(values, 0, count, value);
+        if (index < 0)
+            return count;
+        System.arraycopy(values, index + 1, values, index, count - index - 1);
+        return count - 1;
+    }
+
     public void adjustForDelete(int listIndex, int offset, int length) {
+        invalidateIndex();
         int size = _textRuns.size();
         int endMark = offset + length;
         int endIndex = listIndex;
@@ -343,6 +359,7 @@ public class CHPBinTable {
     }
 
     public void insert(int listIndex, int cpStart, SprmBuffer buf) {
+        invalidateIndex();
 
         CHPX insertChpx = new CHPX(0, 0, buf);
 
@@ -376,6 +393,7 @@ public class CHPBinTable {
     }
 
     public void adjustForInsert(int listIndex, int length) {
+        invalidateIndex();
         int size = _textRuns.size();
         CHPX chpx = _textRuns.get(listIndex);
         chpx.setEnd(chpx.getEnd() + length);
@@ -387,6 +405,37 @@ public class CHPBinTable {
         }
     }
 
+    /**
+     * @return index of the current positions of the character runs
+     */
+    public PropertyNodeIndex getIndex() {
+        if (_index == null || _index.size() != _textRuns.size()) {
+            _index = new PropertyNodeIndex(_textRuns);
+        }
+        return _index;
+    }
+
+    /**
+     * @return index of the special character runs, see
+     * {@link PictureRunIndex}
+     */
+    public PictureRunIndex getPictureRunIndex() {
+        if (_pictureRunIndex == null
+                || !_pictureRunIndex.isBuiltFor(_textRuns.size())) {
+            _pictureRunIndex = new PictureRunIndex(_textRuns);
+        }
+        return _pictureRunIndex;
+    }
+
+    /**
+     * Drops the indexes after the character runs or their special character
+     * properties were changed directly
+     */
+    public void invalidateIndex() {
+        _index = null;
+        _pictureRunIndex = null;
+    }
+
     public List<CHPX> getTextRuns() {
         return _textRuns;
     }
@@ -21,6 +21,7 @@ import org.apache.poi.hwpf.sprm.CharacterSprmUncompressor;
 import org.apache.poi.hwpf.sprm.SprmBuffer;
 import org.apache.poi.hwpf.usermodel.CharacterProperties;
 import org.apache.poi.util.Internal;
+import org.apache.poi.util.LittleEndian;
 
 /**
  * DANGER - works in bytes!
@@ -68,6 +69,30 @@ public final class CHPX extends BytePropertyNode<CHPX> {
                 ss, baseStyle, getGrpprl(), 0);
     }
 
+    /**
+     * Same as {@link #getCharacterProperties(StyleSheet, short)}, but returns
+     * the instance interned in the style sheet's cache. It is shared with all
+     * runs formatted the same way and must be copied before being changed.
+     */
+    public CharacterProperties getSharedCharacterProperties(StyleSheet ss, short istd) {
+        if (ss == null) {
+            return getCharacterProperties(ss, istd);
+        }
+
+        byte[] grpprl = getGrpprl();
+        byte[] key = new byte[grpprl.length + 2];
+        LittleEndian.putShort(key, 0, istd);
+        System.arraycopy(grpprl, 0, key, 2, grpprl.length);
+
+        PropertiesCache<CharacterProperties> cache = ss.getCharacterPropertiesCache();
+        CharacterProperties properties = cache.get(key);
+        if (properties == null) {
+            properties = getCharacterProperties(ss, istd);
+            cache.put(key, properties);
+        }
+        return properties;
+    }
+
     public String toString() {
         return "CHPX from " + getStart() + " to " + getEnd() +
                 " (in bytes " + getStartBytes() + " to " + getEndBytes() + ")";
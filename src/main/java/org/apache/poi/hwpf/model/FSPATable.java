@@ -78,6 +78,10 @@ public final class FSPATable {
         return result.toArray(new FSPA[result.size()]);
     }
 
+    public int getShapesCount() {
+        return _byStart.size();
+    }
+
     public String toString() {
         StringBuffer buf = new StringBuffer();
         buf.append("[FPSA PLC size=").append(_byStart.size())
@@ -45,6 +45,12 @@ public class PAPBinTable {
 
     protected ArrayList<PAPX> _paragraphs = new ArrayList<>();
 
+    /**
+     * Positions of the paragraphs, built on first use and dropped whenever
+     * they change
+     */
+    private PropertyNodeIndex _index;
+
     public PAPBinTable() {
     }
 
@@ -97,6 +103,33 @@ public class PAPBinTable {
         }
     }
 
+    /**
+     * @return whether any paragraph refers to properties stored in the Data
+     * stream, i.e. the table was built without the Data stream and
+     * {@link #loadHugePapx(byte[])} has to be called
+     */
+    public boolean hasHugePapx() {
+        for (PAPX papx : _paragraphs) {
+            if (papx.isHuge())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Loads the properties of paragraphs which are too big for their FKP from
+     * the Data stream. Only needed if the table was built without the Data
+     * stream.
+     *
+     * @param dataStream content of the Data stream
+     */
+    public void loadHugePapx(byte[] dataStream) {
+        for (PAPX papx : _paragraphs) {
+            if (papx.isHuge())
+                papx.loadHuge(dataStream);
+        }
+    }
+
     static void rebuild(final StringBuilder docText,
                         ComplexFileTable complexFileTable, List<PAPX> paragraphs) {
         long start = System.currentTimeMillis();
@@ -147,34 +180,21 @@ public class PAPBinTable {
             start = System.currentTimeMillis();
         }
 
-        List<PAPX> oldPapxSortedByEndPos = new ArrayList<>(paragraphs);
-        Collections.sort(oldPapxSortedByEndPos,
-                PropertyNode.EndComparator.instance);
-
-        logger.log(POILogger.DEBUG, "PAPX sorted by end position in ",
-                System.currentTimeMillis() - start, " ms");
-        start = System.currentTimeMillis();
-
-        final Map<PAPX, Integer> papxToFileOrder = new IdentityHashMap<PAPX, Integer>();
-        {
-            int counter = 0;
-            for (PAPX papx : paragraphs) {
-                papxToFileOrder.put(papx, counter++);
-            }
+        final int size = paragraphs.size();
+        final int[] ends = new int[size];
+        for (int i = 0; i < size; i++) {
+            ends[i] = paragraphs.get(i).getEnd();
         }
-        final Comparator<PAPX> papxFileOrderComparator = new Comparator<PAPX>() {
-            public int compare(PAPX o1, PAPX o2) {
-                Integer i1 = papxToFileOrder.get(o1);
-                Integer i2 = papxToFileOrder.get(o2);
-                return i1.compareTo(i2);
-            }
-        };
+        // end positions in the high and file order in the low half of each
+        // key, so that sorting the keys sorts the PAPX stably by end
+        final long[] byEnd = CHPBinTable.sortByPosition(ends);
 
-        logger.log(POILogger.DEBUG, "PAPX's order map created in ",
+        logger.log(POILogger.DEBUG, "PAPX sorted by end position in ",
                 System.currentTimeMillis() - start, " ms");
         start = System.currentTimeMillis();
 
-        List<PAPX> newPapxs = new LinkedList<PAPX>();
+        List<PAPX> newPapxs = new ArrayList<PAPX>();
+        int[] papxs = new int[size + 1];
         int lastParStart = 0;
         int lastPapxIndex = 0;
         for (int charIndex = 0; charIndex < docText.length(); charIndex++) {
@@ -186,29 +206,27 @@ public class PAPBinTable {
             final int endExclusive = charIndex + 1;
 
             boolean broken = false;
-            List<PAPX> papxs = new LinkedList<>();
-            for (int papxIndex = lastPapxIndex; papxIndex < oldPapxSortedByEndPos
-                    .size(); papxIndex++) {
+            int papxsCount = 0;
+            for (int papxIndex = Math.max(lastPapxIndex, 0); papxIndex < size; papxIndex++) {
                 broken = false;
-                PAPX papx = oldPapxSortedByEndPos.get(papxIndex);
+                int papxEnd = (int) (byEnd[papxIndex] >> 32);
 
-                assert startInclusive == 0
-                        || papxIndex + 1 == oldPapxSortedByEndPos.size()
-                        || papx.getEnd() > startInclusive;
+                assert startInclusive == 0 || papxIndex + 1 == size
+                        || papxEnd > startInclusive;
 
-                if (papx.getEnd() - 1 > charIndex) {
+                if (papxEnd - 1 > charIndex) {
                     lastPapxIndex = papxIndex;
                     broken = true;
                     break;
                 }
 
-                papxs.add(papx);
+                papxs[papxsCount++] = (int) byEnd[papxIndex];
             }
             if (!broken) {
-                lastPapxIndex = oldPapxSortedByEndPos.size() - 1;
+                lastPapxIndex = size - 1;
             }
 
-            if (papxs.size() == 0) {
+            if (papxsCount == 0) {
                 logger.log(POILogger.WARN, "Paragraph [",
                         startInclusive, "; ",
                         endExclusive,
@@ -222,9 +240,9 @@ public class PAPBinTable {
                 continue;
             }
 
-            if (papxs.size() == 1) {
+            if (papxsCount == 1) {
                 // can we reuse existing?
-                PAPX existing = papxs.get(0);
+                PAPX existing = paragraphs.get(papxs[0]);
                 if (existing.getStart() == startInclusive
                         && existing.getEnd() == endExclusive) {
                     newPapxs.add(existing);
@@ -234,11 +252,13 @@ public class PAPBinTable {
             }
 
             // restore file order of PAPX
-            Collections.sort(papxs, papxFileOrderComparator);
+            Arrays.sort(papxs, 0, papxsCount);
 
             SprmBuffer sprmBuffer = null;
-            for (PAPX papx : papxs) {
-                if (papx.getGrpprl() == null || papx.getGrpprl().length == 0)
+            for (int p = 0; p < papxsCount; p++) {
+                PAPX papx = paragraphs.get(papxs[p]);
+                byte[] grpprl = papx.getGrpprl();
+                if (grpprl == null || grpprl.length == 0)
                     continue;
 
                 if (sprmBuffer == null)
@@ -249,7 +269,7 @@ public class PAPBinTable {
                         throw new Error(e);
                     }
                 else {
-                    sprmBuffer.append(papx.getGrpprl(), 2);
+                    sprmBuffer.append(grpprl, 2);
                 }
             }
             PAPX newPapx = new PAPX(startInclusive, endExclusive, sprmBuffer);
@@ -268,10 +288,12 @@ public class PAPBinTable {
 
     public void rebuild(final StringBuilder docText,
                         ComplexFileTable complexFileTable) {
+        invalidateIndex();
         rebuild(docText, complexFileTable, _paragraphs);
     }
 
     public void insert(int listIndex, int cpStart, SprmBuffer buf) {
+        invalidateIndex();
 
         PAPX forInsert = new PAPX(0, 0, buf);
 
@@ -313,6 +335,7 @@ public class PAPBinTable {
     }
 
     public void adjustForDelete(int listIndex, int offset, int length) {
+        invalidateIndex();
         int size = _paragraphs.size();
         int endMark = offset + length;
         int endIndex = listIndex;
@@ -345,6 +368,7 @@ public class PAPBinTable {
 
 
     public void adjustForInsert(int listIndex, int length) {
+        invalidateIndex();
         int size = _paragraphs.size();
         PAPX papx = _paragraphs.get(listIndex);
         papx.setEnd(papx.getEnd() + length);
@@ -357,6 +381,23 @@ public class PAPBinTable {
     }
 
 
+    /**
+     * @return index of the current positions of the paragraphs
+     */
+    public PropertyNodeIndex getIndex() {
+        if (_index == null || _index.size() != _paragraphs.size()) {
+            _index = new PropertyNodeIndex(_paragraphs);
+        }
+        return _index;
+    }
+
+    /**
+     * Drops the index after the paragraphs were changed directly
+     */
+    public void invalidateIndex() {
+        _index = null;
+    }
+
     public ArrayList<PAPX> getParagraphs() {
         return _paragraphs;
     }
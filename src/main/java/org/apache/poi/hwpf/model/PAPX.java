@@ -71,33 +71,56 @@ public final class PAPX extends BytePropertyNode<PAPX> {
         _phe = new ParagraphHeight();
     }
 
-    private SprmBuffer findHuge(SprmBuffer buf, byte[] datastream) {
-        byte[] grpprl = buf.toByteArray();
-        if (grpprl.length == 8 && datastream != null) // then check for sprmPHugePapx
+    private static boolean isHuge(byte[] grpprl) {
+        if (grpprl.length == 8) // then check for sprmPHugePapx
         {
             SprmOperation sprm = new SprmOperation(grpprl, 2);
-            if ((sprm.getOperation() == 0x45 || sprm.getOperation() == 0x46)
-                    && sprm.getSizeCode() == 3) {
-                int hugeGrpprlOffset = sprm.getOperand();
-                if (hugeGrpprlOffset + 1 < datastream.length) {
-
-                    int grpprlSize = LittleEndian.getShort(datastream, hugeGrpprlOffset);
-                    if (hugeGrpprlOffset + grpprlSize < datastream.length) {
-                        byte[] hugeGrpprl = new byte[grpprlSize + 2];
-                        // copy original istd into huge Grpprl
-                        hugeGrpprl[0] = grpprl[0];
-                        hugeGrpprl[1] = grpprl[1];
-                        // copy Grpprl from dataStream
-                        System.arraycopy(datastream, hugeGrpprlOffset + 2, hugeGrpprl, 2,
-                                grpprlSize);
-                        return new SprmBuffer(hugeGrpprl, 2);
-                    }
+            return (sprm.getOperation() == 0x45 || sprm.getOperation() == 0x46)
+                    && sprm.getSizeCode() == 3;
+        }
+        return false;
+    }
+
+    private SprmBuffer findHuge(SprmBuffer buf, byte[] datastream) {
+        byte[] grpprl = buf.toByteArray();
+        if (datastream != null && isHuge(grpprl)) {
+            int hugeGrpprlOffset = LittleEndian.getInt(grpprl, 4);
+            if (hugeGrpprlOffset + 1 < datastream.length) {
+
+                int grpprlSize = LittleEndian.getShort(datastream, hugeGrpprlOffset);
+                if (hugeGrpprlOffset + grpprlSize < datastream.length) {
+                    byte[] hugeGrpprl = new byte[grpprlSize + 2];
+                    // copy original istd into huge Grpprl
+                    hugeGrpprl[0] = grpprl[0];
+                    hugeGrpprl[1] = grpprl[1];
+                    // copy Grpprl from dataStream
+                    System.arraycopy(datastream, hugeGrpprlOffset + 2, hugeGrpprl, 2,
+                            grpprlSize);
+                    return new SprmBuffer(hugeGrpprl, 2);
                 }
             }
         }
         return null;
     }
 
+    /**
+     * @return whether the properties of this paragraph are stored in the
+     * Data stream (sprmPHugePapx) and still have to be loaded from it
+     */
+    public boolean isHuge() {
+        return _buf != null && isHuge(getGrpprl());
+    }
+
+    /**
+     * Replaces the sprmPHugePapx reference with the properties it points to
+     *
+     * @param dataStream content of the Data stream
+     */
+    public void loadHuge(byte[] dataStream) {
+        SprmBuffer buf = findHuge(getSprmBuf(), dataStream);
+        if (buf != null)
+            _buf = buf;
+    }
 
     public ParagraphHeight getParagraphHeight() {
         return _phe;
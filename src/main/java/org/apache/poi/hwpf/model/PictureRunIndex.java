@@ -0,0 +1,287 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.model;
+
+import org.apache.poi.hwpf.sprm.SprmIterator;
+import org.apache.poi.hwpf.sprm.SprmOperation;
+import org.apache.poi.hwpf.usermodel.CharacterProperties;
+import org.apache.poi.util.Internal;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+import java.util.List;
+
+/**
+ * Special character runs (pictures, OLE objects and binary data) of a list of
+ * CHPXs, found by scanning their raw sprms for <tt>sprmCPicLocation</tt>,
+ * <tt>sprmCFSpec</tt>, <tt>sprmCFObj</tt>, <tt>sprmCFOle2</tt> and
+ * <tt>sprmCFData</tt> instead of resolving the character properties of every
+ * run.
+ * <p>
+ * Runs take these flags from their styles as well, so the index only
+ * describes the resolved properties if {@link #isStyleIndependent(StyleSheet)}
+ * is <code>true</code> for the style sheet of the document.
+ */
+@Internal
+public final class PictureRunIndex {
+    private static final POILogger logger = POILogFactory
+            .getLogger(PictureRunIndex.class);
+
+    /**
+     * Picture location of runs without <tt>sprmCPicLocation</tt>
+     */
+    private static final int DEFAULT_PIC_OFFSET = new CharacterProperties()
+            .getFcPic();
+
+    private static final int FLAG_SPEC = 0x01;
+
+    private static final int FLAG_OBJ = 0x02;
+
+    private static final int FLAG_OLE2 = 0x04;
+
+    private static final int FLAG_DATA = 0x08;
+
+    /**
+     * Set if any of the sprms above was found at all
+     */
+    private static final int FLAG_TOUCHED = 0x10;
+
+    private final int[] _chpxIndexes;
+
+    private final int[] _starts;
+
+    private final int[] _ends;
+
+    private final int[] _picOffsets;
+
+    private final byte[] _flags;
+
+    private final int _size;
+
+    private final int _textRunsCount;
+
+    public PictureRunIndex(List<CHPX> textRuns) {
+        final int count = textRuns.size();
+        int[] chpxIndexes = new int[16];
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int[] picOffsets = new int[16];
+        byte[] flags = new byte[16];
+        int size = 0;
+
+        final SprmOperation sprm = new SprmOperation();
+        final int[] picOffset = new int[1];
+        for (int i = 0; i < count; i++) {
+            CHPX chpx = textRuns.get(i);
+            if (chpx == null)
+                continue;
+
+            picOffset[0] = DEFAULT_PIC_OFFSET;
+            int runFlags = scan(chpx.getGrpprl(), sprm, picOffset);
+            if ((runFlags & FLAG_SPEC) == 0)
+                continue;
+
+            if (size == starts.length) {
+                int newLength = size * 2;
+                chpxIndexes = copyOf(chpxIndexes, newLength);
+                starts = copyOf(starts, newLength);
+                ends = copyOf(ends, newLength);
+                picOffsets = copyOf(picOffsets, newLength);
+                byte[] newFlags = new byte[newLength];
+                System.arraycopy(flags, 0, newFlags, 0, size);
+                flags = newFlags;
+            }
+            chpxIndexes[size] = i;
+            starts[size] = chpx.getStart();
+            ends[size] = chpx.getEnd();
+            picOffsets[size] = picOffset[0];
+            flags[size] = (byte) runFlags;
+            size++;
+        }
+
+        _chpxIndexes = chpxIndexes;
+        _starts = starts;
+        _ends = ends;
+        _picOffsets = picOffsets;
+        _flags = flags;
+        _size = size;
+        _textRunsCount = count;
+    }
+
+    private static int[] copyOf(int[] array, int newLength) {
+        int[] result = new int[newLength];
+        System.arraycopy(array, 0, result, 0, Math.min(array.length,
+                newLength));
+        return result;
+    }
+
+    /**
+     * Applies the special character sprms of the given grpprl the way
+     * <tt>CharacterSprmUncompressor</tt> does, starting from default
+     * properties.
+     *
+     * @param picOffset receives the picture location, if set
+     * @return the resulting flags
+     */
+    private static int scan(byte[] grpprl, SprmOperation sprm, int[] picOffset) {
+        int flags = 0;
+        try {
+            SprmIterator sprmIt = new SprmIterator(grpprl, 0);
+            while (sprmIt.hasNext()) {
+                sprmIt.next(sprm);
+                if (sprm.getType() != SprmOperation.TYPE_CHP)
+                    continue;
+
+                switch (sprm.getOperation()) {
+                    case 0x03:
+                        // sprmCPicLocation
+                        picOffset[0] = sprm.getOperand();
+                        flags |= FLAG_SPEC | FLAG_TOUCHED;
+                        break;
+                    case 0x06:
+                        // sprmCFData
+                        flags = setFlag(flags, FLAG_DATA, sprm.getOperand());
+                        break;
+                    case 0x09:
+                        // sprmCSymbol
+                        flags |= FLAG_SPEC | FLAG_TOUCHED;
+                        break;
+                    case 0x0a:
+                        // sprmCFOle2
+                        flags = setFlag(flags, FLAG_OLE2, sprm.getOperand());
+                        break;
+                    case 0x55:
+                        // sprmCFSpec
+                        flags = setFlag(flags, FLAG_SPEC, sprm.getOperand());
+                        break;
+                    case 0x56:
+                        // sprmCFObj
+                        flags = setFlag(flags, FLAG_OBJ, sprm.getOperand());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (Exception exc) {
+            logger.log(POILogger.ERROR,
+                    "Unable to process all direct CHP SPRMs: ", exc, exc);
+        }
+        return flags;
+    }
+
+    private static int setFlag(int flags, int flag, int operand) {
+        flags |= FLAG_TOUCHED;
+        return operand != 0 ? flags | flag : flags & ~flag;
+    }
+
+    /**
+     * @return <code>true</code> if no style of the given style sheet sets
+     * any of the properties this index is built from, so that the index
+     * matches the resolved character properties
+     */
+    public static boolean isStyleIndependent(StyleSheet styleSheet) {
+        final SprmOperation sprm = new SprmOperation();
+        final int[] picOffset = new int[1];
+        for (int i = 0; i < styleSheet.numStyles(); i++) {
+            StyleDescription style = styleSheet.getStyleDescription(i);
+            if (style == null)
+                continue;
+
+            // resolved style properties start from the defaults and only
+            // apply the CHPX of each style in the base chain, so checking
+            // every style's own CHPX covers inherited properties too
+            byte[] grpprl = style.getCHPX();
+            if (grpprl != null
+                    && (scan(grpprl, sprm, picOffset) & FLAG_TOUCHED) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the index was built from a list of the
+     * given size
+     */
+    boolean isBuiltFor(int textRunsCount) {
+        return _textRunsCount == textRunsCount;
+    }
+
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @return index of the run's CHPX in the list the index was built from
+     */
+    public int getChpxIndex(int index) {
+        return _chpxIndexes[index];
+    }
+
+    public int getStart(int index) {
+        return _starts[index];
+    }
+
+    public int getEnd(int index) {
+        return _ends[index];
+    }
+
+    public int getPicOffset(int index) {
+        return _picOffsets[index];
+    }
+
+    public boolean isObj(int index) {
+        return (_flags[index] & FLAG_OBJ) != 0;
+    }
+
+    public boolean isOle2(int index) {
+        return (_flags[index] & FLAG_OLE2) != 0;
+    }
+
+    public boolean isData(int index) {
+        return (_flags[index] & FLAG_DATA) != 0;
+    }
+
+    /**
+     * @return <code>true</code> if the run may hold a picture, i.e. it is
+     * neither an OLE object nor binary data
+     */
+    public boolean isPictureCandidate(int index) {
+        return (_flags[index] & (FLAG_OBJ | FLAG_OLE2 | FLAG_DATA)) == 0;
+    }
+
+    /**
+     * @return index of the special character run containing the given
+     * character position, or <code>-1</code> if there is none. Expects the
+     * runs to be ordered by position, as rebuilt bin tables are
+     */
+    public int find(int characterPosition) {
+        int low = 0;
+        int high = _size - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (_starts[mid] <= characterPosition) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found != -1 && characterPosition < _ends[found] ? found : -1;
+    }
+}
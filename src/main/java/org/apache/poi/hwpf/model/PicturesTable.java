@@ -39,7 +39,8 @@ import java.util.List;
  * that hang off of characters in the main stream. For example, binary data describing in-line pictures and/or
  * formfields an also embedded objects-native data. Word picture structures are concatenated one after the other in
  * the data stream if the document contains pictures.
- * Data stream is easily reachable via HWPFDocument._dataStream property.
+ * Data stream is easily reachable via HWPFDocument.getDataStream(), which reads it on first use if the document
+ * was loaded without it.
  * A picture is represented in the document text stream as a special character, an Unicode \u0001 whose
  * CharacterRun.isSpecial() returns true. The file location of the picture in the Word binary file is accessed
  * via CharacterRun.getPicOffset(). The CharacterRun.getPicOffset() is a byte offset into the data stream.
@@ -83,6 +84,18 @@ public final class PicturesTable {
         this._dgg = dgg;
     }
 
+    /**
+     * Creates a pictures table which reads the Data stream from the document
+     * only when a picture is looked up
+     */
+    public PicturesTable(HWPFDocument _document, byte[] _mainStream,
+                         FSPATable fspa, EscherRecordHolder dgg) {
+        this._document = _document;
+        this._mainStream = _mainStream;
+        this._fspa = fspa;
+        this._dgg = dgg;
+    }
+
     public PicturesTable(HWPFDocument _document, byte[] _dataStream,
                          byte[] _mainStream) {
         this._document = _document;
@@ -152,7 +165,7 @@ public final class PicturesTable {
      */
     public Picture extractPicture(CharacterRun run, boolean fillBytes) {
         if (hasPicture(run)) {
-            return new Picture(run.getPicOffset(), _dataStream, fillBytes);
+            return new Picture(run.getPicOffset(), getDataStream(), fillBytes);
         }
         return null;
     }
@@ -207,17 +220,21 @@ public final class PicturesTable {
     public List<Picture> getAllPictures() {
         ArrayList<Picture> pictures = new ArrayList<Picture>();
 
-        Range range = _document.getOverallRange();
-        for (int i = 0; i < range.numCharacterRuns(); i++) {
-            CharacterRun run = range.getCharacterRun(i);
+        if (PictureRunIndex.isStyleIndependent(_document.getStyleSheet())) {
+            addIndexedPictures(pictures);
+        } else {
+            Range range = _document.getOverallRange();
+            for (int i = 0; i < range.numCharacterRuns(); i++) {
+                CharacterRun run = range.getCharacterRun(i);
 
-            if (run == null) {
-                continue;
-            }
+                if (run == null) {
+                    continue;
+                }
 
-            Picture picture = extractPicture(run, false);
-            if (picture != null) {
-                pictures.add(picture);
+                Picture picture = extractPicture(run, false);
+                if (picture != null) {
+                    pictures.add(picture);
+                }
             }
         }
 
@@ -226,12 +243,50 @@ public final class PicturesTable {
         return pictures;
     }
 
+    /**
+     * Finds the same pictures as {@link #hasPicture(CharacterRun)} over all
+     * character runs, but only looks at the special character runs of the
+     * document's {@link PictureRunIndex}
+     */
+    private void addIndexedPictures(List<Picture> pictures) {
+        PictureRunIndex index = _document.getCharacterTable()
+                .getPictureRunIndex();
+        StringBuilder text = _document.getText();
+        for (int i = 0; i < index.size(); i++) {
+            if (!index.isPictureCandidate(i))
+                continue;
+
+            // Image should be in it's own run, or in a run with the
+            // end-of-special marker
+            int start = Math.max(0, index.getStart(i));
+            int end = Math.min(text.length(), index.getEnd(i));
+            if (end - start < 1 || end - start > 2
+                    || text.charAt(start) != '\u0001'
+                    || (end - start == 2 && text.charAt(start + 1) != '\u0015'))
+                continue;
+
+            if (isBlockContainsImage(index.getPicOffset(i))) {
+                pictures.add(new Picture(index.getPicOffset(i),
+                        getDataStream(), false));
+            }
+        }
+    }
+
+    private byte[] getDataStream() {
+        if (_dataStream == null) {
+            _dataStream = _document.getDataStream();
+        }
+        return _dataStream;
+    }
+
     private boolean isBlockContainsImage(int i) {
-        return isPictureRecognized(getBlockType(_dataStream, i), getMmMode(_dataStream, i));
+        byte[] dataStream = getDataStream();
+        return isPictureRecognized(getBlockType(dataStream, i), getMmMode(dataStream, i));
     }
 
     private boolean isBlockContainsHorizontalLine(int i) {
-        return getBlockType(_dataStream, i) == TYPE_HORIZONTAL_LINE && getMmMode(_dataStream, i) == 0x64;
+        byte[] dataStream = getDataStream();
+        return getBlockType(dataStream, i) == TYPE_HORIZONTAL_LINE && getMmMode(dataStream, i) == 0x64;
     }
 
 }
@@ -0,0 +1,150 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.model;
+
+import org.apache.poi.util.Internal;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Read-only text of a piece, kept as compact as the file stores it: 8-bit
+ * pieces as their Cp1252 bytes, one byte per character, and 16-bit pieces
+ * decoded once into a <code>char[]</code>. Slices share the arrays of the
+ * text they were taken from.
+ */
+@Internal
+final class PieceText implements CharSequence {
+    /**
+     * Characters of the Cp1252 bytes, as the JRE decodes them
+     */
+    private static final char[] CP1252 = new char[256];
+
+    static {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        try {
+            String decoded = new String(bytes, "Cp1252");
+            decoded.getChars(0, CP1252.length, CP1252, 0);
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("Your Java is broken! It doesn't know about basic, required character encodings!");
+        }
+    }
+
+    private final byte[] _bytes;
+
+    private final char[] _chars;
+
+    private final int _offset;
+
+    private final int _length;
+
+    private PieceText(byte[] bytes, char[] chars, int offset, int length) {
+        _bytes = bytes;
+        _chars = chars;
+        _offset = offset;
+        _length = length;
+    }
+
+    /**
+     * @param text    the raw bytes of a piece, kept by the returned text if
+     *                the piece is not unicode
+     * @param unicode whether the bytes are UTF-16LE rather than Cp1252
+     */
+    static PieceText decode(byte[] text, boolean unicode) {
+        if (!unicode) {
+            return new PieceText(text, null, 0, text.length);
+        }
+
+        char[] chars = new char[(text.length + 1) / 2];
+        boolean wellFormed = (text.length & 1) == 0;
+        boolean highSurrogate = false;
+        for (int i = 0, b = 0; b + 1 < text.length; i++, b += 2) {
+            char c = (char) ((text[b] & 0xFF) | ((text[b + 1] & 0xFF) << 8));
+            chars[i] = c;
+
+            if (highSurrogate != Character.isLowSurrogate(c)) {
+                wellFormed = false;
+            }
+            highSurrogate = Character.isHighSurrogate(c);
+        }
+        if (highSurrogate) {
+            wellFormed = false;
+        }
+
+        if (!wellFormed) {
+            // let the JRE replace broken characters, as it always did
+            try {
+                chars = new String(text, "UTF-16LE").toCharArray();
+            } catch (UnsupportedEncodingException e) {
+                throw new RuntimeException("Your Java is broken! It doesn't know about basic, required character encodings!");
+            }
+        }
+        return new PieceText(null, chars, 0, chars.length);
+    }
+
+    public int length() {
+        return _length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= _length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        if (_chars != null) {
+            return _chars[_offset + index];
+        }
+        return CP1252[_bytes[_offset + index] & 0xFF];
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > _length || start > end) {
+            throw new StringIndexOutOfBoundsException("Asked for text from "
+                    + start + " to " + end + " of " + _length);
+        }
+        return new PieceText(_bytes, _chars, _offset + start, end - start);
+    }
+
+    /**
+     * Appends the characters to the given builder without copying them
+     * into temporary strings
+     */
+    void appendTo(StringBuilder builder) {
+        if (_chars != null) {
+            builder.append(_chars, _offset, _length);
+            return;
+        }
+        builder.ensureCapacity(builder.length() + _length);
+        for (int i = _offset, end = _offset + _length; i < end; i++) {
+            builder.append(CP1252[_bytes[i] & 0xFF]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (_chars != null) {
+            return new String(_chars, _offset, _length);
+        }
+        char[] chars = new char[_length];
+        for (int i = 0; i < _length; i++) {
+            chars[i] = CP1252[_bytes[_offset + i] & 0xFF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,156 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.model;
+
+import org.apache.poi.util.Internal;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least-recently-used cache of resolved properties, keyed by the
+ * sprm bytes they were resolved from. Cached values are shared between all
+ * users and must be treated as read-only; callers copy them before changing
+ * anything.
+ * <p>
+ * The number of entries is limited by the
+ * <code>org.apache.poi.hwpf.propertiesCacheSize</code> system property
+ * (1024 by default, 0 disables caching).
+ *
+ * @param <T> type of the resolved properties
+ */
+@Internal
+public final class PropertiesCache<T> {
+    static final String PROPERTY_CACHE_SIZE = "org.apache.poi.hwpf.propertiesCacheSize";
+
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private final int _maxSize;
+
+    private final Map<Key, T> _entries;
+
+    private long _hits;
+
+    private long _misses;
+
+    public PropertiesCache() {
+        this(getDefaultSize());
+    }
+
+    public PropertiesCache(final int maxSize) {
+        _maxSize = maxSize;
+        _entries = new LinkedHashMap<Key, T>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, T> eldest) {
+                return size() > _maxSize;
+            }
+        };
+    }
+
+    private static int getDefaultSize() {
+        try {
+            String value = System.getProperty(PROPERTY_CACHE_SIZE);
+            if (value != null) {
+                return Math.max(0, Integer.parseInt(value.trim()));
+            }
+        } catch (Exception exc) {
+            // ignore;
+        }
+        return DEFAULT_CACHE_SIZE;
+    }
+
+    /**
+     * @return the cached properties for the given sprm bytes, or
+     * <code>null</code> if there are none
+     */
+    public synchronized T get(byte[] key) {
+        if (_maxSize == 0) {
+            _misses++;
+            return null;
+        }
+        T value = _entries.get(new Key(key));
+        if (value == null) {
+            _misses++;
+        } else {
+            _hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Caches properties resolved from the given sprm bytes. The cache takes
+     * ownership of the array, so callers must pass a copy of any sprm buffer
+     * that is updated in place.
+     */
+    public synchronized void put(byte[] key, T value) {
+        if (_maxSize > 0) {
+            _entries.put(new Key(key), value);
+        }
+    }
+
+    public synchronized void clear() {
+        _entries.clear();
+    }
+
+    public synchronized int size() {
+        return _entries.size();
+    }
+
+    public int getMaxSize() {
+        return _maxSize;
+    }
+
+    public synchronized long getHits() {
+        return _hits;
+    }
+
+    public synchronized long getMisses() {
+        return _misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PropertiesCache [size=" + _entries.size() + "; maxSize="
+                + _maxSize + "; hits=" + _hits + "; misses=" + _misses + "]";
+    }
+
+    private static final class Key {
+        private final byte[] _bytes;
+
+        private final int _hashCode;
+
+        Key(byte[] bytes) {
+            _bytes = bytes;
+            _hashCode = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return _hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && _hashCode == ((Key) obj)._hashCode
+                    && Arrays.equals(_bytes, ((Key) obj)._bytes);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.model;
+
+import org.apache.poi.util.Internal;
+
+import java.util.List;
+
+/**
+ * Snapshot of the character positions of a list of property nodes, held in
+ * parallel <code>int</code> arrays so that ranges can be looked up without
+ * touching the nodes themselves.
+ * <p>
+ * The owning table drops its index whenever it changes the nodes; an index
+ * must not be used after that.
+ */
+@Internal
+public final class PropertyNodeIndex {
+    /**
+     * Start and end of missing (<code>null</code>) nodes
+     */
+    public static final int NO_NODE = -1;
+
+    private final int[] _starts;
+
+    private final int[] _ends;
+
+    public PropertyNodeIndex(List<? extends PropertyNode<?>> nodes) {
+        int size = nodes.size();
+        _starts = new int[size];
+        _ends = new int[size];
+        for (int i = 0; i < size; i++) {
+            PropertyNode<?> node = nodes.get(i);
+            _starts[i] = node == null ? NO_NODE : node.getStart();
+            _ends[i] = node == null ? NO_NODE : node.getEnd();
+        }
+    }
+
+    public int size() {
+        return _starts.length;
+    }
+
+    public int getStart(int index) {
+        return _starts[index];
+    }
+
+    public int getEnd(int index) {
+        return _ends[index];
+    }
+
+    /**
+     * @return index of the first node of a range starting at the given
+     * character position
+     */
+    public int findStartIndex(int start) {
+        int startIndex = binarySearchStart(start);
+        while (startIndex > 0 && _starts[startIndex - 1] >= start)
+            startIndex--;
+        return startIndex;
+    }
+
+    /**
+     * @param startIndex index returned by {@link #findStartIndex(int)}
+     * @return index after the last node of a range ending at the given
+     * character position
+     */
+    public int findEndIndex(int startIndex, int end) {
+        int endIndex = binarySearchEnd(startIndex, end);
+        while (endIndex < _ends.length - 1 && _ends[endIndex + 1] <= end)
+            endIndex++;
+
+        if (startIndex < 0 || startIndex >= _ends.length
+                || startIndex > endIndex || endIndex < 0
+                || endIndex >= _ends.length)
+            throw new AssertionError();
+
+        return endIndex + 1;
+    }
+
+    private int binarySearchStart(int start) {
+        if (_starts[0] >= start)
+            return 0;
+
+        int low = 0;
+        int high = _starts.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midStart = _starts[mid];
+
+            if (midStart < start) {
+                low = mid + 1;
+            } else if (midStart > start) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return low - 1;
+    }
+
+    private int binarySearchEnd(int foundStart, int end) {
+        if (_ends[_ends.length - 1] <= end)
+            return _ends.length - 1;
+
+        int low = foundStart;
+        int high = _ends.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midEnd = _ends[mid];
+
+            if (midEnd < end) {
+                low = mid + 1;
+            } else if (midEnd > end) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return low;
+    }
+}
@@ -38,6 +38,12 @@ public class SectionTable {
     private static final int SED_SIZE = 12;
 
     protected ArrayList<SEPX> _sections = new ArrayList<SEPX>();
+
+    /**
+     * Positions of the sections, built on first use and dropped whenever
+     * they change
+     */
+    private PropertyNodeIndex _index;
     protected List<TextPiece> _text;
 
     /**
@@ -114,6 +120,7 @@ public class SectionTable {
     }
 
     public void adjustForInsert(int listIndex, int length) {
+        invalidateIndex();
         int size = _sections.size();
         SEPX sepx = _sections.get(listIndex);
         sepx.setEnd(sepx.getEnd() + length);
@@ -153,6 +160,23 @@ public class SectionTable {
     // return FC;
     // }
 
+    /**
+     * @return index of the current positions of the sections
+     */
+    public PropertyNodeIndex getIndex() {
+        if (_index == null || _index.size() != _sections.size()) {
+            _index = new PropertyNodeIndex(_sections);
+        }
+        return _index;
+    }
+
+    /**
+     * Drops the index after the sections were changed directly
+     */
+    public void invalidateIndex() {
+        _index = null;
+    }
+
     public ArrayList<SEPX> getSections() {
         return _sections;
     }
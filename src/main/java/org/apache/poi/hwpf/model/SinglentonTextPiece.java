@@ -23,9 +23,12 @@ import java.io.IOException;
 @Internal
 public class SinglentonTextPiece extends TextPiece {
 
+    /**
+     * @param buffer document text, used by the piece itself rather than
+     *               copied
+     */
     public SinglentonTextPiece(StringBuilder buffer) throws IOException {
-        super(0, buffer.length(), buffer.toString().getBytes("UTF-16LE"),
-                new PieceDescriptor(new byte[8], 0));
+        super(0, buffer.length(), buffer, new PieceDescriptor(new byte[8], 0));
     }
 
     @Override
@@ -63,6 +63,10 @@ public final class StyleSheet implements HDFType {
      * General information about a stylesheet
      */
     private Stshif _stshif;
+    /**
+     * Resolved character properties of runs, keyed by style index and CHPX
+     */
+    private final PropertiesCache<CharacterProperties> _characterPropertiesCache = new PropertiesCache<CharacterProperties>();
 
     /**
      * StyleSheet constructor. Loads a document's stylesheet information,
@@ -284,6 +288,15 @@ public final class StyleSheet implements HDFType {
         return _styleDescriptions[styleIndex];
     }
 
+    /**
+     * Returns the cache of character properties resolved against this style
+     * sheet. Its entries are shared by all runs with the same style index and
+     * CHPX, and must not be changed.
+     */
+    public PropertiesCache<CharacterProperties> getCharacterPropertiesCache() {
+        return _characterPropertiesCache;
+    }
+
     @Deprecated
     public CharacterProperties getCharacterStyle(int styleIndex) {
         if (styleIndex == NIL_STYLE) {
@@ -54,12 +54,22 @@ public class TextPiece extends PropertyNode<TextPiece> {
      * @param text  The raw bytes of our text
      */
     public TextPiece(int start, int end, byte[] text, PieceDescriptor pd) {
-        super(start, end, buildInitSB(text, pd));
+        this(start, end, PieceText.decode(text, pd.isUnicode()), pd);
+    }
+
+    /**
+     * @param start Beginning offset in main document stream, in characters.
+     * @param end   Ending offset in main document stream, in characters.
+     * @param text  The characters of the piece, kept without copying
+     */
+    protected TextPiece(int start, int end, CharSequence text,
+                        PieceDescriptor pd) {
+        super(start, end, text);
         _usesUnicode = pd.isUnicode();
         _pd = pd;
 
         // Validate
-        int textLength = ((CharSequence) _buf).length();
+        int textLength = text.length();
         if (end - start != textLength) {
             throw new IllegalStateException("Told we're for characters " + start + " -> " + end + ", but actually covers " + textLength + " characters!");
         }
@@ -68,23 +78,6 @@ public class TextPiece extends PropertyNode<TextPiece> {
         }
     }
 
-    /**
-     * Create the StringBuilder from the text and unicode flag
-     */
-    private static StringBuilder buildInitSB(byte[] text, PieceDescriptor pd) {
-        String str;
-        try {
-            if (pd.isUnicode()) {
-                str = new String(text, "UTF-16LE");
-            } else {
-                str = new String(text, "Cp1252");
-            }
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException("Your Java is broken! It doesn't know about basic, required character encodings!");
-        }
-        return new StringBuilder(str);
-    }
-
     /**
      * @return If this text piece is unicode
      */
@@ -101,13 +94,38 @@ public class TextPiece extends PropertyNode<TextPiece> {
         return new StringBuffer(getStringBuilder());
     }
 
+    /**
+     * @return the text of this piece as a modifiable builder, copying the
+     * compact text read from the file on first call
+     */
     public StringBuilder getStringBuilder() {
+        if (!(_buf instanceof StringBuilder)) {
+            _buf = new StringBuilder((CharSequence) _buf);
+        }
         return (StringBuilder) _buf;
     }
 
+    /**
+     * @return the text of this piece, without copying it
+     */
+    public CharSequence getCharSequence() {
+        return (CharSequence) _buf;
+    }
+
+    /**
+     * Appends the text of this piece to the given builder
+     */
+    void appendTo(StringBuilder builder) {
+        if (_buf instanceof PieceText) {
+            ((PieceText) _buf).appendTo(builder);
+        } else {
+            builder.append((CharSequence) _buf);
+        }
+    }
+
     public byte[] getRawBytes() {
         try {
-            return ((CharSequence) _buf).toString().getBytes(_usesUnicode ?
+            return _buf.toString().getBytes(_usesUnicode ?
                     "UTF-16LE" : "Cp1252");
         } catch (UnsupportedEncodingException ignore) {
             throw new RuntimeException("Your Java is broken! It doesn't know about basic, required character encodings!");
@@ -123,7 +141,7 @@ public class TextPiece extends PropertyNode<TextPiece> {
      */
     @Deprecated
     public String substring(int start, int end) {
-        StringBuilder buf = (StringBuilder) _buf;
+        CharSequence buf = (CharSequence) _buf;
 
         // Validate
         if (start < 0) {
@@ -135,7 +153,7 @@ public class TextPiece extends PropertyNode<TextPiece> {
         if (end < start) {
             throw new StringIndexOutOfBoundsException("Asked for text from " + start + " to " + end + ", which has an end before the start!");
         }
-        return buf.substring(start, end);
+        return buf.subSequence(start, end).toString();
     }
 
     /**
@@ -162,7 +180,7 @@ public class TextPiece extends PropertyNode<TextPiece> {
 
             int bufStart = overlapStart - myStart;
             int bufEnd = overlapEnd - myStart;
-            ((StringBuilder) _buf).delete(bufStart, bufEnd);
+            getStringBuilder().delete(bufStart, bufEnd);
         }
 
         // We need to invoke this even if text from this piece is not being
@@ -191,7 +209,7 @@ public class TextPiece extends PropertyNode<TextPiece> {
     public boolean equals(Object o) {
         if (limitsAreEqual(o)) {
             TextPiece tp = (TextPiece) o;
-            return getStringBuilder().toString().equals(tp.getStringBuilder().toString()) &&
+            return _buf.toString().equals(tp._buf.toString()) &&
                     tp._usesUnicode == _usesUnicode && _pd.equals(tp._pd);
         }
         return false;
@@ -41,6 +41,12 @@ public class TextPieceTable implements CharIndexTranslator {
     // int _multiple;
     int _cpMin;
 
+    /**
+     * Positions of the text pieces, built on first use and dropped whenever
+     * the pieces change
+     */
+    private PieceIndex _index;
+
     public TextPieceTable() {
     }
 
@@ -109,6 +115,7 @@ public class TextPieceTable implements CharIndexTranslator {
     }
 
     public void add(TextPiece piece) {
+        _index = null;
         _textPieces.add(piece);
         _textPiecesFCOrder.add(piece);
         Collections.sort(_textPieces);
@@ -122,6 +129,7 @@ public class TextPieceTable implements CharIndexTranslator {
      * @param length    The number of characters inserted
      */
     public int adjustForInsert(int listIndex, int length) {
+        _index = null;
         int size = _textPieces.size();
 
         TextPiece tp = _textPieces.get(listIndex);
@@ -156,26 +164,31 @@ public class TextPieceTable implements CharIndexTranslator {
     }
 
     public int getByteIndex(int charPos) {
-        int byteCount = 0;
-        for (TextPiece tp : _textPieces) {
-            if (charPos >= tp.getEnd()) {
-                byteCount = tp.getPieceDescriptor().getFilePosition()
-                        + (tp.getEnd() - tp.getStart())
-                        * (tp.isUnicode() ? 2 : 1);
+        PieceIndex index = getPieceIndex();
+        int size = index._cpEnds.length;
+        if (size == 0)
+            return 0;
 
-                if (charPos == tp.getEnd())
-                    break;
+        // first piece which does not end before the position; pieces are
+        // sorted by their end
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (index._cpEnds[mid] < charPos)
+                low = mid + 1;
+            else
+                high = mid;
+        }
 
-                continue;
-            }
-            if (charPos < tp.getEnd()) {
-                int left = charPos - tp.getStart();
-                byteCount = tp.getPieceDescriptor().getFilePosition() + left
-                        * (tp.isUnicode() ? 2 : 1);
-                break;
-            }
+        if (low == size) {
+            int last = size - 1;
+            return index._cpFcs[last]
+                    + (index._cpEnds[last] - index._cpStarts[last])
+                    * index._cpMultipliers[last];
         }
-        return byteCount;
+        return index._cpFcs[low] + (charPos - index._cpStarts[low])
+                * index._cpMultipliers[low];
     }
 
     @Deprecated
@@ -183,51 +196,51 @@ public class TextPieceTable implements CharIndexTranslator {
         return getCharIndex(bytePos, 0);
     }
 
+    /**
+     * Counts the characters of all pieces in character order, taking only
+     * the part before the byte position of pieces containing it, until such
+     * a piece brings the count to at least <code>startCP</code>.
+     */
     @Deprecated
     public int getCharIndex(int startBytePos, int startCP) {
-        int charCount = 0;
-
+        PieceIndex index = getPieceIndex();
         int bytePos = lookIndexForward(startBytePos);
 
-        for (TextPiece tp : _textPieces) {
-            int pieceStart = tp.getPieceDescriptor().getFilePosition();
-
-            int bytesLength = tp.bytesLength();
-            int pieceEnd = pieceStart + bytesLength;
-
-            int toAdd;
-
-            if (bytePos < pieceStart || bytePos > pieceEnd) {
-                toAdd = bytesLength;
-            } else if (bytePos > pieceStart && bytePos < pieceEnd) {
-                toAdd = (bytePos - pieceStart);
-            } else {
-                toAdd = bytesLength - (pieceEnd - bytePos);
-            }
+        // pieces containing the position, in character order
+        int last = index.lastStartingAtOrBefore(bytePos);
+        int count = 0;
+        for (int k = last; k >= 0 && index._fcMaxEnds[k] >= bytePos; k--) {
+            if (index._fcEnds[k] >= bytePos)
+                count++;
+        }
+        int[] containing = new int[count];
+        count = 0;
+        for (int k = last; k >= 0 && index._fcMaxEnds[k] >= bytePos; k--) {
+            if (index._fcEnds[k] >= bytePos)
+                containing[count++] = index._fcToCp[k];
+        }
+        Arrays.sort(containing);
 
-            if (tp.isUnicode()) {
-                charCount += toAdd / 2;
-            } else {
-                charCount += toAdd;
-            }
+        int missing = 0;
+        for (int c : containing) {
+            int partial = (bytePos - index._cpFcs[c]) / index._cpMultipliers[c];
+            missing += index._cpEnds[c] - index._cpStarts[c] - partial;
 
-            if (bytePos >= pieceStart && bytePos <= pieceEnd
-                    && charCount >= startCP) {
-                break;
-            }
+            int charCount = index._charsBefore[c + 1] - missing;
+            if (charCount >= startCP)
+                return charCount;
         }
-
-        return charCount;
+        return index._charsBefore[index._cpEnds.length] - missing;
     }
 
     public int[][] getCharIndexRanges(int startBytePosInclusive,
                                       int endBytePosExclusive) {
-        List<int[]> result = new LinkedList<int[]>();
-        for (TextPiece textPiece : _textPiecesFCOrder) {
-            final int tpStart = textPiece.getPieceDescriptor()
-                    .getFilePosition();
-            final int tpEnd = textPiece.getPieceDescriptor().getFilePosition()
-                    + textPiece.bytesLength();
+        PieceIndex index = getPieceIndex();
+        List<int[]> result = new ArrayList<int[]>(2);
+        int size = index._fcStarts.length;
+        for (int k = index.firstEndingAtOrAfter(startBytePosInclusive); k < size; k++) {
+            final int tpStart = index._fcStarts[k];
+            final int tpEnd = index._fcEnds[k];
             if (startBytePosInclusive > tpEnd)
                 continue;
             if (endBytePosExclusive < tpStart)
@@ -241,9 +254,9 @@ public class TextPieceTable implements CharIndexTranslator {
             if (rangeStartBytes > rangeEndBytes)
                 continue;
 
-            final int encodingMultiplier = textPiece.isUnicode() ? 2 : 1;
+            final int encodingMultiplier = index._fcMultipliers[k];
 
-            final int rangeStartCp = textPiece.getStart()
+            final int rangeStartCp = index._fcCpStarts[k]
                     + (rangeStartBytes - tpStart) / encodingMultiplier;
             final int rangeEndCp = rangeStartCp + rangeLengthBytes
                     / encodingMultiplier;
@@ -262,9 +275,13 @@ public class TextPieceTable implements CharIndexTranslator {
         final long start = System.currentTimeMillis();
 
         // rebuild document paragraphs structure
-        StringBuilder docText = new StringBuilder();
+        int textLength = 0;
         for (TextPiece textPiece : _textPieces) {
-            String toAppend = textPiece.getStringBuilder().toString();
+            textLength = Math.max(textLength, textPiece.getEnd());
+        }
+        StringBuilder docText = new StringBuilder(textLength);
+        for (TextPiece textPiece : _textPieces) {
+            CharSequence toAppend = textPiece.getCharSequence();
             int toAppendLength = toAppend.length();
 
             if (toAppendLength != textPiece.getEnd() - textPiece.getStart()) {
@@ -279,8 +296,12 @@ public class TextPieceTable implements CharIndexTranslator {
                                 - textPiece.getStart()));
             }
 
-            docText.replace(textPiece.getStart(), textPiece.getStart()
-                    + toAppendLength, toAppend);
+            if (textPiece.getStart() == docText.length()) {
+                textPiece.appendTo(docText);
+            } else {
+                docText.replace(textPiece.getStart(), textPiece.getStart()
+                        + toAppendLength, toAppend.toString());
+            }
         }
 
         logger.log(POILogger.DEBUG, "Document text were rebuilded in ",
@@ -300,83 +321,48 @@ public class TextPieceTable implements CharIndexTranslator {
     }
 
     public boolean isIndexInTable(int bytePos) {
-        for (TextPiece tp : _textPiecesFCOrder) {
-            int pieceStart = tp.getPieceDescriptor().getFilePosition();
-
-            if (bytePos > pieceStart + tp.bytesLength()) {
-                continue;
-            }
-
-            if (pieceStart > bytePos) {
-                return false;
-            }
-
-            return true;
-        }
-
-        return false;
+        PieceIndex index = getPieceIndex();
+        int k = index.firstEndingAtOrAfter(bytePos);
+        return k < index._fcStarts.length && index._fcStarts[k] <= bytePos;
     }
 
     boolean isIndexInTable(int startBytePos, int endBytePos) {
-        for (TextPiece tp : _textPiecesFCOrder) {
-            int pieceStart = tp.getPieceDescriptor().getFilePosition();
-
-            if (startBytePos >= pieceStart + tp.bytesLength()) {
-                continue;
-            }
-
-            int left = Math.max(startBytePos, pieceStart);
-            int right = Math.min(endBytePos, pieceStart + tp.bytesLength());
-
-            if (left >= right)
-                return false;
-
-            return true;
-        }
-
-        return false;
+        PieceIndex index = getPieceIndex();
+        int k = index.firstEndingAfter(startBytePos);
+        if (k == index._fcStarts.length)
+            return false;
+
+        int left = Math.max(startBytePos, index._fcStarts[k]);
+        int right = Math.min(endBytePos, index._fcEnds[k]);
+        return left < right;
     }
 
     public int lookIndexBackward(final int startBytePos) {
-        int bytePos = startBytePos;
-        int lastEnd = 0;
-
-        for (TextPiece tp : _textPiecesFCOrder) {
-            int pieceStart = tp.getPieceDescriptor().getFilePosition();
-
-            if (bytePos > pieceStart + tp.bytesLength()) {
-                lastEnd = pieceStart + tp.bytesLength();
-                continue;
-            }
-
-            if (pieceStart > bytePos) {
-                bytePos = lastEnd;
-            }
-
-            break;
-        }
-
-        return bytePos;
+        PieceIndex index = getPieceIndex();
+        int k = index.firstEndingAtOrAfter(startBytePos);
+        if (k < index._fcStarts.length && index._fcStarts[k] > startBytePos)
+            return k == 0 ? 0 : index._fcEnds[k - 1];
+        return startBytePos;
     }
 
     public int lookIndexForward(final int startBytePos) {
         if (_textPiecesFCOrder.isEmpty())
             throw new IllegalStateException("Text pieces table is empty");
 
-        if (_textPiecesFCOrder.get(0).getPieceDescriptor().getFilePosition() > startBytePos)
-            return _textPiecesFCOrder.get(0).getPieceDescriptor().getFilePosition();
+        PieceIndex index = getPieceIndex();
+        int[] fcStarts = index._fcStarts;
+        if (fcStarts[0] > startBytePos)
+            return fcStarts[0];
 
-        if (_textPiecesFCOrder.get(_textPiecesFCOrder.size() - 1)
-                .getPieceDescriptor().getFilePosition() <= startBytePos)
+        if (fcStarts[fcStarts.length - 1] <= startBytePos)
             return startBytePos;
 
         int low = 0;
-        int high = _textPiecesFCOrder.size() - 1;
+        int high = fcStarts.length - 1;
 
         while (low <= high) {
             int mid = (low + high) >>> 1;
-            final TextPiece textPiece = _textPiecesFCOrder.get(mid);
-            int midVal = textPiece.getPieceDescriptor().getFilePosition();
+            int midVal = fcStarts[mid];
 
             if (midVal < startBytePos)
                 low = mid + 1;
@@ -384,17 +370,20 @@ public class TextPieceTable implements CharIndexTranslator {
                 high = mid - 1;
             else
                 // found piece with exact start
-                return textPiece.getPieceDescriptor().getFilePosition();
+                return midVal;
         }
-        assert low == high;
-        assert _textPiecesFCOrder.get(low).getPieceDescriptor()
-                .getFilePosition() < startBytePos;
-        // last line can't be current, can it?
-        assert _textPiecesFCOrder.get(low + 1).getPieceDescriptor()
-                .getFilePosition() > startBytePos;
-
-        // shifting to next piece start
-        return _textPiecesFCOrder.get(low + 1).getPieceDescriptor().getFilePosition();
+
+        // shifting to next piece start; low is the first piece starting
+        // after the position
+        return fcStarts[low];
+    }
+
+    private PieceIndex getPieceIndex() {
+        if (_index == null || _index._cpEnds.length != _textPieces.size()
+                || _index._fcStarts.length != _textPiecesFCOrder.size()) {
+            _index = new PieceIndex(_textPieces, _textPiecesFCOrder);
+        }
+        return _index;
     }
 
     public byte[] writeTo(HWPFOutputStream docStream) throws IOException {
@@ -429,6 +418,8 @@ public class TextPieceTable implements CharIndexTranslator {
             textPlex.addProperty(new GenericPropertyNode(nodeStart, nodeEnd,
                     pd.toByteArray()));
         }
+        // file positions have changed
+        _index = null;
 
         return textPlex.toByteArray();
     }
@@ -446,4 +437,114 @@ public class TextPieceTable implements CharIndexTranslator {
             }
         }
     }
+
+    /**
+     * Positions of the text pieces in parallel arrays, both in character and
+     * in file order, so that translations are binary searches
+     */
+    private static final class PieceIndex {
+        // in character order
+        final int[] _cpStarts;
+        final int[] _cpEnds;
+        final int[] _cpFcs;
+        final int[] _cpMultipliers;
+        /**
+         * Number of characters in the pieces before each piece
+         */
+        final int[] _charsBefore;
+
+        // in file order
+        final int[] _fcStarts;
+        final int[] _fcEnds;
+        /**
+         * Largest end of the pieces up to each piece, which is sorted even
+         * if the pieces overlap
+         */
+        final int[] _fcMaxEnds;
+        final int[] _fcCpStarts;
+        final int[] _fcMultipliers;
+        final int[] _fcToCp;
+
+        PieceIndex(List<TextPiece> cpOrder, List<TextPiece> fcOrder) {
+            int size = cpOrder.size();
+            _cpStarts = new int[size];
+            _cpEnds = new int[size];
+            _cpFcs = new int[size];
+            _cpMultipliers = new int[size];
+            _charsBefore = new int[size + 1];
+            Map<TextPiece, Integer> cpIndexes = new IdentityHashMap<TextPiece, Integer>();
+            for (int i = 0; i < size; i++) {
+                TextPiece tp = cpOrder.get(i);
+                _cpStarts[i] = tp.getStart();
+                _cpEnds[i] = tp.getEnd();
+                _cpFcs[i] = tp.getPieceDescriptor().getFilePosition();
+                _cpMultipliers[i] = tp.isUnicode() ? 2 : 1;
+                _charsBefore[i + 1] = _charsBefore[i] + tp.getEnd()
+                        - tp.getStart();
+                cpIndexes.put(tp, Integer.valueOf(i));
+            }
+
+            int fcSize = fcOrder.size();
+            _fcStarts = new int[fcSize];
+            _fcEnds = new int[fcSize];
+            _fcMaxEnds = new int[fcSize];
+            _fcCpStarts = new int[fcSize];
+            _fcMultipliers = new int[fcSize];
+            _fcToCp = new int[fcSize];
+            for (int k = 0; k < fcSize; k++) {
+                TextPiece tp = fcOrder.get(k);
+                _fcStarts[k] = tp.getPieceDescriptor().getFilePosition();
+                _fcEnds[k] = _fcStarts[k] + tp.bytesLength();
+                _fcMaxEnds[k] = k == 0 ? _fcEnds[k] : Math.max(
+                        _fcMaxEnds[k - 1], _fcEnds[k]);
+                _fcCpStarts[k] = tp.getStart();
+                _fcMultipliers[k] = tp.isUnicode() ? 2 : 1;
+                Integer cpIndex = cpIndexes.get(tp);
+                _fcToCp[k] = cpIndex == null ? -1 : cpIndex.intValue();
+            }
+        }
+
+        /**
+         * @return the first piece in file order ending at or after the given
+         * position, or the number of pieces if there is none
+         */
+        int firstEndingAtOrAfter(int bytePos) {
+            return firstMaxEndAbove(bytePos - 1);
+        }
+
+        int firstEndingAfter(int bytePos) {
+            return firstMaxEndAbove(bytePos);
+        }
+
+        private int firstMaxEndAbove(int bytePos) {
+            int low = 0;
+            int high = _fcMaxEnds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (_fcMaxEnds[mid] <= bytePos)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+
+        /**
+         * @return the last piece in file order starting at or before the
+         * given position, or -1 if there is none
+         */
+        int lastStartingAtOrBefore(int bytePos) {
+            int low = 0;
+            int high = _fcStarts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (_fcStarts[mid] <= bytePos)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low - 1;
+        }
+    }
+
 }
@@ -83,9 +83,10 @@ public final class CharacterSprmUncompressor extends SprmUncompressor {
                                    byte[] grpprl, int offset, boolean warnAboutNonChpSprms,
                                    CharacterProperties targetProperties) {
         SprmIterator sprmIt = new SprmIterator(grpprl, offset);
+        SprmOperation sprm = new SprmOperation();
 
         while (sprmIt.hasNext()) {
-            SprmOperation sprm = sprmIt.next();
+            sprmIt.next(sprm);
 
             if (sprm.getType() != 2) {
                 if (warnAboutNonChpSprms) {
@@ -103,8 +104,9 @@ public final class CharacterSprmUncompressor extends SprmUncompressor {
         Integer style = null;
         try {
             SprmIterator sprmIt = new SprmIterator(grpprl, offset);
+            SprmOperation sprm = new SprmOperation();
             while (sprmIt.hasNext()) {
-                SprmOperation sprm = sprmIt.next();
+                sprmIt.next(sprm);
 
                 if (sprm.getType() == 2 && sprm.getOperation() == 0x30) {
                     // sprmCIstd (0x4A30)
@@ -45,9 +45,10 @@ public final class ParagraphSprmUncompressor
             throw new RuntimeException("There is no way this exception should happen!!");
         }
         SprmIterator sprmIt = new SprmIterator(grpprl, offset);
+        SprmOperation sprm = new SprmOperation();
 
         while (sprmIt.hasNext()) {
-            SprmOperation sprm = sprmIt.next();
+            sprmIt.next(sprm);
 
             // PAPXs can contain table sprms if the paragraph marks the end of a
             // table row
@@ -30,9 +30,10 @@ public final class SectionSprmUncompressor extends SprmUncompressor {
         SectionProperties newProperties = new SectionProperties();
 
         SprmIterator sprmIt = new SprmIterator(grpprl, offset);
+        SprmOperation sprm = new SprmOperation();
 
         while (sprmIt.hasNext()) {
-            SprmOperation sprm = sprmIt.next();
+            sprmIt.next(sprm);
             unCompressSEPOperation(newProperties, sprm);
         }
 
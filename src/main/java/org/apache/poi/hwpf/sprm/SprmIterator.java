@@ -42,10 +42,19 @@ public final class SprmIterator {
     }
 
     public SprmOperation next() {
-        SprmOperation op = new SprmOperation(_grpprl, _offset);
-        _offset += op.size();
-        return op;
+        return next(new SprmOperation());
     }
 
+    /**
+     * Moves the given operation onto the next sprm instead of creating a new
+     * one. The operation is only valid until the next call.
+     *
+     * @return the passed operation
+     */
+    public SprmOperation next(SprmOperation operation) {
+        operation.reset(_grpprl, _offset);
+        _offset += operation.size();
+        return operation;
+    }
 
 }
@@ -25,6 +25,11 @@ import org.apache.poi.util.LittleEndian;
 /**
  * This class is used to represent a sprm operation from a Word 97/2000/XP
  * document.
+ * <p>
+ * An operation reads its opcode and operand straight from the grpprl it was
+ * created on. It can be moved to another sprm with
+ * {@link #reset(byte[], int)}, which lets {@link SprmIterator#next(SprmOperation)}
+ * walk a grpprl without allocating.
  *
  * @author Ryan Ackley
  * @version 1.0
@@ -57,11 +62,28 @@ public final class SprmOperation {
     private short _value;
 
     public SprmOperation(byte[] grpprl, int offset) {
+        reset(grpprl, offset);
+    }
+
+    /**
+     * Creates an operation which is not positioned on any sprm yet; call
+     * {@link #reset(byte[], int)} before using it.
+     */
+    public SprmOperation() {
+    }
+
+    /**
+     * Positions this operation on the sprm at the given offset
+     *
+     * @return this operation
+     */
+    public SprmOperation reset(byte[] grpprl, int offset) {
         _grpprl = grpprl;
         _value = LittleEndian.getShort(grpprl, offset);
         _offset = offset;
         _gOffset = offset + 2;
         _size = initSize(_value);
+        return this;
     }
 
     public static int getOperationFromOpcode(short opcode) {
@@ -99,22 +121,23 @@ public final class SprmOperation {
                 return LittleEndian.getInt(_grpprl, _gOffset);
             case 6:
                 // surely shorter than an int...
-                byte operandLength = _grpprl[_gOffset + 1];
-
-                // initialized to zeros by JVM
-                byte[] codeBytes = new byte[LittleEndian.INT_SIZE];
-                for (int i = 0; i < operandLength; i++)
-                    if (_gOffset + i < _grpprl.length)
-                        codeBytes[i] = _grpprl[_gOffset + 1 + i];
-
-                return LittleEndian.getInt(codeBytes, 0);
+                int operandLength = _grpprl[_gOffset + 1];
+                if (operandLength > LittleEndian.INT_SIZE)
+                    throw new IllegalStateException("Operand of SPRM 0x"
+                            + Integer.toHexString(_value & 0xffff) + " is "
+                            + operandLength
+                            + " bytes long and does not fit into an int");
+
+                int operand = 0;
+                for (int i = 0; i < operandLength
+                        && _gOffset + 1 + i < _grpprl.length; i++)
+                    operand |= (_grpprl[_gOffset + 1 + i] & 0xff) << (8 * i);
+
+                return operand;
             case 7:
-                byte threeByteInt[] = new byte[4];
-                threeByteInt[0] = _grpprl[_gOffset];
-                threeByteInt[1] = _grpprl[_gOffset + 1];
-                threeByteInt[2] = _grpprl[_gOffset + 2];
-                threeByteInt[3] = (byte) 0;
-                return LittleEndian.getInt(threeByteInt, 0);
+                return (_grpprl[_gOffset] & 0xff)
+                        | (_grpprl[_gOffset + 1] & 0xff) << 8
+                        | (_grpprl[_gOffset + 2] & 0xff) << 16;
             default:
                 throw new IllegalArgumentException(
                         "SPRM contains an invalid size code");
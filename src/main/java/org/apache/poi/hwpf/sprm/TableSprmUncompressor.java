@@ -39,9 +39,10 @@ public final class TableSprmUncompressor
         TableProperties newProperties = new TableProperties();
 
         SprmIterator sprmIt = new SprmIterator(grpprl, offset);
+        SprmOperation sprm = new SprmOperation();
 
         while (sprmIt.hasNext()) {
-            SprmOperation sprm = sprmIt.next();
+            sprmIt.next(sprm);
 
             //TAPXs are actually PAPXs so we have to make sure we are only trying to
             //uncompress the right type of sprm.
@@ -73,8 +74,9 @@ public final class TableSprmUncompressor
             tableProperties = new TableProperties((short) 1);
         }
 
+        SprmOperation sprm = new SprmOperation();
         for (SprmIterator iterator = sprmBuffer.iterator(); iterator.hasNext(); ) {
-            SprmOperation sprm = iterator.next();
+            iterator.next(sprm);
 
             /*
              * TAPXs are actually PAPXs so we have to make sure we are only
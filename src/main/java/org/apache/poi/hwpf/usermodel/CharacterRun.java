@@ -83,6 +83,12 @@ public final class CharacterRun
     SprmBuffer _chpx;
     CharacterProperties _props;
 
+    /**
+     * Whether {@link #_props} is interned in the style sheet's cache and has
+     * to be copied before it is changed
+     */
+    private boolean _propsShared;
+
     /**
      * @param chpx   The chpx this object is based on.
      * @param ss     The stylesheet for the document this run belongs to.
@@ -91,7 +97,8 @@ public final class CharacterRun
      */
     CharacterRun(CHPX chpx, StyleSheet ss, short istd, Range parent) {
         super(Math.max(parent._start, chpx.getStart()), Math.min(parent._end, chpx.getEnd()), parent);
-        _props = chpx.getCharacterProperties(ss, istd);
+        _props = chpx.getSharedCharacterProperties(ss, istd);
+        _propsShared = true;
         _chpx = chpx.getSprmBuf();
     }
 
@@ -109,7 +116,7 @@ public final class CharacterRun
     }
 
     public void markDeleted(boolean mark) {
-        _props.setFRMarkDel(mark);
+        getWritableProperties().setFRMarkDel(mark);
 
         byte newVal = (byte) (mark ? 1 : 0);
         _chpx.updateSprm(SPRM_FRMARKDEL, newVal);
@@ -121,7 +128,7 @@ public final class CharacterRun
     }
 
     public void setBold(boolean bold) {
-        _props.setFBold(bold);
+        getWritableProperties().setFBold(bold);
 
         byte newVal = (byte) (bold ? 1 : 0);
         _chpx.updateSprm(SPRM_FBOLD, newVal);
@@ -133,7 +140,7 @@ public final class CharacterRun
     }
 
     public void setItalic(boolean italic) {
-        _props.setFItalic(italic);
+        getWritableProperties().setFItalic(italic);
 
         byte newVal = (byte) (italic ? 1 : 0);
         _chpx.updateSprm(SPRM_FITALIC, newVal);
@@ -145,7 +152,7 @@ public final class CharacterRun
     }
 
     public void setOutline(boolean outlined) {
-        _props.setFOutline(outlined);
+        getWritableProperties().setFOutline(outlined);
 
         byte newVal = (byte) (outlined ? 1 : 0);
         _chpx.updateSprm(SPRM_FOUTLINE, newVal);
@@ -157,7 +164,7 @@ public final class CharacterRun
     }
 
     public void setFldVanish(boolean fldVanish) {
-        _props.setFFldVanish(fldVanish);
+        getWritableProperties().setFFldVanish(fldVanish);
 
         byte newVal = (byte) (fldVanish ? 1 : 0);
         _chpx.updateSprm(SPRM_FFLDVANISH, newVal);
@@ -169,7 +176,7 @@ public final class CharacterRun
     }
 
     public void setSmallCaps(boolean smallCaps) {
-        _props.setFSmallCaps(smallCaps);
+        getWritableProperties().setFSmallCaps(smallCaps);
 
         byte newVal = (byte) (smallCaps ? 1 : 0);
         _chpx.updateSprm(SPRM_FSMALLCAPS, newVal);
@@ -181,7 +188,7 @@ public final class CharacterRun
     }
 
     public void setCapitalized(boolean caps) {
-        _props.setFCaps(caps);
+        getWritableProperties().setFCaps(caps);
 
         byte newVal = (byte) (caps ? 1 : 0);
         _chpx.updateSprm(SPRM_FCAPS, newVal);
@@ -193,7 +200,7 @@ public final class CharacterRun
     }
 
     public void setVanished(boolean vanish) {
-        _props.setFVanish(vanish);
+        getWritableProperties().setFVanish(vanish);
 
         byte newVal = (byte) (vanish ? 1 : 0);
         _chpx.updateSprm(SPRM_FVANISH, newVal);
@@ -205,7 +212,7 @@ public final class CharacterRun
     }
 
     public void markInserted(boolean mark) {
-        _props.setFRMark(mark);
+        getWritableProperties().setFRMark(mark);
 
         byte newVal = (byte) (mark ? 1 : 0);
         _chpx.updateSprm(SPRM_FRMARK, newVal);
@@ -217,7 +224,7 @@ public final class CharacterRun
     }
 
     public void strikeThrough(boolean strike) {
-        _props.setFStrike(strike);
+        getWritableProperties().setFStrike(strike);
 
         byte newVal = (byte) (strike ? 1 : 0);
         _chpx.updateSprm(SPRM_FSTRIKE, newVal);
@@ -229,7 +236,7 @@ public final class CharacterRun
     }
 
     public void setShadow(boolean shadow) {
-        _props.setFShadow(shadow);
+        getWritableProperties().setFShadow(shadow);
 
         byte newVal = (byte) (shadow ? 1 : 0);
         _chpx.updateSprm(SPRM_FSHADOW, newVal);
@@ -241,7 +248,7 @@ public final class CharacterRun
     }
 
     public void setEmbossed(boolean emboss) {
-        _props.setFEmboss(emboss);
+        getWritableProperties().setFEmboss(emboss);
 
         byte newVal = (byte) (emboss ? 1 : 0);
         _chpx.updateSprm(SPRM_FEMBOSS, newVal);
@@ -253,7 +260,7 @@ public final class CharacterRun
     }
 
     public void setImprinted(boolean imprint) {
-        _props.setFImprint(imprint);
+        getWritableProperties().setFImprint(imprint);
 
         byte newVal = (byte) (imprint ? 1 : 0);
         _chpx.updateSprm(SPRM_FIMPRINT, newVal);
@@ -265,7 +272,7 @@ public final class CharacterRun
     }
 
     public void setDoubleStrikethrough(boolean dstrike) {
-        _props.setFDStrike(dstrike);
+        getWritableProperties().setFDStrike(dstrike);
 
         byte newVal = (byte) (dstrike ? 1 : 0);
         _chpx.updateSprm(SPRM_FDSTRIKE, newVal);
@@ -273,21 +280,21 @@ public final class CharacterRun
     }
 
     public void setFtcAscii(int ftcAscii) {
-        _props.setFtcAscii(ftcAscii);
+        getWritableProperties().setFtcAscii(ftcAscii);
 
         _chpx.updateSprm(SPRM_RGFTCASCII, (short) ftcAscii);
 
     }
 
     public void setFtcFE(int ftcFE) {
-        _props.setFtcFE(ftcFE);
+        getWritableProperties().setFtcFE(ftcFE);
 
         _chpx.updateSprm(SPRM_RGFTCFAREAST, (short) ftcFE);
 
     }
 
     public void setFtcOther(int ftcOther) {
-        _props.setFtcOther(ftcOther);
+        getWritableProperties().setFtcOther(ftcOther);
 
         _chpx.updateSprm(SPRM_RGFTCNOTFAREAST, (short) ftcOther);
 
@@ -298,7 +305,7 @@ public final class CharacterRun
     }
 
     public void setFontSize(int halfPoints) {
-        _props.setHps(halfPoints);
+        getWritableProperties().setHps(halfPoints);
 
         _chpx.updateSprm(SPRM_HPS, (short) halfPoints);
 
@@ -309,7 +316,7 @@ public final class CharacterRun
     }
 
     public void setCharacterSpacing(int twips) {
-        _props.setDxaSpace(twips);
+        getWritableProperties().setDxaSpace(twips);
 
         _chpx.updateSprm(SPRM_DXASPACE, twips);
 
@@ -320,7 +327,7 @@ public final class CharacterRun
     }
 
     public void setSubSuperScriptIndex(short iss) {
-        _props.setDxaSpace(iss);
+        getWritableProperties().setDxaSpace(iss);
 
         _chpx.updateSprm(SPRM_DXASPACE, iss);
 
@@ -331,7 +338,7 @@ public final class CharacterRun
     }
 
     public void setUnderlineCode(int kul) {
-        _props.setKul((byte) kul);
+        getWritableProperties().setKul((byte) kul);
         _chpx.updateSprm(SPRM_KUL, (byte) kul);
     }
 
@@ -340,7 +347,7 @@ public final class CharacterRun
     }
 
     public void setColor(int color) {
-        _props.setIco((byte) color);
+        getWritableProperties().setIco((byte) color);
         _chpx.updateSprm(SPRM_ICO, (byte) color);
     }
 
@@ -349,7 +356,7 @@ public final class CharacterRun
     }
 
     public void setVerticalOffset(int hpsPos) {
-        _props.setHpsPos((short) hpsPos);
+        getWritableProperties().setHpsPos((short) hpsPos);
         _chpx.updateSprm(SPRM_HPSPOS, (byte) hpsPos);
     }
 
@@ -358,7 +365,7 @@ public final class CharacterRun
     }
 
     public void setKerning(int kern) {
-        _props.setHpsKern(kern);
+        getWritableProperties().setHpsKern(kern);
         _chpx.updateSprm(SPRM_HPSKERN, (short) kern);
     }
 
@@ -367,8 +374,8 @@ public final class CharacterRun
     }
 
     public void setHighlighted(byte color) {
-        _props.setFHighlight(true);
-        _props.setIcoHighlight(color);
+        getWritableProperties().setFHighlight(true);
+        getWritableProperties().setIcoHighlight(color);
         _chpx.updateSprm(SPRM_HIGHLIGHT, color);
     }
 
@@ -389,10 +396,11 @@ public final class CharacterRun
     }
 
     public void setSpecialCharacter(boolean spec) {
-        _props.setFSpec(spec);
+        getWritableProperties().setFSpec(spec);
 
         byte newVal = (byte) (spec ? 1 : 0);
         _chpx.updateSprm(SPRM_FSPEC, newVal);
+        invalidatePictureRunIndex();
     }
 
     public boolean isObj() {
@@ -400,10 +408,11 @@ public final class CharacterRun
     }
 
     public void setObj(boolean obj) {
-        _props.setFObj(obj);
+        getWritableProperties().setFObj(obj);
 
         byte newVal = (byte) (obj ? 1 : 0);
         _chpx.updateSprm(SPRM_FOBJ, newVal);
+        invalidatePictureRunIndex();
     }
 
     public int getPicOffset() {
@@ -411,8 +420,9 @@ public final class CharacterRun
     }
 
     public void setPicOffset(int offset) {
-        _props.setFcPic(offset);
+        getWritableProperties().setFcPic(offset);
         _chpx.updateSprm(SPRM_PICLOCATION, offset);
+        invalidatePictureRunIndex();
     }
 
     /**
@@ -427,10 +437,11 @@ public final class CharacterRun
     }
 
     public void setData(boolean data) {
-        _props.setFData(data);
+        getWritableProperties().setFData(data);
 
         byte newVal = (byte) (data ? 1 : 0);
         _chpx.updateSprm(SPRM_FOBJ, newVal);
+        invalidatePictureRunIndex();
     }
 
     public boolean isOle2() {
@@ -438,10 +449,21 @@ public final class CharacterRun
     }
 
     public void setOle2(boolean ole) {
-        _props.setFOle2(ole);
+        getWritableProperties().setFOle2(ole);
 
         byte newVal = (byte) (ole ? 1 : 0);
         _chpx.updateSprm(SPRM_FOBJ, newVal);
+        invalidatePictureRunIndex();
+    }
+
+    /**
+     * Drops the document's index of special character runs, which is built
+     * from the sprms changed by the setters above
+     */
+    private void invalidatePictureRunIndex() {
+        CHPBinTable characterTable = _doc.getCharacterTable();
+        if (characterTable != null)
+            characterTable.invalidateIndex();
     }
 
     public int getObjOffset() {
@@ -449,7 +471,7 @@ public final class CharacterRun
     }
 
     public void setObjOffset(int obj) {
-        _props.setFcObj(obj);
+        getWritableProperties().setFcObj(obj);
         _chpx.updateSprm(SPRM_OBJLOCATION, obj);
     }
 
@@ -464,7 +486,7 @@ public final class CharacterRun
      * Set the ico24 field for the CHP record.
      */
     public void setIco24(int colour24) {
-        _props.setIco24(colour24);
+        getWritableProperties().setIco24(colour24);
     }
 
     /**
@@ -488,13 +510,8 @@ public final class CharacterRun
     public Object clone()
             throws CloneNotSupportedException {
         CharacterRun cp = (CharacterRun) super.clone();
-        cp._props.setDttmRMark((DateAndTime) _props.getDttmRMark().clone());
-        cp._props.setDttmRMarkDel((DateAndTime) _props.getDttmRMarkDel().clone());
-        cp._props.setDttmPropRMark((DateAndTime) _props.getDttmPropRMark().clone());
-        cp._props.setDttmDispFldRMark((DateAndTime) _props.getDttmDispFldRMark().
-                clone());
-        cp._props.setXstDispFldRMark(_props.getXstDispFldRMark().clone());
-        cp._props.setShd((ShadingDescriptor) _props.getShd().clone());
+        cp._props = _props.clone();
+        cp._propsShared = false;
 
         return cp;
     }
@@ -547,7 +564,8 @@ public final class CharacterRun
     }
 
     public BorderCode getBorder() {
-        return _props.getBrc();
+        BorderCode brc = _props.getBrc();
+        return _propsShared ? DescriptorCopies.copyOf(brc) : brc;
     }
 
     public int getLanguageCode() {
@@ -590,4 +608,12 @@ public final class CharacterRun
         return null;
     }
 
+    private CharacterProperties getWritableProperties() {
+        if (_propsShared) {
+            _props = _props.clone();
+            _propsShared = false;
+        }
+        return _props;
+    }
+
 }
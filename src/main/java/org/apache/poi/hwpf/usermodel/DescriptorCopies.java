@@ -0,0 +1,66 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.usermodel;
+
+/**
+ * Copies of the mutable descriptors held by cached (shared) paragraph and
+ * character properties, so callers can't change the cached instance.
+ */
+final class DescriptorCopies {
+
+    private DescriptorCopies() {
+        // no instances
+    }
+
+    static BorderCode copyOf(BorderCode brc) {
+        if (brc == null) {
+            return null;
+        }
+        try {
+            return (BorderCode) brc.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static LineSpacingDescriptor copyOf(LineSpacingDescriptor lspd) {
+        if (lspd == null) {
+            return null;
+        }
+        try {
+            return (LineSpacingDescriptor) lspd.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static ShadingDescriptor copyOf(ShadingDescriptor shd) {
+        if (shd == null) {
+            return null;
+        }
+        try {
+            return shd.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static DropCapSpecifier copyOf(DropCapSpecifier dcs) {
+        return dcs == null ? null : dcs.clone();
+    }
+}
@@ -92,6 +92,12 @@ public class Paragraph extends Range implements Cloneable {
     protected ParagraphProperties _props;
     protected SprmBuffer _papx;
 
+    /**
+     * Whether {@link #_props} is shared through the document's properties
+     * cache and has to be copied before it is changed
+     */
+    private boolean _propsShared;
+
     @Deprecated
     protected Paragraph(int startIdxInclusive, int endIdxExclusive,
                         Table parent) {
@@ -133,7 +139,43 @@ public class Paragraph extends Range implements Cloneable {
 
     @Internal
     static Paragraph newParagraph(Range parent, PAPX papx) {
-        HWPFDocumentCore doc = parent._doc;
+        ParagraphProperties properties = getSharedProperties(parent._doc,
+                papx);
+
+        Paragraph paragraph;
+        if (properties.getIlfo() > 0)
+            paragraph = new ListEntry(papx, properties, parent);
+        else
+            paragraph = new Paragraph(papx, properties, parent);
+        paragraph._propsShared = true;
+        return paragraph;
+    }
+
+    /**
+     * Resolves the properties of the given PAPX through the document's
+     * properties cache. The returned instance is shared and must not be
+     * changed.
+     */
+    @Internal
+    public static ParagraphProperties getSharedProperties(HWPFDocumentCore doc,
+                                                   PAPX papx) {
+        PropertiesCache<ParagraphProperties> cache = doc
+                .getParagraphPropertiesCache();
+
+        // the grpprl starts with the style index, and the list the
+        // paragraph belongs to is set by its sprms as well
+        byte[] grpprl = papx.getGrpprl();
+        ParagraphProperties properties = cache.get(grpprl);
+        if (properties == null) {
+            properties = newParagraph_resolveProperties(doc, papx, grpprl);
+            // the PAPX buffer is updated in place, the cache keeps a copy
+            cache.put(grpprl.clone(), properties);
+        }
+        return properties;
+    }
+
+    private static ParagraphProperties newParagraph_resolveProperties(
+            HWPFDocumentCore doc, PAPX papx, byte[] grpprl) {
         ListTables listTables = doc.getListTables();
         StyleSheet styleSheet = doc.getStyleSheet();
 
@@ -143,7 +185,7 @@ public class Paragraph extends Range implements Cloneable {
         properties = newParagraph_applyStyleProperties(styleSheet, papx,
                 properties);
         properties = ParagraphSprmUncompressor.uncompressPAP(properties,
-                papx.getGrpprl(), 2);
+                grpprl, 2);
 
         if (properties.getIlfo() != 0 && listTables != null) {
             LFO lfo = null;
@@ -164,15 +206,11 @@ public class Paragraph extends Range implements Cloneable {
                     properties = newParagraph_applyStyleProperties(styleSheet,
                             papx, properties);
                     properties = ParagraphSprmUncompressor.uncompressPAP(
-                            properties, papx.getGrpprl(), 2);
+                            properties, grpprl, 2);
                 }
             }
         }
-
-        if (properties.getIlfo() > 0)
-            return new ListEntry(papx, properties, parent);
-
-        return new Paragraph(papx, properties, parent);
+        return properties;
     }
 
     protected static ParagraphProperties newParagraph_applyStyleProperties(
@@ -207,7 +245,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     private void setTableRowEnd(boolean val) {
-        _props.setFTtp(val);
+        getWritableProperties().setFTtp(val);
         _papx.updateSprm(SPRM_FTTP, val);
     }
 
@@ -234,7 +272,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setJustification(byte jc) {
-        _props.setJc(jc);
+        getWritableProperties().setJc(jc);
         _papx.updateSprm(SPRM_JC, jc);
     }
 
@@ -243,7 +281,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setKeepOnPage(boolean fKeep) {
-        _props.setFKeep(fKeep);
+        getWritableProperties().setFKeep(fKeep);
         _papx.updateSprm(SPRM_FKEEP, fKeep);
     }
 
@@ -252,7 +290,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setKeepWithNext(boolean fKeepFollow) {
-        _props.setFKeepFollow(fKeepFollow);
+        getWritableProperties().setFKeepFollow(fKeepFollow);
         _papx.updateSprm(SPRM_FKEEPFOLLOW, fKeepFollow);
     }
 
@@ -261,7 +299,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setPageBreakBefore(boolean fPageBreak) {
-        _props.setFPageBreakBefore(fPageBreak);
+        getWritableProperties().setFPageBreakBefore(fPageBreak);
         _papx.updateSprm(SPRM_FPAGEBREAKBEFORE, fPageBreak);
     }
 
@@ -270,7 +308,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setLineNotNumbered(boolean fNoLnn) {
-        _props.setFNoLnn(fNoLnn);
+        getWritableProperties().setFNoLnn(fNoLnn);
         _papx.updateSprm(SPRM_FNOLINENUMB, fNoLnn);
     }
 
@@ -279,7 +317,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setSideBySide(boolean fSideBySide) {
-        _props.setFSideBySide(fSideBySide);
+        getWritableProperties().setFSideBySide(fSideBySide);
         _papx.updateSprm(SPRM_FSIDEBYSIDE, fSideBySide);
     }
 
@@ -288,7 +326,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setAutoHyphenated(boolean autoHyph) {
-        _props.setFNoAutoHyph(!autoHyph);
+        getWritableProperties().setFNoAutoHyph(!autoHyph);
         _papx.updateSprm(SPRM_FNOAUTOHYPH, !autoHyph);
     }
 
@@ -297,7 +335,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setWidowControl(boolean widowControl) {
-        _props.setFWidowControl(widowControl);
+        getWritableProperties().setFWidowControl(widowControl);
         _papx.updateSprm(SPRM_FWIDOWCONTROL, widowControl);
     }
 
@@ -306,7 +344,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setIndentFromRight(int dxaRight) {
-        _props.setDxaRight(dxaRight);
+        getWritableProperties().setDxaRight(dxaRight);
         _papx.updateSprm(SPRM_DXARIGHT, (short) dxaRight);
     }
 
@@ -315,7 +353,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setIndentFromLeft(int dxaLeft) {
-        _props.setDxaLeft(dxaLeft);
+        getWritableProperties().setDxaLeft(dxaLeft);
         _papx.updateSprm(SPRM_DXALEFT, (short) dxaLeft);
     }
 
@@ -324,16 +362,17 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setFirstLineIndent(int first) {
-        _props.setDxaLeft1(first);
+        getWritableProperties().setDxaLeft1(first);
         _papx.updateSprm(SPRM_DXALEFT1, (short) first);
     }
 
     public LineSpacingDescriptor getLineSpacing() {
-        return _props.getLspd();
+        LineSpacingDescriptor lspd = _props.getLspd();
+        return _propsShared ? DescriptorCopies.copyOf(lspd) : lspd;
     }
 
     public void setLineSpacing(LineSpacingDescriptor lspd) {
-        _props.setLspd(lspd);
+        getWritableProperties().setLspd(lspd);
         _papx.updateSprm(SPRM_DYALINE, lspd.toInt());
     }
 
@@ -342,7 +381,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setSpacingBefore(int before) {
-        _props.setDyaBefore(before);
+        getWritableProperties().setDyaBefore(before);
         _papx.updateSprm(SPRM_DYABEFORE, (short) before);
     }
 
@@ -351,7 +390,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setSpacingAfter(int after) {
-        _props.setDyaAfter(after);
+        getWritableProperties().setDyaAfter(after);
         _papx.updateSprm(SPRM_DYAAFTER, (short) after);
     }
 
@@ -360,7 +399,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setKinsoku(boolean kinsoku) {
-        _props.setFKinsoku(kinsoku);
+        getWritableProperties().setFKinsoku(kinsoku);
         _papx.updateSprm(SPRM_FKINSOKU, kinsoku);
     }
 
@@ -369,7 +408,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setWordWrapped(boolean wrap) {
-        _props.setFWordWrap(wrap);
+        getWritableProperties().setFWordWrap(wrap);
         _papx.updateSprm(SPRM_FWORDWRAP, wrap);
     }
 
@@ -378,7 +417,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setFontAlignment(int align) {
-        _props.setWAlignFont(align);
+        getWritableProperties().setWAlignFont(align);
         _papx.updateSprm(SPRM_WALIGNFONT, (short) align);
     }
 
@@ -387,7 +426,7 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setVertical(boolean vertical) {
-        _props.setFVertical(vertical);
+        getWritableProperties().setFVertical(vertical);
         _papx.updateSprm(SPRM_FRAMETEXTFLOW, getFrameTextFlow());
     }
 
@@ -396,71 +435,78 @@ public class Paragraph extends Range implements Cloneable {
     }
 
     public void setBackward(boolean bward) {
-        _props.setFBackward(bward);
+        getWritableProperties().setFBackward(bward);
         _papx.updateSprm(SPRM_FRAMETEXTFLOW, getFrameTextFlow());
     }
 
     public BorderCode getTopBorder() {
-        return _props.getBrcTop();
+        BorderCode brc = _props.getBrcTop();
+        return _propsShared ? DescriptorCopies.copyOf(brc) : brc;
     }
 
     public void setTopBorder(BorderCode top) {
-        _props.setBrcTop(top);
+        getWritableProperties().setBrcTop(top);
         _papx.updateSprm(SPRM_BRCTOP, top.toInt());
     }
 
     public BorderCode getLeftBorder() {
-        return _props.getBrcLeft();
+        BorderCode brc = _props.getBrcLeft();
+        return _propsShared ? DescriptorCopies.copyOf(brc) : brc;
     }
 
     public void setLeftBorder(BorderCode left) {
-        _props.setBrcLeft(left);
+        getWritableProperties().setBrcLeft(left);
         _papx.updateSprm(SPRM_BRCLEFT, left.toInt());
     }
 
     public BorderCode getBottomBorder() {
-        return _props.getBrcBottom();
+        BorderCode brc = _props.getBrcBottom();
+        return _propsShared ? DescriptorCopies.copyOf(brc) : brc;
     }
 
     public void setBottomBorder(BorderCode bottom) {
-        _props.setBrcBottom(bottom);
+        getWritableProperties().setBrcBottom(bottom);
         _papx.updateSprm(SPRM_BRCBOTTOM, bottom.toInt());
     }
 
     public BorderCode getRightBorder() {
-        return _props.getBrcRight();
+        BorderCode brc = _props.getBrcRight();
+        return _propsShared ? DescriptorCopies.copyOf(brc) : brc;
     }
 
     public void setRightBorder(BorderCode right) {
-        _props.setBrcRight(right);
+        getWritableProperties().setBrcRight(right);
         _papx.updateSprm(SPRM_BRCRIGHT, right.toInt());
     }
 
     public BorderCode getBarBorder() {
-        return _props.getBrcBar();
+        BorderCode brc = _props.getBrcBar();
+        return _propsShared ? DescriptorCopies.copyOf(brc) : brc;
     }
 
     public void setBarBorder(BorderCode bar) {
-        _props.setBrcBar(bar);
+        getWritableProperties().setBrcBar(bar);
         _papx.updateSprm(SPRM_BRCBAR, bar.toInt());
     }
 
     public ShadingDescriptor getShading() {
-        return _props.getShd();
+        ShadingDescriptor shd = _props.getShd();
+        return _propsShared ? DescriptorCopies.copyOf(shd) : shd;
     }
 
     public void setShading(ShadingDescriptor shd) {
-        _props.setShd(shd);
+        getWritableProperties().setShd(shd);
         //TODO: remove old one
         _papx.addSprm(SPRM_SHD, shd.serialize());
     }
 
     public DropCapSpecifier getDropCap() {
-        return _props.getDcs();
+        DropCapSpecifier dcs = _props.getDcs();
+        return _propsShared ? DescriptorCopies.copyOf(dcs) : dcs;
     }
 
     public void setDropCap(DropCapSpecifier dcs) {
-        _props.setDcs(dcs);
+        getWritableProperties().setDcs(dcs);
         _papx.updateSprm(SPRM_DCS, dcs.toShort());
     }
 
@@ -507,7 +553,8 @@ public class Paragraph extends Range implements Cloneable {
      * @return array of positions of itbdMac tab stops
      */
     public int[] getTabStopsPositions() {
-        return _props.getRgdxaTab();
+        int[] rgdxaTab = _props.getRgdxaTab();
+        return _propsShared && rgdxaTab != null ? rgdxaTab.clone() : rgdxaTab;
     }
 
     public HWPFList getList() {
@@ -539,11 +586,20 @@ public class Paragraph extends Range implements Cloneable {
             throws CloneNotSupportedException {
         Paragraph p = (Paragraph) super.clone();
         p._props = (ParagraphProperties) _props.clone();
+        p._propsShared = false;
         //p._baseStyle = _baseStyle;
         p._papx = new SprmBuffer(0);
         return p;
     }
 
+    private ParagraphProperties getWritableProperties() {
+        if (_propsShared) {
+            _props = cloneProperties();
+            _propsShared = false;
+        }
+        return _props;
+    }
+
     private short getFrameTextFlow() {
         short retVal = 0;
         if (_props.isFVertical()) {
@@ -28,6 +28,7 @@ import org.apache.poi.util.StringUtil;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
@@ -74,6 +75,7 @@ public final class Picture {
     private byte[] content;
     private int dataBlockStartOfsset;
     private int height = -1;
+    private int size = -1;
     private int width = -1;
 
     /**
@@ -129,24 +131,49 @@ public final class Picture {
         return matched;
     }
 
-    private void fillImageContent() {
-        if (content != null && content.length > 0)
-            return;
-
-        byte[] rawContent = getRawContent();
-
+    private static boolean isCompressed(byte[] rawContent) {
         /*
          * HACK: Detect compressed images. In reality there should be some way
          * to determine this from the first 32 bytes, but I can't see any
          * similarity between all the samples I have obtained, nor any
          * similarity in the data block contents.
          */
-        if (matchSignature(rawContent, COMPRESSED1, 32)
-                || matchSignature(rawContent, COMPRESSED2, 32)) {
+        return matchSignature(rawContent, COMPRESSED1, 32)
+                || matchSignature(rawContent, COMPRESSED2, 32);
+    }
+
+    private static InputStream openCompressedStream(byte[] rawContent) {
+        return new InflaterInputStream(new ByteArrayInputStream(rawContent,
+                33, rawContent.length - 33));
+    }
+
+    /**
+     * Reads the next block of picture's content, treating corrupt compressed
+     * data as the end of the content.
+     */
+    private static int readContent(InputStream in, byte[] buf) {
+        try {
+            return in.read(buf);
+        } catch (IOException e) {
+            /*
+             * Problems reading from the actual ByteArrayInputStream should
+             * never happen so this will only ever be a ZipException.
+             */
+            log.log(POILogger.INFO,
+                    "Possibly corrupt compression or non-compressed data", e);
+            return -1;
+        }
+    }
+
+    private void fillImageContent() {
+        if (content != null && content.length > 0)
+            return;
+
+        byte[] rawContent = getRawContent();
+
+        if (isCompressed(rawContent)) {
             try {
-                InflaterInputStream in = new InflaterInputStream(
-                        new ByteArrayInputStream(rawContent, 33,
-                                rawContent.length - 33));
+                InputStream in = openCompressedStream(rawContent);
                 ByteArrayOutputStream out = new ByteArrayOutputStream();
                 byte[] buf = new byte[4096];
                 int readBytes;
@@ -177,6 +204,26 @@ public final class Picture {
         }
     }
 
+    /**
+     * @return stream over picture's content, that inflates compressed
+     * pictures only as far as they are read
+     */
+    private InputStream openContentStream() {
+        if (content != null && content.length > 0)
+            return new ByteArrayInputStream(content);
+
+        byte[] rawContent = getRawContent();
+        if (isCompressed(rawContent))
+            return openCompressedStream(rawContent);
+
+        // see fillImageContent() for the prefix of PNG created on MAC
+        if (PngUtils.matchesPngHeader(rawContent, 16))
+            return new ByteArrayInputStream(rawContent, 16,
+                    rawContent.length - 16);
+
+        return new ByteArrayInputStream(rawContent);
+    }
+
     private void fillJPGWidthHeight() {
         /*
          * http://www.codecomments.com/archive281-2004-3-158083.html
@@ -193,21 +240,23 @@ public final class Picture {
          * Also used Ruby code snippet from:
          * http://www.bigbold.com/snippets/posts/show/805 for reference
          */
-        byte[] jpegContent = getContent();
+        ContentHeader jpegContent = new ContentHeader(openContentStream());
 
         int pointer = 2;
-        int firstByte = jpegContent[pointer];
-        int secondByte = jpegContent[pointer + 1];
-        int endOfPicture = jpegContent.length;
-        while (pointer < endOfPicture - 1) {
+        if (!jpegContent.has(pointer + 1))
+            return;
+
+        int firstByte;
+        int secondByte;
+        while (jpegContent.has(pointer + 1)) {
             do {
-                firstByte = jpegContent[pointer];
-                secondByte = jpegContent[pointer + 1];
+                firstByte = jpegContent.get(pointer);
+                secondByte = jpegContent.get(pointer + 1);
                 pointer += 2;
             }
-            while (!(firstByte == (byte) 0xFF) && pointer < endOfPicture - 1);
+            while (!(firstByte == (byte) 0xFF) && jpegContent.has(pointer + 1));
 
-            if (firstByte == ((byte) 0xFF) && pointer < endOfPicture - 1) {
+            if (firstByte == ((byte) 0xFF) && jpegContent.has(pointer + 1)) {
                 if (secondByte == (byte) 0xD9 || secondByte == (byte) 0xDA) {
                     break;
                 } else if ((secondByte & 0xF0) == 0xC0
@@ -215,14 +264,19 @@ public final class Picture {
                         && secondByte != (byte) 0xC8
                         && secondByte != (byte) 0xCC) {
                     pointer += 5;
-                    this.height = getBigEndianShort(jpegContent, pointer);
-                    this.width = getBigEndianShort(jpegContent, pointer + 2);
+                    if (!jpegContent.has(pointer + 3))
+                        return;
+                    this.height = jpegContent.getBigEndianShort(pointer);
+                    this.width = jpegContent.getBigEndianShort(pointer + 2);
                     break;
                 } else {
                     pointer++;
                     pointer++;
-                    int length = getBigEndianShort(jpegContent, pointer);
+                    if (!jpegContent.has(pointer + 1))
+                        return;
+                    int length = jpegContent.getBigEndianShort(pointer);
                     pointer += length;
+                    jpegContent.discardBefore(pointer);
                 }
             } else {
                 pointer++;
@@ -231,14 +285,16 @@ public final class Picture {
     }
 
     void fillPNGWidthHeight() {
-        byte[] pngContent = getContent();
         /*
          * Used PNG file format description from
          * http://www.wotsit.org/download.asp?f=png
          */
         int HEADER_START = PNG.length + 4;
-        if (matchSignature(pngContent, IHDR, HEADER_START)) {
-            int IHDR_CHUNK_WIDTH = HEADER_START + 4;
+        int IHDR_CHUNK_WIDTH = HEADER_START + 4;
+        byte[] pngContent = new ContentHeader(openContentStream())
+                .toByteArray(IHDR_CHUNK_WIDTH + 8);
+        if (matchSignature(pngContent, IHDR, HEADER_START)
+                && pngContent.length == IHDR_CHUNK_WIDTH + 8) {
             this.width = getBigEndianInt(pngContent, IHDR_CHUNK_WIDTH);
             this.height = getBigEndianInt(pngContent, IHDR_CHUNK_WIDTH + 4);
         }
@@ -408,10 +464,39 @@ public final class Picture {
     }
 
     /**
-     * @return size in bytes of the picture
+     * @return size in bytes of the picture; compressed pictures are counted
+     * while inflating, without keeping their content. Like
+     * {@link #getContent()}, corrupt compressed data gives no content, so
+     * its size is 0.
      */
     public int getSize() {
-        return getContent().length;
+        if (content != null && content.length > 0)
+            return content.length;
+
+        if (size == -1) {
+            byte[] rawContent = getRawContent();
+            if (!isCompressed(rawContent))
+                return PngUtils.matchesPngHeader(rawContent, 16) ? rawContent.length - 16
+                        : rawContent.length;
+
+            try {
+                InputStream in = openCompressedStream(rawContent);
+                byte[] buf = new byte[4096];
+                int count = 0;
+                int readBytes;
+                while ((readBytes = in.read(buf)) > 0) {
+                    count += readBytes;
+                }
+                size = count;
+            } catch (IOException e) {
+                // see fillImageContent()
+                log.log(POILogger.INFO,
+                        "Possibly corrupt compression or non-compressed data",
+                        e);
+                size = 0;
+            }
+        }
+        return size;
     }
 
     /**
@@ -543,15 +628,126 @@ public final class Picture {
      * Writes Picture's content bytes to specified OutputStream. Is useful when
      * there is need to write picture bytes directly to stream, omitting its
      * representation in memory as distinct byte array.
+     * <p>
+     * Compressed pictures are inflated block by block while writing; corrupt
+     * compressed data is logged and ends the written content.
      *
      * @param out a stream to write to
      * @throws IOException if some exception is occured while writing to specified out
      */
     public void writeImageContent(OutputStream out) throws IOException {
-        byte[] content = getContent();
         if (content != null && content.length > 0) {
             out.write(content, 0, content.length);
+            return;
+        }
+
+        InputStream in = openContentStream();
+        byte[] buf = new byte[4096];
+        int readBytes;
+        while ((readBytes = readContent(in, buf)) > 0) {
+            out.write(buf, 0, readBytes);
         }
     }
 
+    /**
+     * Leading bytes of picture's content, read from the content stream only
+     * as far as they are asked for. Bytes before the position given to
+     * {@link #discardBefore(int)} are dropped, so skipping forward does not
+     * keep the skipped content in memory.
+     */
+    private static final class ContentHeader {
+        private final InputStream _stream;
+
+        private byte[] _buffer = new byte[64];
+
+        /**
+         * Position in the content of the first buffered byte
+         */
+        private int _bufferStart;
+
+        private int _bufferLength;
+
+        private boolean _eof;
+
+        ContentHeader(InputStream stream) {
+            _stream = stream;
+        }
+
+        /**
+         * Drops the bytes before the given position, skipping content up to
+         * it without buffering. Positions before it may not be read later.
+         */
+        void discardBefore(int position) {
+            int discard = Math.min(position - _bufferStart, _bufferLength);
+            if (discard > 0) {
+                System.arraycopy(_buffer, discard, _buffer, 0, _bufferLength
+                        - discard);
+                _bufferStart += discard;
+                _bufferLength -= discard;
+            }
+
+            while (_bufferStart < position && !_eof) {
+                int skipped = read(_buffer, 0, Math.min(_buffer.length,
+                        position - _bufferStart));
+                if (skipped > 0)
+                    _bufferStart += skipped;
+            }
+        }
+
+        /**
+         * @return byte at the given position; the position must be checked with
+         * {@link #has(int)} first
+         */
+        byte get(int position) {
+            return _buffer[position - _bufferStart];
+        }
+
+        int getBigEndianShort(int position) {
+            return Picture.getBigEndianShort(_buffer, position - _bufferStart);
+        }
+
+        /**
+         * Reads the content up to the given position, if it is not read yet.
+         *
+         * @return <code>true</code> if content has a byte at the given position
+         */
+        boolean has(int position) {
+            if (position < _bufferStart)
+                return false;
+
+            while (position - _bufferStart >= _bufferLength && !_eof) {
+                if (_bufferLength == _buffer.length)
+                    _buffer = Arrays.copyOf(_buffer, _buffer.length * 2);
+
+                int readBytes = read(_buffer, _bufferLength, _buffer.length
+                        - _bufferLength);
+                if (readBytes > 0)
+                    _bufferLength += readBytes;
+            }
+            return position - _bufferStart < _bufferLength;
+        }
+
+        private int read(byte[] buf, int offset, int length) {
+            try {
+                int readBytes = _stream.read(buf, offset, length);
+                if (readBytes < 0)
+                    _eof = true;
+                return readBytes;
+            } catch (IOException e) {
+                log.log(POILogger.INFO,
+                        "Possibly corrupt compression or non-compressed data",
+                        e);
+                _eof = true;
+                return -1;
+            }
+        }
+
+        /**
+         * @return first bytes of the content, up to the given count
+         */
+        byte[] toByteArray(int count) {
+            has(count - 1);
+            return Arrays.copyOf(_buffer, Math.min(count, _bufferLength));
+        }
+    }
 }
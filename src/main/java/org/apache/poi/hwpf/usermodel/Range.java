@@ -196,6 +196,11 @@ public class Range { // TODO -instantiable superclass
         sanityCheckStartEnd();
     }
 
+    /**
+     * Keeps field results and drops field instructions, in a single pass
+     */
+    private static final TextNormalizer FIELDS_STRIPPER = new TextNormalizer();
+
     /**
      * Removes any fields (eg macros, page markers etc) from the string.
      * Normally used to make some text suitable for showing to humans, and the
@@ -210,42 +215,7 @@ public class Range { // TODO -instantiable superclass
         if (text.indexOf('\u0013') == -1)
             return text;
 
-        // Loop over until they're all gone
-        // That's when we're out of both 0x13s and 0x15s
-        while (text.indexOf('\u0013') > -1 && text.indexOf('\u0015') > -1) {
-            int first13 = text.indexOf('\u0013');
-            int next13 = text.indexOf('\u0013', first13 + 1);
-            int first14 = text.indexOf('\u0014', first13 + 1);
-            int last15 = text.lastIndexOf('\u0015');
-
-            // If they're the wrong way around, give up
-            if (last15 < first13) {
-                break;
-            }
-
-            // If no more 13s and 14s, just zap
-            if (next13 == -1 && first14 == -1) {
-                text = text.substring(0, first13) + text.substring(last15 + 1);
-                break;
-            }
-
-            // If a 14 comes before the next 13, then
-            // zap from the 13 to the 14, and remove
-            // the 15
-            if (first14 != -1 && (first14 < next13 || next13 == -1)) {
-                text = text.substring(0, first13) + text.substring(first14 + 1, last15)
-                        + text.substring(last15 + 1);
-                continue;
-            }
-
-            // Another 13 comes before the next 14.
-            // This means there's nested stuff, so we
-            // can just zap the lot
-            text = text.substring(0, first13) + text.substring(last15 + 1);
-            continue;
-        }
-
-        return text;
+        return FIELDS_STRIPPER.normalize(text);
     }
 
     private static int binarySearchStart(List<? extends PropertyNode<?>> rpl,
@@ -598,6 +568,10 @@ public class Range { // TODO -instantiable superclass
             // + " -> " + sepx.getEnd());
         }
 
+        _doc.getCharacterTable().invalidateIndex();
+        _doc.getParagraphTable().invalidateIndex();
+        _doc.getSectionTable().invalidateIndex();
+
         if (_doc instanceof HWPFDocument) {
             ((BookmarksImpl) ((HWPFDocument) _doc).getBookmarks())
                     .afterDelete(_start, (_end - _start));
@@ -820,18 +794,25 @@ public class Range { // TODO -instantiable superclass
         if (this instanceof Paragraph) {
             istd = ((Paragraph) this)._istd;
         } else {
-            int[] point = findRange(_paragraphs,
-                    Math.max(chpx.getStart(), _start),
-                    Math.min(chpx.getEnd(), _end));
+            int parIndex;
+            PropertyNodeIndex paragraphIndex = getParagraphIndex();
+            if (paragraphIndex != null) {
+                parIndex = paragraphIndex.findStartIndex(Math.max(
+                        chpx.getStart(), _start));
+            } else {
+                parIndex = findRange(_paragraphs,
+                        Math.max(chpx.getStart(), _start),
+                        Math.min(chpx.getEnd(), _end))[0];
+            }
 
             initParagraphs();
-            int parStart = Math.max(point[0], _parStart);
+            int parStart = Math.max(parIndex, _parStart);
 
             if (parStart >= _paragraphs.size()) {
                 return null;
             }
 
-            PAPX papx = _paragraphs.get(point[0]);
+            PAPX papx = _paragraphs.get(parIndex);
             istd = papx.getIstd();
         }
 
@@ -958,9 +939,15 @@ public class Range { // TODO -instantiable superclass
      */
     private void initParagraphs() {
         if (!_parRangeFound) {
-            int[] point = findRange(_paragraphs, _start, _end);
-            _parStart = point[0];
-            _parEnd = point[1];
+            PropertyNodeIndex index = getParagraphIndex();
+            if (index != null) {
+                _parStart = index.findStartIndex(_start);
+                _parEnd = index.findEndIndex(_parStart, _end);
+            } else {
+                int[] point = findRange(_paragraphs, _start, _end);
+                _parStart = point[0];
+                _parEnd = point[1];
+            }
             _parRangeFound = true;
         }
     }
@@ -970,9 +957,15 @@ public class Range { // TODO -instantiable superclass
      */
     private void initCharacterRuns() {
         if (!_charRangeFound) {
-            int[] point = findRange(_characters, _start, _end);
-            _charStart = point[0];
-            _charEnd = point[1];
+            PropertyNodeIndex index = getCharacterRunIndex();
+            if (index != null) {
+                _charStart = index.findStartIndex(_start);
+                _charEnd = index.findEndIndex(_charStart, _end);
+            } else {
+                int[] point = findRange(_characters, _start, _end);
+                _charStart = point[0];
+                _charEnd = point[1];
+            }
             _charRangeFound = true;
         }
     }
@@ -982,13 +975,90 @@ public class Range { // TODO -instantiable superclass
      */
     private void initSections() {
         if (!_sectionRangeFound) {
-            int[] point = findRange(_sections, _sectionStart, _start, _end);
-            _sectionStart = point[0];
-            _sectionEnd = point[1];
+            PropertyNodeIndex index = getSectionIndex();
+            if (index != null) {
+                findSectionRange(index);
+            } else {
+                int[] point = findRange(_sections, _sectionStart, _start, _end);
+                _sectionStart = point[0];
+                _sectionEnd = point[1];
+            }
             _sectionRangeFound = true;
         }
     }
 
+    /**
+     * @return the index of the document's paragraphs, or <code>null</code>
+     * if this range does not work on them
+     */
+    private PropertyNodeIndex getParagraphIndex() {
+        PAPBinTable table = _doc.getParagraphTable();
+        return table != null && table.getParagraphs() == _paragraphs ? table
+                .getIndex() : null;
+    }
+
+    private PropertyNodeIndex getCharacterRunIndex() {
+        CHPBinTable table = _doc.getCharacterTable();
+        return table != null && table.getTextRuns() == _characters ? table
+                .getIndex() : null;
+    }
+
+    private PropertyNodeIndex getSectionIndex() {
+        SectionTable table = _doc.getSectionTable();
+        return table != null && table.getSections() == _sections ? table
+                .getIndex() : null;
+    }
+
+    /**
+     * Same as {@link #findRange(List, int, int, int)} for the sections, but
+     * reads the positions from the index.
+     */
+    private void findSectionRange(PropertyNodeIndex index) {
+        int size = index.size();
+        int x = _sectionStart;
+
+        if (size == x) {
+            _sectionEnd = x;
+            return;
+        }
+
+        while (index.getStart(x) == PropertyNodeIndex.NO_NODE
+                || (index.getEnd(x) <= _start && x < size - 1)) {
+            x++;
+
+            if (x >= size) {
+                _sectionStart = 0;
+                _sectionEnd = 0;
+                return;
+            }
+        }
+
+        if (index.getStart(x) > _end) {
+            _sectionStart = 0;
+            _sectionEnd = 0;
+            return;
+        }
+
+        if (index.getEnd(x) <= _start) {
+            _sectionStart = size;
+            _sectionEnd = size;
+            return;
+        }
+
+        _sectionStart = x;
+        for (int y = x; y < size; y++) {
+            if (index.getStart(y) == PropertyNodeIndex.NO_NODE)
+                continue;
+
+            if (index.getStart(y) < _end && index.getEnd(y) <= _end)
+                continue;
+
+            _sectionEnd = index.getStart(y) < _end ? y + 1 : y;
+            return;
+        }
+        _sectionEnd = size;
+    }
+
     /**
      * Used to find the list indexes of a particular property.
      *
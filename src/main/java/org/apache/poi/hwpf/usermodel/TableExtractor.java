@@ -0,0 +1,184 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.usermodel;
+
+import org.apache.poi.hwpf.model.PAPX;
+import org.apache.poi.hwpf.sprm.TableSprmUncompressor;
+
+/**
+ * Streams the tables of a range to a {@link TableHandler}.
+ * <p>
+ * Finds the same tables, rows and cells as {@link TableIterator},
+ * {@link Table}, {@link TableRow} and {@link TableCell}, but resolves the
+ * properties of every paragraph only once and never creates
+ * {@link Paragraph} or other {@link Range} objects, so the work is linear in
+ * the number of paragraphs.
+ */
+public final class TableExtractor {
+    private static final char TABLE_CELL_MARK = '\u0007';
+
+    private final Range _range;
+
+    private final int _parStart;
+
+    private final int _parEnd;
+
+    /**
+     * Properties of the paragraphs of the range, resolved on first use
+     */
+    private final ParagraphProperties[] _properties;
+
+    public TableExtractor(Range range) {
+        _range = range;
+        range.numParagraphs();
+        _parStart = range._parStart;
+        _parEnd = range._parEnd;
+        _properties = new ParagraphProperties[_parEnd - _parStart];
+    }
+
+    /**
+     * Reports every table of the range, including nested ones, to the given
+     * handler.
+     */
+    public void extract(TableHandler handler) {
+        extractTables(handler, _parStart, _parEnd, 1);
+    }
+
+    private void extractTables(TableHandler handler, int from, int to,
+                               int level) {
+        int p = from;
+        while (p < to) {
+            ParagraphProperties properties = getProperties(p);
+            if (!properties.getFInTable() || properties.getItap() != level) {
+                p++;
+                continue;
+            }
+
+            int tableStart = p;
+            while (p < to && getProperties(p).getFInTable()
+                    && getProperties(p).getItap() >= level) {
+                p++;
+            }
+            extractTable(handler, tableStart, p, level);
+        }
+    }
+
+    private void extractTable(TableHandler handler, int from, int to,
+                              int level) {
+        handler.startTable(level);
+        int rowStart = from;
+        for (int p = from; p < to; p++) {
+            ParagraphProperties properties = getProperties(p);
+            if ((properties.getFTtp() || properties.getFTtpEmbedded())
+                    && properties.getItap() == level) {
+                extractRow(handler, rowStart, p + 1, level);
+                rowStart = p + 1;
+            }
+        }
+        handler.endTable(level);
+    }
+
+    private void extractRow(TableHandler handler, int from, int to, int level) {
+        PAPX rowEnd = _range._paragraphs.get(to - 1);
+        TableProperties tprops = TableSprmUncompressor.uncompressTAP(rowEnd
+                .getSprmBuf());
+
+        // bounds of the cells as paragraph indexes, and whether they hold
+        // nested tables
+        int[] cellStarts = new int[to - from + 1];
+        int[] cellEnds = new int[to - from + 1];
+        boolean[] nested = new boolean[to - from + 1];
+        int cells = 0;
+
+        int lastCellStart = from;
+        boolean hasNested = false;
+        for (int p = from; p < to; p++) {
+            ParagraphProperties properties = getProperties(p);
+            hasNested |= properties.getItap() > level;
+
+            int end = getEnd(p);
+            boolean cellMark = end > getStart(p)
+                    && _range._text.charAt(end - 1) == TABLE_CELL_MARK;
+            if ((cellMark || properties.getFInnerTableCell())
+                    && properties.getItap() == level) {
+                cellStarts[cells] = lastCellStart;
+                cellEnds[cells] = p + 1;
+                nested[cells] = hasNested;
+                cells++;
+                lastCellStart = p + 1;
+                hasNested = false;
+            }
+        }
+
+        // paragraphs left before the row end paragraph form one more cell
+        if (lastCellStart < to - 1) {
+            cellStarts[cells] = lastCellStart;
+            cellEnds[cells] = to - 1;
+            nested[cells] = hasNested;
+            cells++;
+        }
+
+        // remove "fake" cell
+        if (cells > 0 && cellEnds[cells - 1] - cellStarts[cells - 1] == 1) {
+            ParagraphProperties last = getProperties(cellStarts[cells - 1]);
+            if (last.getFTtp() || last.getFTtpEmbedded()) {
+                cells--;
+            }
+        }
+
+        handler.startRow(level, tprops);
+        TableCellDescriptor[] rgtc = tprops.getRgtc();
+        short[] rgdxaCenter = tprops.getRgdxaCenter();
+        for (int c = 0; c < cells; c++) {
+            if (nested[c]) {
+                extractTables(handler, cellStarts[c], cellEnds[c], level + 1);
+            }
+
+            TableCellDescriptor descriptor = rgtc != null && rgtc.length > c ? rgtc[c]
+                    : new TableCellDescriptor();
+            int leftEdge = rgdxaCenter != null && rgdxaCenter.length > c ? rgdxaCenter[c]
+                    : 0;
+            int rightEdge = rgdxaCenter != null && rgdxaCenter.length > c + 1 ? rgdxaCenter[c + 1]
+                    : 0;
+            String text = _range._text.substring(getStart(cellStarts[c]),
+                    getEnd(cellEnds[c] - 1));
+            handler.cell(level, c, text, leftEdge, rightEdge - leftEdge,
+                    descriptor);
+        }
+        handler.endRow(level);
+    }
+
+    private ParagraphProperties getProperties(int index) {
+        ParagraphProperties properties = _properties[index - _parStart];
+        if (properties == null) {
+            properties = Paragraph.getSharedProperties(_range._doc,
+                    _range._paragraphs.get(index));
+            _properties[index - _parStart] = properties;
+        }
+        return properties;
+    }
+
+    private int getStart(int index) {
+        return Math.max(_range._start, _range._paragraphs.get(index)
+                .getStart());
+    }
+
+    private int getEnd(int index) {
+        return Math.min(_range._end, _range._paragraphs.get(index).getEnd());
+    }
+}
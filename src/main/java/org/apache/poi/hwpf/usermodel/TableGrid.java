@@ -0,0 +1,218 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.usermodel;
+
+import java.util.Arrays;
+
+/**
+ * Layout of a {@link Table} on a grid of columns, as used by the converters:
+ * columns are bounded by the merged cell edges of all rows, each cell spans
+ * the columns up to its right edge and a first vertically merged cell spans
+ * the rows its merge continues through.
+ * <p>
+ * All values are computed once, in one pass over the cells, so the grid
+ * should be built once per table and then queried.
+ */
+public final class TableGrid {
+    private final int[] _columnEdges;
+
+    /**
+     * Per row and cell: index of the first column of the cell
+     */
+    private final int[][] _columns;
+
+    /**
+     * Per row and cell: number of columns spanned by the cell
+     */
+    private final int[][] _colSpans;
+
+    /**
+     * Per row and cell: number of rows spanned by the cell
+     */
+    private final int[][] _rowSpans;
+
+    public TableGrid(Table table) {
+        final int numRows = table.numRows();
+
+        int edgesCount = 0;
+        for (int r = 0; r < numRows; r++) {
+            edgesCount += table.getRow(r).numCells() * 2;
+        }
+        int[] edges = new int[edgesCount];
+        edgesCount = 0;
+        for (int r = 0; r < numRows; r++) {
+            TableRow tableRow = table.getRow(r);
+            for (int c = 0; c < tableRow.numCells(); c++) {
+                TableCell tableCell = tableRow.getCell(c);
+                edges[edgesCount++] = tableCell.getLeftEdge();
+                edges[edgesCount++] = tableCell.getLeftEdge()
+                        + tableCell.getWidth();
+            }
+        }
+        _columnEdges = sortUnique(edges);
+
+        _columns = new int[numRows][];
+        _colSpans = new int[numRows][];
+        _rowSpans = new int[numRows][];
+        boolean[] hasCells = new boolean[numRows];
+        for (int r = 0; r < numRows; r++) {
+            TableRow tableRow = table.getRow(r);
+            final int rowCells = tableRow.numCells();
+            _columns[r] = new int[rowCells];
+            _colSpans[r] = new int[rowCells];
+
+            int currentEdgeIndex = 0;
+            for (int c = 0; c < rowCells; c++) {
+                TableCell tableCell = tableRow.getCell(c);
+                int cellRightEdge = tableCell.getLeftEdge()
+                        + tableCell.getWidth();
+                int nextEdgeIndex = currentEdgeIndex;
+                while (_columnEdges[nextEdgeIndex] < cellRightEdge)
+                    nextEdgeIndex++;
+
+                _columns[r][c] = currentEdgeIndex;
+                _colSpans[r][c] = nextEdgeIndex - currentEdgeIndex;
+                currentEdgeIndex = nextEdgeIndex;
+
+                // rows without any visible cell are skipped by vertical merges
+                hasCells[r] |= _colSpans[r][c] != 0
+                        && !isMergedWithAbove(tableCell);
+            }
+        }
+
+        /*
+         * Bottom-up pass: continued[c] is the number of rows, starting with
+         * the row below the current one, that continue a vertical merge of
+         * the cell with index c
+         */
+        int[] continued = new int[0];
+        for (int r = numRows - 1; r >= 0; r--) {
+            TableRow tableRow = table.getRow(r);
+            final int rowCells = tableRow.numCells();
+
+            _rowSpans[r] = new int[rowCells];
+            for (int c = 0; c < rowCells; c++) {
+                _rowSpans[r][c] = tableRow.getCell(c)
+                        .isFirstVerticallyMerged() ? 1 + get(continued, c) : 1;
+            }
+
+            if (!hasCells[r]) {
+                // keep merges of the row below, except cells the row lacks
+                if (continued.length > rowCells)
+                    continued = Arrays.copyOf(continued, rowCells);
+                continue;
+            }
+
+            int[] current = new int[rowCells];
+            for (int c = 0; c < rowCells; c++) {
+                if (isMergedWithAbove(tableRow.getCell(c)))
+                    current[c] = 1 + get(continued, c);
+            }
+            continued = current;
+        }
+    }
+
+    private static int get(int[] array, int index) {
+        return index < array.length ? array[index] : 0;
+    }
+
+    private static boolean isMergedWithAbove(TableCell tableCell) {
+        return tableCell.isVerticallyMerged()
+                && !tableCell.isFirstVerticallyMerged();
+    }
+
+    private static int[] sortUnique(int[] values) {
+        if (values.length == 0)
+            return values;
+
+        Arrays.sort(values);
+        int count = 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[count - 1])
+                values[count++] = values[i];
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * @return index of the cell of the given row that covers the given
+     * column, or -1 if there is no such cell
+     */
+    public int getCellAt(int row, int column) {
+        int[] columns = _columns[row];
+        int low = 0;
+        int high = columns.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (columns[mid] <= column) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (found == -1
+                || column >= columns[found] + _colSpans[row][found])
+            return -1;
+        return found;
+    }
+
+    public int getCellsCount(int row) {
+        return _columns[row].length;
+    }
+
+    /**
+     * @return number of columns spanned by the cell; 0 if the cell does not
+     * reach the next column edge
+     */
+    public int getColSpan(int row, int cell) {
+        return _colSpans[row][cell];
+    }
+
+    /**
+     * @return index of the first column of the cell
+     */
+    public int getColumn(int row, int cell) {
+        return _columns[row][cell];
+    }
+
+    /**
+     * @return sorted edges of all cells (including the leftmost one) in twips
+     */
+    public int[] getColumnEdges() {
+        return _columnEdges.clone();
+    }
+
+    public int getColumnsCount() {
+        return Math.max(0, _columnEdges.length - 1);
+    }
+
+    /**
+     * @return number of rows spanned by the cell, 1 for cells that do not
+     * start a vertical merge
+     */
+    public int getRowSpan(int row, int cell) {
+        return _rowSpans[row][cell];
+    }
+
+    public int getRowsCount() {
+        return _columns.length;
+    }
+}
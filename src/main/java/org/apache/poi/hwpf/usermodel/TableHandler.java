@@ -0,0 +1,51 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.usermodel;
+
+/**
+ * Receives the tables found by {@link TableExtractor}. Tables nested in a
+ * cell are reported completely before the cell which contains them.
+ */
+public interface TableHandler {
+    /**
+     * @param level nesting level of the table, 1 for top level tables
+     */
+    void startTable(int level);
+
+    /**
+     * @param level      nesting level of the table the row belongs to
+     * @param properties properties of the row, uncompressed from the row end
+     *                   paragraph for this call only
+     */
+    void startRow(int level, TableProperties properties);
+
+    /**
+     * @param level      nesting level of the table the cell belongs to
+     * @param index      index of the cell in its row
+     * @param text       text of the cell, including paragraph and cell marks
+     * @param leftEdge   left edge of the cell in twips
+     * @param width      width of the cell in twips
+     * @param descriptor merge flags, borders and alignment of the cell
+     */
+    void cell(int level, int index, String text, int leftEdge, int width,
+              TableCellDescriptor descriptor);
+
+    void endRow(int level);
+
+    void endTable(int level);
+}
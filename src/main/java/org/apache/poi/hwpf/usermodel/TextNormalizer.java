@@ -0,0 +1,221 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.usermodel;
+
+import java.io.IOException;
+
+/**
+ * Single pass filter for document text. Depending on its settings it
+ * <ul>
+ * <li>removes field instructions but keeps field results, including those of
+ * nested fields;</li>
+ * <li>replaces control characters with spaces;</li>
+ * <li>turns paragraph ends into line endings the way
+ * {@link org.apache.poi.hwpf.extractor.WordExtractor#getTextFromPieces()}
+ * always did.</li>
+ * </ul>
+ * The text is read once and written straight to an {@link Appendable}, so
+ * the work is linear in the length of the text. Instances may be shared
+ * between threads once configured.
+ */
+public final class TextNormalizer {
+    private static final char FIELD_BEGIN_MARK = '\u0013';
+    private static final char FIELD_SEPARATOR_MARK = '\u0014';
+    private static final char FIELD_END_MARK = '\u0015';
+
+    private boolean _stripFields = true;
+
+    private boolean _controlCharactersToSpaces;
+
+    private boolean _fixLineEndings;
+
+    public boolean isStripFields() {
+        return _stripFields;
+    }
+
+    /**
+     * @param stripFields whether to drop field instructions and marks and keep
+     *                    only field results (default <code>true</code>)
+     */
+    public void setStripFields(boolean stripFields) {
+        _stripFields = stripFields;
+    }
+
+    public boolean isControlCharactersToSpaces() {
+        return _controlCharactersToSpaces;
+    }
+
+    /**
+     * @param controlCharactersToSpaces whether to write characters 1 to 31,
+     *                                  including paragraph and cell marks, as
+     *                                  spaces (default <code>false</code>)
+     */
+    public void setControlCharactersToSpaces(boolean controlCharactersToSpaces) {
+        _controlCharactersToSpaces = controlCharactersToSpaces;
+    }
+
+    public boolean isFixLineEndings() {
+        return _fixLineEndings;
+    }
+
+    /**
+     * @param fixLineEndings whether to write runs of paragraph ends as CR LF
+     *                       pairs (default <code>false</code>). A single
+     *                       paragraph end inside the text stays a lone CR, as
+     *                       in {@link org.apache.poi.hwpf.extractor.WordExtractor#getTextFromPieces()}.
+     */
+    public void setFixLineEndings(boolean fixLineEndings) {
+        _fixLineEndings = fixLineEndings;
+    }
+
+    public String normalize(CharSequence text) {
+        StringBuilder builder = new StringBuilder(text.length() + 16);
+        try {
+            normalize(text, 0, text.length(), builder);
+        } catch (IOException exc) {
+            // StringBuilder does not throw
+            throw new IllegalStateException(exc);
+        }
+        return builder.toString();
+    }
+
+    public void normalize(CharSequence text, Appendable out) throws IOException {
+        normalize(text, 0, text.length(), out);
+    }
+
+    /**
+     * Writes the normalized characters <code>start</code> to
+     * <code>end</code> of the given text to the given output
+     */
+    public void normalize(CharSequence text, int start, int end,
+                          Appendable out) throws IOException {
+        Sink sink = new Sink(out);
+        if (!_stripFields) {
+            sink.write(text, start, end);
+            sink.finish();
+            return;
+        }
+
+        // for every open field, whether its separator has been passed
+        boolean[] inResult = new boolean[8];
+        int depth = 0;
+        // number of open fields still in their instructions
+        int instructionDepth = 0;
+
+        int segmentStart = start;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != FIELD_BEGIN_MARK && c != FIELD_SEPARATOR_MARK
+                    && c != FIELD_END_MARK)
+                continue;
+
+            if (instructionDepth == 0) {
+                sink.write(text, segmentStart, i);
+            }
+            segmentStart = i + 1;
+
+            if (c == FIELD_BEGIN_MARK) {
+                if (depth == inResult.length) {
+                    boolean[] grown = new boolean[depth * 2];
+                    System.arraycopy(inResult, 0, grown, 0, depth);
+                    inResult = grown;
+                }
+                inResult[depth++] = false;
+                instructionDepth++;
+            } else if (c == FIELD_SEPARATOR_MARK) {
+                if (depth > 0 && !inResult[depth - 1]) {
+                    inResult[depth - 1] = true;
+                    instructionDepth--;
+                }
+            } else if (depth > 0) {
+                depth--;
+                if (!inResult[depth]) {
+                    instructionDepth--;
+                }
+            }
+        }
+        if (instructionDepth == 0) {
+            sink.write(text, segmentStart, end);
+        }
+        sink.finish();
+    }
+
+    /**
+     * Output side of one call, holding back paragraph ends until it is known
+     * how many follow each other
+     */
+    private final class Sink {
+        private final Appendable _out;
+
+        private int _pendingParagraphEnds;
+
+        Sink(Appendable out) {
+            _out = out;
+        }
+
+        void write(CharSequence text, int start, int end) throws IOException {
+            int from = start;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c >= 32 || c == 0)
+                    continue;
+
+                if (_controlCharactersToSpaces) {
+                    append(text, from, i);
+                    flushParagraphEnds(false);
+                    _out.append(' ');
+                    from = i + 1;
+                } else if (_fixLineEndings && c == '\r') {
+                    append(text, from, i);
+                    _pendingParagraphEnds++;
+                    from = i + 1;
+                }
+            }
+            append(text, from, end);
+        }
+
+        void finish() throws IOException {
+            flushParagraphEnds(true);
+        }
+
+        private void append(CharSequence text, int start, int end)
+                throws IOException {
+            if (start < end) {
+                flushParagraphEnds(false);
+                _out.append(text, start, end);
+            }
+        }
+
+        private void flushParagraphEnds(boolean atEnd) throws IOException {
+            int count = _pendingParagraphEnds;
+            if (count == 0)
+                return;
+            _pendingParagraphEnds = 0;
+
+            // runs of three and then of two become CR LF pairs; one CR left
+            // over stays alone unless it ends the text
+            int lone = count % 3 == 1 ? 1 : 0;
+            for (int i = 0; i < count - lone; i++) {
+                _out.append("\r\n");
+            }
+            if (lone != 0) {
+                _out.append(atEnd ? "\r\n" : "\r");
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.extractor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import junit.framework.TestCase;
+
+public final class TestBatchTextExtractor extends TestCase {
+    private static final File SAMPLE = new File("test/20030523jm.doc");
+
+    private static final long JOIN_MILLIS = 30000;
+
+    public void testProcessAfterClose() throws Exception {
+        final BatchTextExtractor extractor = new BatchTextExtractor(1,
+                1L << 30);
+        extractor.close();
+
+        final Throwable[] failure = new Throwable[1];
+        Thread caller = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    extractor.process(Collections.singletonList(SAMPLE),
+                            new ExtractionCallback() {
+                                public void extracted(ExtractionResult result) {
+                                    // nothing is extracted
+                                }
+                            });
+                } catch (Throwable exc) {
+                    failure[0] = exc;
+                }
+            }
+        });
+        caller.setDaemon(true);
+        caller.start();
+        caller.join(JOIN_MILLIS);
+
+        assertFalse("process() did not return", caller.isAlive());
+        assertTrue(String.valueOf(failure[0]),
+                failure[0] instanceof RejectedExecutionException);
+        assertEquals(0, extractor.getStatistics().getFiles());
+    }
+
+    public void testIteratorHoldsBackWorkersForSlowConsumer()
+            throws Exception {
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 6; i++) {
+            files.add(SAMPLE);
+        }
+
+        BatchTextExtractor extractor = new BatchTextExtractor(1, 1L << 30);
+        try {
+            Iterator<ExtractionResult> results = extractor.iterator(files);
+
+            // one result waits for the consumer, one for room in the queue
+            Thread.sleep(1000);
+            assertTrue(extractor.getStatistics().getFiles() <= 2);
+
+            int count = 0;
+            while (results.hasNext()) {
+                ExtractionResult result = results.next();
+                assertEquals(SAMPLE, result.getFile());
+                count++;
+            }
+            assertEquals(files.size(), count);
+            assertFalse(results.hasNext());
+        } finally {
+            extractor.close();
+        }
+    }
+}
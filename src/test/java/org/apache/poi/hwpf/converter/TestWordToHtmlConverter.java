@@ -0,0 +1,89 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import java.io.File;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.TestCase;
+
+import org.apache.poi.hwpf.HWPFDocument;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Pins the class attributes of note anchors, which the DOM and the
+ * streaming converters build with the same code.
+ */
+public final class TestWordToHtmlConverter extends TestCase {
+    private static HWPFDocument openSample() throws Exception {
+        return new HWPFDocument(new File("test/20030523jm.doc"), "111111");
+    }
+
+    private static Document newDocument() throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .newDocument();
+    }
+
+    private static Element findByClass(Element root, String tagName,
+                                       String className) {
+        NodeList elements = root.getElementsByTagName(tagName);
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            if (element.getAttribute("class").endsWith(className))
+                return element;
+        }
+        fail("No " + tagName + " with class " + className);
+        return null;
+    }
+
+    public void testNoteAnchorsListStyleClassFirst() throws Exception {
+        HWPFDocument doc = openSample();
+        HtmlDocumentFacade facade = new HtmlDocumentFacade(newDocument());
+        WordToHtmlConverter converter = new WordToHtmlConverter(facade);
+
+        Element block = facade.createParagraph();
+        facade.getBody().appendChild(block);
+        converter.processEndnoteAutonumbered(doc, 0, block, doc.getRange());
+        converter.afterProcess();
+
+        Element body = facade.getBody();
+        assertEquals("a1 endnoteanchor",
+                findByClass(body, "a", "endnoteanchor").getAttribute("class"));
+        assertEquals("a1 endnoteindex",
+                findByClass(body, "a", "endnoteindex").getAttribute("class"));
+    }
+
+    public void testInlineStylesNoteAnchor() throws Exception {
+        HWPFDocument doc = openSample();
+        HtmlDocumentFacade facade = new InlineStylesHtmlDocumentFacade(
+                newDocument());
+        WordToHtmlConverter converter = new WordToHtmlConverter(facade);
+
+        Element block = facade.createParagraph();
+        facade.getBody().appendChild(block);
+        converter.processFootnoteAutonumbered(doc, 0, block, doc.getRange());
+
+        Element anchor = findByClass(block, "a", "footnoteanchor");
+        assertEquals("footnoteanchor", anchor.getAttribute("class"));
+        assertEquals("vertical-align:super;font-size:smaller;",
+                anchor.getAttribute("style"));
+    }
+}
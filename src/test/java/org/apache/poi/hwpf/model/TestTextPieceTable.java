@@ -0,0 +1,331 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.poi.util.LittleEndian;
+
+/**
+ * Compares the indexed lookups of {@link TextPieceTable} with linear scans
+ * over its pieces, which is how the table answered them before it had an
+ * index.
+ */
+public final class TestTextPieceTable extends TestCase {
+    private static final int FC_MIN = 0x400;
+
+    /**
+     * Builds a piece table whose pieces follow each other in character
+     * order, with the given lengths, file positions and encodings.
+     */
+    private static TextPieceTable createTable(int[] lengths, int[] fcs,
+                                              boolean[] unicode) {
+        int documentSize = FC_MIN;
+        PlexOfCps pieceTable = new PlexOfCps(PieceDescriptor.getSizeInBytes());
+        int cp = 0;
+        for (int x = 0; x < lengths.length; x++) {
+            byte[] pd = new byte[PieceDescriptor.getSizeInBytes()];
+            int storedFc = unicode[x] ? fcs[x] : fcs[x] * 2 | 0x40000000;
+            LittleEndian.putInt(pd, LittleEndian.SHORT_SIZE, storedFc);
+            pieceTable.addProperty(new GenericPropertyNode(cp, cp
+                    + lengths[x], pd));
+            cp += lengths[x];
+
+            documentSize = Math.max(documentSize, fcs[x] + lengths[x]
+                    * (unicode[x] ? 2 : 1));
+        }
+        byte[] tableStream = pieceTable.toByteArray();
+        return new TextPieceTable(new byte[documentSize], tableStream, 0,
+                tableStream.length, FC_MIN);
+    }
+
+    /**
+     * Fast-save layout: pieces stored in reverse character order, with
+     * alternating encodings
+     */
+    private static TextPieceTable createReversedTable(int pieces, int length) {
+        int[] lengths = new int[pieces];
+        int[] fcs = new int[pieces];
+        boolean[] unicode = new boolean[pieces];
+        int fc = FC_MIN;
+        for (int x = pieces - 1; x >= 0; x--) {
+            lengths[x] = length;
+            unicode[x] = x % 2 == 0;
+            fcs[x] = fc;
+            fc += length * (unicode[x] ? 2 : 1);
+        }
+        return createTable(lengths, fcs, unicode);
+    }
+
+    /**
+     * Shuffled pieces of random lengths, with gaps between them in the
+     * file and, if asked for, pieces overlapping each other
+     */
+    private static TextPieceTable createRandomTable(Random random, int pieces,
+                                                    boolean overlapping) {
+        int[] lengths = new int[pieces];
+        boolean[] unicode = new boolean[pieces];
+        Integer[] fileOrder = new Integer[pieces];
+        for (int x = 0; x < pieces; x++) {
+            lengths[x] = 1 + random.nextInt(6);
+            unicode[x] = random.nextBoolean();
+            fileOrder[x] = Integer.valueOf(x);
+        }
+        Collections.shuffle(Arrays.asList(fileOrder), random);
+
+        int[] fcs = new int[pieces];
+        int fc = FC_MIN;
+        for (Integer x : fileOrder) {
+            int bytes = lengths[x.intValue()] * (unicode[x.intValue()] ? 2 : 1);
+            if (overlapping && fc > FC_MIN && random.nextInt(3) == 0) {
+                fc -= Math.min(fc - FC_MIN, 1 + random.nextInt(bytes));
+            }
+            fcs[x.intValue()] = fc;
+            fc += bytes + random.nextInt(3);
+        }
+        return createTable(lengths, fcs, unicode);
+    }
+
+    private static int getFc(TextPiece tp) {
+        return tp.getPieceDescriptor().getFilePosition();
+    }
+
+    private static List<TextPiece> getFcOrder(TextPieceTable tpt) {
+        List<TextPiece> fcOrder = new ArrayList<TextPiece>(
+                tpt.getTextPieces());
+        Collections.sort(fcOrder, new Comparator<TextPiece>() {
+            public int compare(TextPiece o1, TextPiece o2) {
+                return getFc(o1) < getFc(o2) ? -1 : getFc(o1) == getFc(o2) ? 0
+                        : 1;
+            }
+        });
+        return fcOrder;
+    }
+
+    private static int linearGetByteIndex(TextPieceTable tpt, int charPos) {
+        int byteCount = 0;
+        for (TextPiece tp : tpt.getTextPieces()) {
+            int multiplier = tp.isUnicode() ? 2 : 1;
+            if (charPos >= tp.getEnd()) {
+                byteCount = getFc(tp) + (tp.getEnd() - tp.getStart())
+                        * multiplier;
+                if (charPos == tp.getEnd())
+                    break;
+                continue;
+            }
+            byteCount = getFc(tp) + (charPos - tp.getStart()) * multiplier;
+            break;
+        }
+        return byteCount;
+    }
+
+    private static int linearLookIndexForward(List<TextPiece> fcOrder,
+                                              int bytePos) {
+        for (TextPiece tp : fcOrder) {
+            if (getFc(tp) >= bytePos)
+                return getFc(tp);
+        }
+        return bytePos;
+    }
+
+    private static int linearLookIndexBackward(List<TextPiece> fcOrder,
+                                               int startBytePos) {
+        int bytePos = startBytePos;
+        int lastEnd = 0;
+        for (TextPiece tp : fcOrder) {
+            int pieceStart = getFc(tp);
+            if (bytePos > pieceStart + tp.bytesLength()) {
+                lastEnd = pieceStart + tp.bytesLength();
+                continue;
+            }
+            if (pieceStart > bytePos)
+                bytePos = lastEnd;
+            break;
+        }
+        return bytePos;
+    }
+
+    private static boolean linearIsIndexInTable(List<TextPiece> fcOrder,
+                                                int bytePos) {
+        for (TextPiece tp : fcOrder) {
+            int pieceStart = getFc(tp);
+            if (bytePos > pieceStart + tp.bytesLength())
+                continue;
+            return pieceStart <= bytePos;
+        }
+        return false;
+    }
+
+    private static int linearGetCharIndex(TextPieceTable tpt,
+                                          List<TextPiece> fcOrder, int startBytePos, int startCP) {
+        int charCount = 0;
+        int bytePos = linearLookIndexForward(fcOrder, startBytePos);
+        for (TextPiece tp : tpt.getTextPieces()) {
+            int pieceStart = getFc(tp);
+            int bytesLength = tp.bytesLength();
+            int pieceEnd = pieceStart + bytesLength;
+
+            int toAdd;
+            if (bytePos < pieceStart || bytePos > pieceEnd) {
+                toAdd = bytesLength;
+            } else if (bytePos > pieceStart && bytePos < pieceEnd) {
+                toAdd = bytePos - pieceStart;
+            } else {
+                toAdd = bytesLength - (pieceEnd - bytePos);
+            }
+            charCount += tp.isUnicode() ? toAdd / 2 : toAdd;
+
+            if (bytePos >= pieceStart && bytePos <= pieceEnd
+                    && charCount >= startCP)
+                break;
+        }
+        return charCount;
+    }
+
+    private static int[][] linearGetCharIndexRanges(List<TextPiece> fcOrder,
+                                                    int startBytePosInclusive, int endBytePosExclusive) {
+        List<int[]> result = new ArrayList<int[]>();
+        for (TextPiece tp : fcOrder) {
+            final int tpStart = getFc(tp);
+            final int tpEnd = tpStart + tp.bytesLength();
+            if (startBytePosInclusive > tpEnd)
+                continue;
+            if (endBytePosExclusive < tpStart)
+                break;
+
+            final int rangeStartBytes = Math.max(tpStart,
+                    startBytePosInclusive);
+            final int rangeEndBytes = Math.min(tpEnd, endBytePosExclusive);
+            if (rangeStartBytes > rangeEndBytes)
+                continue;
+
+            final int multiplier = tp.isUnicode() ? 2 : 1;
+            final int rangeStartCp = tp.getStart()
+                    + (rangeStartBytes - tpStart) / multiplier;
+            result.add(new int[]{rangeStartCp,
+                    rangeStartCp + (rangeEndBytes - rangeStartBytes) / multiplier});
+        }
+        return result.toArray(new int[result.size()][]);
+    }
+
+    private static void assertRangesEqual(String message, int[][] expected,
+                                          int[][] actual) {
+        assertEquals(message, expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue(message, Arrays.equals(expected[i], actual[i]));
+        }
+    }
+
+    /**
+     * Checks every lookup at every character and byte position of the
+     * table, including one past both ends and every piece boundary.
+     */
+    @SuppressWarnings("deprecation")
+    private static void assertMatchesLinearScan(TextPieceTable tpt) {
+        List<TextPiece> pieces = tpt.getTextPieces();
+        List<TextPiece> fcOrder = getFcOrder(tpt);
+
+        int cpEnd = pieces.get(pieces.size() - 1).getEnd();
+        for (int cp = 0; cp <= cpEnd + 1; cp++) {
+            assertEquals("byte index of " + cp, linearGetByteIndex(tpt, cp),
+                    tpt.getByteIndex(cp));
+        }
+
+        int fcEnd = 0;
+        for (TextPiece tp : pieces) {
+            fcEnd = Math.max(fcEnd, getFc(tp) + tp.bytesLength());
+        }
+        int[] startCps = {0, 1, cpEnd / 2, cpEnd};
+        for (int fc = FC_MIN - 2; fc <= fcEnd + 2; fc++) {
+            String at = " at " + fc;
+            assertEquals("forward" + at, linearLookIndexForward(fcOrder, fc),
+                    tpt.lookIndexForward(fc));
+            assertEquals("backward" + at,
+                    linearLookIndexBackward(fcOrder, fc),
+                    tpt.lookIndexBackward(fc));
+            assertEquals("in table" + at, linearIsIndexInTable(fcOrder, fc),
+                    tpt.isIndexInTable(fc));
+            for (int startCp : startCps) {
+                assertEquals("char index" + at + " from " + startCp,
+                        linearGetCharIndex(tpt, fcOrder, fc, startCp),
+                        tpt.getCharIndex(fc, startCp));
+            }
+            for (int length = 0; length <= 8; length++) {
+                assertRangesEqual("ranges" + at + " length " + length,
+                        linearGetCharIndexRanges(fcOrder, fc, fc + length),
+                        tpt.getCharIndexRanges(fc, fc + length));
+            }
+        }
+    }
+
+    public void testReversedPiecesMatchLinearScan() {
+        assertMatchesLinearScan(createReversedTable(40, 5));
+    }
+
+    public void testShuffledPiecesWithGapsMatchLinearScan() {
+        Random random = new Random(12345);
+        for (int i = 0; i < 20; i++) {
+            assertMatchesLinearScan(createRandomTable(random,
+                    1 + random.nextInt(30), false));
+        }
+    }
+
+    public void testOverlappingPiecesMatchLinearScan() {
+        Random random = new Random(54321);
+        for (int i = 0; i < 20; i++) {
+            assertMatchesLinearScan(createRandomTable(random,
+                    1 + random.nextInt(30), true));
+        }
+    }
+
+    /**
+     * Loads a fast-saved document sized piece table and runs the lookups the
+     * formatted disk pages do for each piece. With a linear scan per lookup
+     * this takes seconds instead of milliseconds.
+     */
+    public void testTenThousandPieces() {
+        final int pieces = 10000;
+        final int length = 8;
+        TextPieceTable tpt = createReversedTable(pieces, length);
+        assertEquals(pieces, tpt.getTextPieces().size());
+
+        List<TextPiece> fcOrder = getFcOrder(tpt);
+        for (int x = 0; x < pieces; x++) {
+            TextPiece tp = tpt.getTextPieces().get(x);
+            int fcStart = getFc(tp);
+            int fcEnd = fcStart + tp.bytesLength();
+            int multiplier = tp.isUnicode() ? 2 : 1;
+
+            assertRangesEqual("piece " + x, linearGetCharIndexRanges(fcOrder,
+                    fcStart, fcEnd), tpt.getCharIndexRanges(fcStart, fcEnd));
+            // a position on a piece boundary maps to the end of the
+            // previous piece, so look one character into the piece
+            assertEquals(fcStart + multiplier,
+                    tpt.getByteIndex(x * length + 1));
+            assertTrue(tpt.isIndexInTable(fcStart));
+            assertEquals(fcStart, tpt.lookIndexBackward(fcStart));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.sprm;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.apache.poi.util.LittleEndian;
+
+public final class TestSprmIterator extends TestCase {
+    private static final int SPRMS_PER_GRPPRL = 200;
+
+    private static final int PASSES = 2000;
+
+    /**
+     * sprmPJc (1 byte), sprmPDxaLeft (2 bytes), sprmPDyaLine (4 bytes) and
+     * sprmPChgTabsPapx (variable) repeated until the grpprl holds
+     * {@link #SPRMS_PER_GRPPRL} sprms.
+     */
+    private static byte[] createGrpprl() {
+        byte[] grpprl = new byte[SPRMS_PER_GRPPRL / 4 * (3 + 4 + 6 + 5)];
+        int offset = 0;
+        for (int i = 0; i < SPRMS_PER_GRPPRL / 4; i++) {
+            LittleEndian.putShort(grpprl, offset, (short) 0x2403);
+            grpprl[offset + 2] = 1;
+            offset += 3;
+
+            LittleEndian.putShort(grpprl, offset, (short) 0x840F);
+            LittleEndian.putShort(grpprl, offset + 2, (short) 720);
+            offset += 4;
+
+            LittleEndian.putShort(grpprl, offset, (short) 0x6412);
+            LittleEndian.putInt(grpprl, offset + 2, 0x00010118);
+            offset += 6;
+
+            LittleEndian.putShort(grpprl, offset, (short) 0xC60D);
+            grpprl[offset + 2] = 2;
+            grpprl[offset + 3] = 0;
+            grpprl[offset + 4] = 0;
+            offset += 5;
+        }
+        return grpprl;
+    }
+
+    private static int walk(byte[] grpprl) {
+        SprmOperation operation = new SprmOperation();
+        SprmIterator iterator = new SprmIterator(grpprl, 0);
+        int sum = 0;
+        while (iterator.hasNext()) {
+            sum += iterator.next(operation).getOperand();
+        }
+        return sum;
+    }
+
+    public void testReusedOperationMatchesNewOperations() {
+        byte[] grpprl = createGrpprl();
+
+        SprmOperation reused = new SprmOperation();
+        SprmIterator reusing = new SprmIterator(grpprl, 0);
+        SprmIterator allocating = new SprmIterator(grpprl, 0);
+        int count = 0;
+        while (allocating.hasNext()) {
+            assertTrue(reusing.hasNext());
+            SprmOperation expected = allocating.next();
+            SprmOperation actual = reusing.next(reused);
+            assertSame(reused, actual);
+            assertEquals(expected.getOperation(), actual.getOperation());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.getOperand(), actual.getOperand());
+            count++;
+        }
+        assertFalse(reusing.hasNext());
+        assertEquals(SPRMS_PER_GRPPRL, count);
+    }
+
+    /**
+     * One sprm of every size code, including both sprms whose variable
+     * operand has a two byte length
+     */
+    private static byte[] createGrpprlOfAllSizeCodes() {
+        byte[] grpprl = new byte[3 + 3 + 4 + 6 + 4 + 4 + 5 + 5 + 7 + 6];
+        int offset = 0;
+
+        // size code 0, 1 byte
+        LittleEndian.putShort(grpprl, offset, (short) 0x0835);
+        grpprl[offset + 2] = 1;
+        offset += 3;
+
+        // size code 1, 1 byte
+        LittleEndian.putShort(grpprl, offset, (short) 0x2403);
+        grpprl[offset + 2] = 2;
+        offset += 3;
+
+        // size code 2, 2 bytes
+        LittleEndian.putShort(grpprl, offset, (short) 0x4A43);
+        LittleEndian.putShort(grpprl, offset + 2, (short) 24);
+        offset += 4;
+
+        // size code 3, 4 bytes
+        LittleEndian.putShort(grpprl, offset, (short) 0x6412);
+        LittleEndian.putInt(grpprl, offset + 2, 0x00010118);
+        offset += 6;
+
+        // size codes 4 and 5, 2 bytes
+        LittleEndian.putShort(grpprl, offset, (short) 0x840F);
+        LittleEndian.putShort(grpprl, offset + 2, (short) -720);
+        offset += 4;
+        LittleEndian.putShort(grpprl, offset, (short) 0xA413);
+        LittleEndian.putShort(grpprl, offset + 2, (short) 240);
+        offset += 4;
+
+        // size code 6, 1 byte length
+        LittleEndian.putShort(grpprl, offset, (short) 0xC60D);
+        grpprl[offset + 2] = 2;
+        grpprl[offset + 3] = 0;
+        grpprl[offset + 4] = 0;
+        offset += 5;
+
+        // size code 7, 3 bytes
+        LittleEndian.putShort(grpprl, offset, (short) 0xE800);
+        grpprl[offset + 2] = 0x01;
+        grpprl[offset + 3] = 0x02;
+        grpprl[offset + 4] = 0x03;
+        offset += 5;
+
+        // sprmTDefTable and sprmPTableProps, 2 byte length that counts
+        // one of its own bytes
+        LittleEndian.putShort(grpprl, offset, (short) 0xD608);
+        LittleEndian.putShort(grpprl, offset + 2, (short) 4);
+        grpprl[offset + 4] = 1;
+        offset += 7;
+        LittleEndian.putShort(grpprl, offset, (short) 0xC615);
+        LittleEndian.putShort(grpprl, offset + 2, (short) 3);
+        offset += 6;
+
+        return grpprl;
+    }
+
+    private static void assertSameSprm(SprmOperation expected,
+                                       SprmOperation actual) {
+        assertEquals(expected.getOperation(), actual.getOperation());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getSizeCode(), actual.getSizeCode());
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getGrpprlOffset(), actual.getGrpprlOffset());
+        assertTrue(Arrays.equals(expected.toByteArray(), actual.toByteArray()));
+        if (expected.getSizeCode() != 6) {
+            assertEquals(expected.getOperand(), actual.getOperand());
+        }
+    }
+
+    public void testResetAcrossSizeCodes() {
+        byte[] grpprl = createGrpprlOfAllSizeCodes();
+        int[] sizes = {3, 3, 4, 6, 4, 4, 5, 5, 7, 6};
+
+        // walk twice with one operation, so every size code follows every
+        // other one, including a sprm with a two byte length
+        SprmOperation reused = new SprmOperation();
+        for (int pass = 0; pass < 2; pass++) {
+            SprmIterator reusing = new SprmIterator(grpprl, 0);
+            SprmIterator allocating = new SprmIterator(grpprl, 0);
+            int count = 0;
+            while (allocating.hasNext()) {
+                assertTrue(reusing.hasNext());
+                SprmOperation actual = reusing.next(reused);
+                assertSameSprm(allocating.next(), actual);
+                assertEquals(sizes[count], actual.size());
+                count++;
+            }
+            assertFalse(reusing.hasNext());
+            assertEquals(sizes.length, count);
+        }
+
+        assertEquals(0x030201, new SprmOperation(grpprl, 29).getOperand());
+        assertEquals(-720, new SprmOperation(grpprl, 16).getOperand());
+        assertEquals(0x00010118, new SprmOperation(grpprl, 10).getOperand());
+    }
+
+    public void testWalkAllocatesNothingPerSprm() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            // allocation counters are not available on this VM
+            return;
+        }
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!sunBean.isThreadAllocatedMemorySupported()
+                || !sunBean.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+
+        byte[] grpprl = createGrpprl();
+        int sum = 0;
+        for (int i = 0; i < PASSES; i++) {
+            sum += walk(grpprl);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = sunBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < PASSES; i++) {
+            sum += walk(grpprl);
+        }
+        long allocated = sunBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(sum != 0);
+        // one operation and one iterator per pass at most, never per sprm
+        long perPass = allocated / PASSES;
+        assertTrue("allocated " + perPass + " bytes per "
+                + SPRMS_PER_GRPPRL + " sprms", perPass < 128);
+    }
+
+    public void testOversizedVariableOperand() {
+        byte[] grpprl = new byte[8];
+        LittleEndian.putShort(grpprl, 0, (short) 0xC60D);
+        grpprl[2] = 5;
+        // getOperand() takes the operand length from the byte after cb
+        grpprl[4] = 5;
+
+        SprmOperation operation = new SprmIterator(grpprl, 0).next();
+        try {
+            operation.getOperand();
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals("[SPRM] (0xc60d): (error)", operation.toString());
+    }
+}
@@ -0,0 +1,76 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.usermodel;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.poi.ddf.EscherBlipRecord;
+
+public final class TestPicture extends TestCase {
+
+    /**
+     * Builds picture data the way compressed metafiles are stored: a 33 byte
+     * header ending in one of the {@link Picture#COMPRESSED1} signature
+     * bytes, followed by the zlib stream.
+     */
+    private static Picture createCompressedPicture(byte[] zlib) {
+        byte[] data = new byte[32 + 1 + zlib.length];
+        data[32] = Picture.COMPRESSED1[0];
+        System.arraycopy(zlib, 0, data, 33, zlib.length);
+
+        EscherBlipRecord blip = new EscherBlipRecord();
+        blip.setPictureData(data);
+        return new Picture(blip);
+    }
+
+    private static byte[] deflate(byte[] content) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+        deflater.write(content);
+        deflater.close();
+        return out.toByteArray();
+    }
+
+    public void testCompressedSizeMatchesContent() throws Exception {
+        byte[] content = new byte[10000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+
+        Picture picture = createCompressedPicture(deflate(content));
+        assertEquals(content.length, picture.getSize());
+        assertTrue(Arrays.equals(content, picture.getContent()));
+        assertEquals(content.length, picture.getSize());
+    }
+
+    public void testCorruptCompressedSizeMatchesContent() throws Exception {
+        byte[] content = new byte[100000];
+        new Random(12345).nextBytes(content);
+        byte[] zlib = deflate(content);
+        // inflates part of the content before failing
+        Arrays.fill(zlib, zlib.length / 2, zlib.length, (byte) 0xFF);
+
+        assertEquals(0, createCompressedPicture(zlib).getSize());
+        assertNull(createCompressedPicture(zlib).getContent());
+    }
+}
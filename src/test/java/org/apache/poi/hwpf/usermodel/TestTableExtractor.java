@@ -0,0 +1,194 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.usermodel;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.model.StyleSheet;
+import org.apache.poi.hwpf.sprm.TableSprmCompressor;
+
+public final class TestTableExtractor extends TestCase {
+    private static final String CELL_MARK = String.valueOf('\u0007');
+
+    /**
+     * Inserts a two row table whose first cell holds a nested one row table
+     * at the start of the main range of the sample document.
+     */
+    private static HWPFDocument createNestedTablesDocument() throws Exception {
+        HWPFDocument doc = new HWPFDocument(new File(
+                "test/20030523jm.doc"), "111111");
+
+        ParagraphProperties outside = new ParagraphProperties();
+
+        ParagraphProperties outer = new ParagraphProperties();
+        outer.setFInTable(true);
+        outer.setItap(1);
+
+        ParagraphProperties inner = new ParagraphProperties();
+        inner.setFInTable(true);
+        inner.setItap(2);
+        inner.setFInnerTableCell(true);
+
+        ParagraphProperties innerRowEnd = (ParagraphProperties) inner.clone();
+        innerRowEnd.setFTtpEmbedded(true);
+
+        // Range.insertAfter does not grow the main document, so the
+        // paragraphs are prepended from last to first
+        prepend(doc, outside, "After\r");
+
+        prepend(doc, outer, CELL_MARK).setTableRowEnd(
+                createTableProperties(2, 2000));
+        prepend(doc, outer, "B2" + CELL_MARK);
+        prepend(doc, outer, "A2" + CELL_MARK);
+
+        prepend(doc, outer, CELL_MARK).setTableRowEnd(
+                createTableProperties(2, 1000));
+        prepend(doc, outer, "B1" + CELL_MARK);
+        prepend(doc, outer, "A1 end" + CELL_MARK);
+        prepend(doc, innerRowEnd, "\r")._papx.append(TableSprmCompressor
+                .compressTableProperty(createTableProperties(2, 100)));
+        prepend(doc, inner, "Inner 2\r");
+        prepend(doc, inner, "Inner 1\r");
+        prepend(doc, outer, "A1 start\r");
+
+        prepend(doc, outside, "Before\r");
+        return doc;
+    }
+
+    private static Paragraph prepend(HWPFDocument doc,
+                                     ParagraphProperties properties, String text) {
+        return doc.getRange().insertBefore(properties, StyleSheet.NIL_STYLE,
+                text);
+    }
+
+    private static TableProperties createTableProperties(int columns,
+                                                         int width) {
+        TableProperties tap = new TableProperties((short) columns);
+        short[] rgdxaCenter = new short[columns + 1];
+        for (int c = 0; c <= columns; c++) {
+            rgdxaCenter[c] = (short) (c * width);
+        }
+        tap.setRgdxaCenter(rgdxaCenter);
+        return tap;
+    }
+
+    /**
+     * Writes the callbacks of the handler in the same form as
+     * {@link #describe(Range)}.
+     */
+    private static final class RecordingHandler implements TableHandler {
+        final StringBuilder _events = new StringBuilder();
+
+        public void startTable(int level) {
+            _events.append("table ").append(level).append('\n');
+        }
+
+        public void startRow(int level, TableProperties properties) {
+            _events.append(" row ").append(level).append(' ')
+                    .append(properties.getItcMac()).append('\n');
+        }
+
+        public void cell(int level, int index, String text, int leftEdge,
+                         int width, TableCellDescriptor descriptor) {
+            appendCell(_events, level, index, text, leftEdge, width);
+        }
+
+        public void endRow(int level) {
+            _events.append(" /row ").append(level).append('\n');
+        }
+
+        public void endTable(int level) {
+            _events.append("/table ").append(level).append('\n');
+        }
+    }
+
+    private static void appendCell(StringBuilder events, int level,
+                                   int index, String text, int leftEdge, int width) {
+        events.append("  cell ").append(level).append(' ').append(index)
+                .append(" [").append(text).append("] ").append(leftEdge)
+                .append(' ').append(width).append('\n');
+    }
+
+    /**
+     * Walks the tables with {@link Range#getTable(Paragraph)} and nested
+     * {@link TableIterator}s.
+     */
+    private static String describe(Range range) {
+        StringBuilder events = new StringBuilder();
+        for (int p = 0; p < range.numParagraphs(); p++) {
+            Paragraph paragraph = range.getParagraph(p);
+            if (paragraph.isInTable() && paragraph.getTableLevel() == 1) {
+                Table table = range.getTable(paragraph);
+                describe(events, table);
+                p += table.numParagraphs() - 1;
+            }
+        }
+        return events.toString();
+    }
+
+    private static void describe(StringBuilder events, Table table) {
+        int level = table.getTableLevel();
+        events.append("table ").append(level).append('\n');
+        for (int r = 0; r < table.numRows(); r++) {
+            TableRow row = table.getRow(r);
+            events.append(" row ").append(level).append(' ')
+                    .append(row.numCells()).append('\n');
+            for (int c = 0; c < row.numCells(); c++) {
+                TableCell cell = row.getCell(c);
+                TableIterator nested = new TableIterator(cell, level + 1);
+                while (nested.hasNext()) {
+                    describe(events, nested.next());
+                }
+                appendCell(events, level, c, cell.text(), cell.getLeftEdge(),
+                        cell.getWidth());
+            }
+            events.append(" /row ").append(level).append('\n');
+        }
+        events.append("/table ").append(level).append('\n');
+    }
+
+    public void testNestedTablesMatchUsermodel() throws Exception {
+        Range range = createNestedTablesDocument().getRange();
+
+        RecordingHandler handler = new RecordingHandler();
+        new TableExtractor(range).extract(handler);
+        String events = handler._events.toString();
+
+        assertEquals(describe(range), events);
+
+        assertEquals("table 1\n"
+                + " row 1 2\n"
+                + "table 2\n"
+                + " row 2 2\n"
+                + "  cell 2 0 [Inner 1\r] 0 100\n"
+                + "  cell 2 1 [Inner 2\r] 100 100\n"
+                + " /row 2\n"
+                + "/table 2\n"
+                + "  cell 1 0 [A1 start\rInner 1\rInner 2\r\rA1 end\u0007] 0 1000\n"
+                + "  cell 1 1 [B1\u0007] 1000 1000\n"
+                + " /row 1\n"
+                + " row 1 2\n"
+                + "  cell 1 0 [A2\u0007] 0 2000\n"
+                + "  cell 1 1 [B2\u0007] 2000 2000\n"
+                + " /row 1\n"
+                + "/table 1\n", events);
+    }
+}
@@ -10,18 +10,14 @@ import java.util.ArrayList;
 public class TestDoc97 {
     private static ArrayList<RawTable> m_RawTables = new ArrayList<>();
 
-    private static String docTableCellHyperlinkText(String cellText) {
-        return cellText.replaceAll("HYPERLINK \"mailto:[^@]+@{1}[^@^\"]+\"{1}",
-                "");
-    }
+    /**
+     * Drops field instructions such as HYPERLINK and turns control
+     * characters into spaces
+     */
+    private static final TextNormalizer CELL_TEXT = new TextNormalizer();
 
-    private static String formatToSpace(String s) {
-        byte[] bs = s.getBytes();
-        for (int i = 0; i < bs.length; ++i) {
-            if (bs[i] < 32 && bs[i] > 0)
-                bs[i] = 32;
-        }
-        return new String(bs);
+    static {
+        CELL_TEXT.setControlCharactersToSpaces(true);
     }
 
     public static void main(String[] args) {
@@ -59,8 +55,8 @@ public class TestDoc97 {
                     StringBuilder sb = new StringBuilder();
                     for (int k = 0; k < tc.numParagraphs(); k++) {
                         Paragraph para = tc.getParagraph(k);
-                        sb.append(docTableCellHyperlinkText(
-                                formatToSpace(para.text())).trim()).append(" ");
+                        sb.append(CELL_TEXT.normalize(para.text()).trim())
+                                .append(" ");
                         System.out.println(sb.toString());
                     }
                     r.add(new CellShape(sb.toString().trim(), tc.getLeftEdge(), -1, -1));